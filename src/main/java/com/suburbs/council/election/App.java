@@ -1,10 +1,13 @@
 package com.suburbs.council.election;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.suburbs.council.election.paxos.GroupRuntime;
 import com.suburbs.council.election.paxos.PaxosDriver;
 import com.suburbs.council.election.utils.ConfigurationUtil;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,6 +23,8 @@ public class App {
     /**
      * main method will receive the path for configuration file with following format:
      *      <pre><code>file:///path/to/config/file.json</code></pre>
+     * The file holds the configuration of one node, or an array of them, one per council
+     * run by this process.
      *
      * @param args Arguments, 1st one being path of the configuration file
      * @throws IOException Thrown if something went wrong while parsing configuration file
@@ -28,34 +33,55 @@ public class App {
         log.info("Loading configuration from file: {}", args[0]);
 
         InputStream configurationStream;
-        Node node;
+        List<Node> nodes = new ArrayList<>();
 
         try {
-            // Parsing the configuration file and mapping it to the Node object
+            // Parsing the configuration file and mapping it to the Node objects
             configurationStream = ConfigurationUtil.loadConfigurationFromFile(args[0]);
-            node = mapper
-                    .readValue(configurationStream, Node.class);
+            JsonNode configuration = mapper.readTree(configurationStream);
 
-            // Remove the node information from the members list, as the downstream components
-            // will try to make a connection with the members
-            removeNodeFromMemberList(node.getName(), node.getMembers());
+            if (configuration.isArray()) {
+                for (JsonNode nodeConfiguration : configuration) {
+                    nodes.add(mapper.treeToValue(nodeConfiguration, Node.class));
+                }
+            } else {
+                nodes.add(mapper.treeToValue(configuration, Node.class));
+            }
+
+            nodes.forEach(App::removeNodeFromMemberList);
 
         } catch (IOException e) {
             throw new IOException("Unable to parse the configuration file with error: " + e.getMessage());
         }
 
+        // Several councils share the transport and the threads of one runtime
+        if (nodes.size() > 1) {
+            new GroupRuntime(nodes).start();
+            return;
+        }
+
         // Paxos driver initialization. PaxosDriver performs all the paxos related logic.
-        paxosDriver = new PaxosDriver(node);
+        paxosDriver = new PaxosDriver(nodes.get(0));
         paxosDriver.start();
     }
 
     /**
-     * Removes current nodes details from the member list.
+     * Removes current nodes details from the member list, as the downstream components
+     * will try to make a connection with the members. The vote weight, the sub-council and the host of the node are kept.
      *
-     * @param nodeName Current node name
-     * @param members list of members
+     * @param node Current node
      */
-    private static void removeNodeFromMemberList(String nodeName, List<Member> members) {
-        members.removeIf(member -> nodeName.equalsIgnoreCase(member.getName()));
+    static void removeNodeFromMemberList(Node node) {
+        List<Member> members = node.getMembers();
+        members.stream()
+                .filter(member -> node.getName().equalsIgnoreCase(member.getName()))
+                .findFirst()
+                .ifPresent(member -> {
+                    node.setVoteWeight(member.getVoteWeight());
+                    node.setSubCouncil(member.getSubCouncil());
+                    node.setHost(member.getHost());
+                });
+
+        members.removeIf(member -> node.getName().equalsIgnoreCase(member.getName()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,199 @@
+package com.suburbs.council.election;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.suburbs.council.election.enums.ProtocolMode;
+import com.suburbs.council.election.messages.ClientRequest;
+import com.suburbs.council.election.messages.Message;
+import com.suburbs.council.election.paxos.Candidate;
+import com.suburbs.council.election.paxos.Context;
+import com.suburbs.council.election.paxos.PaxosDriver;
+import com.suburbs.council.election.paxos.ProposalBatcher;
+import com.suburbs.council.election.paxos.service.Histogram;
+import com.suburbs.council.election.utils.PaxosUtils;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Benchmark runs a local council per protocol mode in this process, commits the same client values
+ * one at a time in each of them, and prints the protocol messages received by all the nodes and the
+ * decision latency of the values measured by the leader. It is run from the packaged jar:
+ *      <pre><code>java -cp target/paxos-suburbs-council-election-1.0-SNAPSHOT.jar \
+ *      com.suburbs.council.election.Benchmark [nodes] [values] 2>/dev/null</code></pre>
+ * The logs of the nodes go to stderr, the results to stdout.
+ */
+public class Benchmark {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    // Modes compared, and the first port of the council of each mode
+    private static final ProtocolMode[] MODES = {ProtocolMode.CLASSIC, ProtocolMode.FAST_BYZANTINE};
+    private static final int BASE_PORT = 9600;
+
+    private static final long ELECTION_TIMEOUT_MS = 60_000L;
+    private static final long DECISION_TIMEOUT_MS = 10_000L;
+
+    /**
+     * main method receives the no. of nodes, 6 by default so that FAST_BYZANTINE supports one
+     * byzantine fault, and the no. of values, 40 by default.
+     *
+     * @param args Arguments, the no. of nodes and the no. of values
+     * @throws Exception Thrown if a council can not be started or does not decide in time
+     */
+    public static void main(String[] args) throws Exception {
+        int nodes = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        int values = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+
+        System.out.printf("%d nodes, %d values in single-value slots%n", nodes, values);
+        for (int i = 0; i < MODES.length; i++) {
+            run(MODES[i], nodes, values, BASE_PORT + i * 100);
+        }
+
+        // The nodes run on non-daemon threads which are never stopped
+        System.exit(0);
+    }
+
+    /**
+     * Starts the council in the mode, elects node 1 and commits the values through it.
+     *
+     * @param mode Protocol mode
+     * @param nodes No. of nodes
+     * @param values No. of values
+     * @param basePort Port of node 0, node i listens on basePort + i
+     * @throws Exception Thrown if the council can not be started or does not decide in time
+     */
+    private static void run(ProtocolMode mode, int nodes, int values, int basePort) throws Exception {
+        List<Context> contexts = new ArrayList<>();
+        for (int id = 1; id <= nodes; id++) {
+            PaxosDriver paxosDriver = new PaxosDriver(createNode(mode, id, nodes, basePort));
+            paxosDriver.start();
+            contexts.add(paxosDriver.getContext());
+        }
+
+        Context leader = contexts.get(0);
+        awaitOrFail(() -> leader.getMetrics().histogram(Candidate.ELECTION_LATENCY).getCount() > 0
+                        && contexts.stream().allMatch(context -> context.getLeaderNodeId() == leader.getNodeId()),
+                ELECTION_TIMEOUT_MS, mode + ": no leader elected");
+
+        // Only the messages of the values are counted, not the ones of the election
+        Map<Message.Type, Long> before = countReceivedMessages(contexts);
+        for (int i = 0; i < values; i++) {
+            long nextSlot = leader.getReplicatedLog().getNextDeliverySlot();
+            submit(basePort + leader.getNodeId(), mode + "-" + i);
+            awaitOrFail(() -> leader.getReplicatedLog().getNextDeliverySlot() > nextSlot,
+                    DECISION_TIMEOUT_MS, mode + ": value " + i + " not decided");
+        }
+
+        long lastSlot = leader.getReplicatedLog().getNextDeliverySlot();
+        awaitOrFail(() -> contexts.stream().allMatch(context -> context.getReplicatedLog().getNextDeliverySlot() >= lastSlot),
+                DECISION_TIMEOUT_MS, mode + ": members did not learn all the values");
+
+        // The last votes are still in flight once the members learned the values
+        Thread.sleep(1000);
+        Map<Message.Type, Long> after = countReceivedMessages(contexts);
+
+        // Heartbeats and the client requests are the same in every mode
+        long total = 0;
+        StringBuilder perType = new StringBuilder();
+        for (Message.Type type : Message.Type.values()) {
+            long received = after.get(type) - before.get(type);
+            if (received > 0 && type != Message.Type.HEARTBEAT && type != Message.Type.CLIENT_REQUEST) {
+                total += received;
+                perType.append(String.format("%n    messages.received.%s = %d", type, received));
+            }
+        }
+
+        Histogram latency = leader.getMetrics().histogram(ProposalBatcher.BATCH_VALUE_LATENCY);
+        System.out.printf("%s: %d protocol messages, %.1f per value%s%n", mode, total, (double) total / values, perType);
+        System.out.printf("    %s mean = %.0f, p50 = %d, p99 = %d%n", ProposalBatcher.BATCH_VALUE_LATENCY,
+                latency.getMean(), latency.getPercentile(50), latency.getPercentile(99));
+    }
+
+    /**
+     * Creates the configuration of a node, like the configuration files do. Node 1 is the only
+     * candidate, so it is elected right away.
+     *
+     * @param mode Protocol mode
+     * @param id Node id
+     * @param nodes No. of nodes
+     * @param basePort Port of node 0
+     * @return Node, without itself in its members
+     */
+    private static Node createNode(ProtocolMode mode, int id, int nodes, int basePort) {
+        List<Map<String, Object>> members = new ArrayList<>();
+        for (int memberId = 1; memberId <= nodes; memberId++) {
+            members.add(Map.of("id", memberId, "name", "Member " + memberId,
+                    "host", "127.0.0.1", "port", basePort + memberId));
+        }
+
+        Map<String, Object> configuration = new HashMap<>();
+        configuration.put("id", id);
+        configuration.put("name", "Member " + id);
+        configuration.put("port", basePort + id);
+        configuration.put("initProposeDelay", id == 1 ? 1 : 1000);
+        configuration.put("responseTiming", "IMMEDIATE");
+        configuration.put("profile", id == 1 ? "CANDIDATE" : "FOLLOWER");
+        configuration.put("protocolMode", mode.name());
+        configuration.put("maxBatchSize", 1);
+        configuration.put("members", members);
+
+        Node node = mapper.convertValue(configuration, Node.class);
+        App.removeNodeFromMemberList(node);
+        return node;
+    }
+
+    /**
+     * Sends the value as a client request to the node.
+     *
+     * @param port Port of the node
+     * @param value Value
+     * @throws IOException Thrown if the node can not be reached
+     */
+    private static void submit(int port, String value) throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            OutputStream outputStream = socket.getOutputStream();
+            outputStream.write((PaxosUtils.serialize(new ClientRequest(value)) + "\n").getBytes(StandardCharsets.UTF_8));
+            outputStream.flush();
+        }
+    }
+
+    /**
+     * Sums the messages received per type by all the nodes.
+     *
+     * @param contexts Contexts of the nodes
+     * @return Received messages per type
+     */
+    private static Map<Message.Type, Long> countReceivedMessages(List<Context> contexts) {
+        Map<Message.Type, Long> received = new EnumMap<>(Message.Type.class);
+        for (Message.Type type : Message.Type.values()) {
+            received.put(type, contexts.stream()
+                    .mapToLong(context -> context.getMetrics().getCounter("messages.received." + type))
+                    .sum());
+        }
+        return received;
+    }
+
+    /**
+     * Waits until the condition holds.
+     *
+     * @param condition Condition
+     * @param timeoutMs Max time to wait in ms
+     * @param failure Message of the failure if the condition does not hold in time
+     * @throws InterruptedException Thrown if interrupted while waiting
+     */
+    private static void awaitOrFail(BooleanSupplier condition, long timeoutMs, String failure) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException(failure);
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.suburbs.council.election;
 
+import com.suburbs.council.election.enums.Profile;
+import com.suburbs.council.election.paxos.MessageAuthenticator;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
@@ -23,6 +25,22 @@ public class Member {
     // Initially all members are inactive
     private boolean isActiveMember = false;
 
+    // Secret shared with this member, used to derive the key of the message authentication
+    private String sharedKey;
+    private MessageAuthenticator authenticator;
+
+    // Council the messages dispatched to this member belong to, null for a single council
+    private String groupId;
+
+    // Weight of the member's votes in the quorums
+    private int voteWeight = 1;
+
+    // Sub-council the member votes in, null for a flat council
+    private String subCouncil;
+
+    // Profile of the member, observers do not vote and are not counted in the quorums
+    private Profile profile;
+
 
     /**
      * It will create {@link SocketAddress} with the given {@link #host} and {@link #port}
@@ -97,6 +115,68 @@ public class Member {
         return socket;
     }
 
+    public int getVoteWeight() {
+        return voteWeight;
+    }
+
+    public void setVoteWeight(int voteWeight) {
+        this.voteWeight = voteWeight;
+    }
+
+    public String getSubCouncil() {
+        return subCouncil;
+    }
+
+    public void setSubCouncil(String subCouncil) {
+        this.subCouncil = subCouncil;
+    }
+
+    public Profile getProfile() {
+        return profile;
+    }
+
+    public void setProfile(Profile profile) {
+        this.profile = profile;
+    }
+
+    public boolean isObserver() {
+        return profile == Profile.OBSERVER;
+    }
+
+    public String getSharedKey() {
+        return sharedKey;
+    }
+
+    public void setSharedKey(String sharedKey) {
+        this.sharedKey = sharedKey;
+    }
+
+    /**
+     * Sets the authenticator signing the messages dispatched to this member.
+     *
+     * @param authenticator Message authenticator
+     */
+    public void authenticateWith(MessageAuthenticator authenticator) {
+        this.authenticator = authenticator;
+    }
+
+    public MessageAuthenticator authenticator() {
+        return authenticator;
+    }
+
+    /**
+     * Sets the council the messages dispatched to this member are tagged with.
+     *
+     * @param groupId Group id
+     */
+    public void tagWithGroup(String groupId) {
+        this.groupId = groupId;
+    }
+
+    public String groupId() {
+        return groupId;
+    }
+
     public int getId() {
         return id;
     }
@@ -1,6 +1,7 @@
 package com.suburbs.council.election;
 
 import com.suburbs.council.election.enums.Profile;
+import com.suburbs.council.election.enums.ProtocolMode;
 import com.suburbs.council.election.enums.ResponseTiming;
 import java.util.List;
 
@@ -13,10 +14,16 @@ public class Node {
 
     private String name;
 
+    // Council this node belongs to, if the process runs several of them. Null for a single council.
+    private String groupId;
+
     private int rank;
 
     private int port;
 
+    // Address the other nodes reach this node at, taken from its own entry of the members
+    private String host;
+
     private ResponseTiming responseTiming;
 
     private Profile profile;
@@ -25,6 +32,69 @@ public class Node {
 
     private int initProposeDelay;
 
+    // Max no. of slots the leader keeps in flight
+    private int pipelineWindow = 8;
+
+    // Limits of a batch of client values committed in one slot
+    private int maxBatchSize = 64;
+    private int maxBatchBytes = 64 * 1024;
+    private int batchLingerMs = 5;
+
+    // Duration of the leader lease, 0 disables the leases
+    private int leaseDurationMs = 0;
+
+    // Send the accept-phase messages only to a quorum of the fastest members, falling
+    // back to all the members if the quorum does not respond in time
+    private boolean thrifty = false;
+    private int thriftyTimeoutMs = 500;
+
+    // Time in ms the first election round gets before it is retried, doubled with every contended round
+    private int electionBackoffMs = 1000;
+
+    // Quorum sizes of the prepare and the accept phase, 0 uses the majority number
+    private int phaseOneQuorum = 0;
+    private int phaseTwoQuorum = 0;
+
+    // Weight of this node's votes, taken from its own entry in the members list
+    private int voteWeight = 1;
+
+    // Sub-council this node votes in, taken from its own entry in the members list. Null runs a flat council.
+    private String subCouncil;
+
+    // Send the ACCEPTED messages to a single learner, which announces the decision to the members.
+    // The learner is the leader, unless a node id is configured.
+    private boolean distinguishedLearner = false;
+    private int learnerNodeId = 0;
+
+    // Node ids of the candidates the log slots are assigned to round-robin, null or empty for a single leader
+    private List<Integer> slotOwners;
+
+    // Commit the client values without a leader, ordering only the values with the same conflict key
+    private boolean leaderless = false;
+    private String conflictKeyFunction = "com.suburbs.council.election.paxos.PrefixConflictKey";
+
+    // Node is not a member of the running council yet, it catches up and then asks the leader to add it
+    private boolean joining = false;
+
+    // Children per node of the tree the DECIDED messages and the log entries are relayed along, 0 sends them directly
+    private int disseminationFanout = 0;
+
+    // Rounds run by the members, AUTO chooses from the no. of byzantine faults supported
+    private ProtocolMode protocolMode = ProtocolMode.AUTO;
+
+    // Secret the keys of the message authentication are derived from, null disables it
+    // unless a shared key is configured per member
+    private String clusterSecret;
+
+    // Secret the key of the trusted counters is derived from, needed in HYBRID mode
+    private String trustedCounterSecret;
+
+    // Directory of the write-ahead log the acceptor state is made durable in, null keeps it in memory only
+    private String walDirectory;
+
+    // No. of delivered log slots between two snapshots of the applied state, 0 never truncates the log
+    private int snapshotInterval = 0;
+
     public Node(int id, String name, int rank, ResponseTiming responseTiming,
                 Profile profile, List<Member> members,
                 int initProposeDelay) {
@@ -50,6 +120,14 @@ public class Node {
         this.name = name;
     }
 
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public void setGroupId(String groupId) {
+        this.groupId = groupId;
+    }
+
     public int getRank() {
         return rank;
     }
@@ -90,6 +168,198 @@ public class Node {
         this.initProposeDelay = initProposeDelay;
     }
 
+    public int getPipelineWindow() {
+        return pipelineWindow;
+    }
+
+    public void setPipelineWindow(int pipelineWindow) {
+        this.pipelineWindow = pipelineWindow;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public int getMaxBatchBytes() {
+        return maxBatchBytes;
+    }
+
+    public void setMaxBatchBytes(int maxBatchBytes) {
+        this.maxBatchBytes = maxBatchBytes;
+    }
+
+    public int getBatchLingerMs() {
+        return batchLingerMs;
+    }
+
+    public void setBatchLingerMs(int batchLingerMs) {
+        this.batchLingerMs = batchLingerMs;
+    }
+
+    public int getLeaseDurationMs() {
+        return leaseDurationMs;
+    }
+
+    public void setLeaseDurationMs(int leaseDurationMs) {
+        this.leaseDurationMs = leaseDurationMs;
+    }
+
+    public boolean isThrifty() {
+        return thrifty;
+    }
+
+    public void setThrifty(boolean thrifty) {
+        this.thrifty = thrifty;
+    }
+
+    public int getThriftyTimeoutMs() {
+        return thriftyTimeoutMs;
+    }
+
+    public void setThriftyTimeoutMs(int thriftyTimeoutMs) {
+        this.thriftyTimeoutMs = thriftyTimeoutMs;
+    }
+
+    public int getElectionBackoffMs() {
+        return electionBackoffMs;
+    }
+
+    public void setElectionBackoffMs(int electionBackoffMs) {
+        this.electionBackoffMs = electionBackoffMs;
+    }
+
+    public int getVoteWeight() {
+        return voteWeight;
+    }
+
+    public void setVoteWeight(int voteWeight) {
+        this.voteWeight = voteWeight;
+    }
+
+    public String getSubCouncil() {
+        return subCouncil;
+    }
+
+    public void setSubCouncil(String subCouncil) {
+        this.subCouncil = subCouncil;
+    }
+
+    public boolean isDistinguishedLearner() {
+        return distinguishedLearner;
+    }
+
+    public void setDistinguishedLearner(boolean distinguishedLearner) {
+        this.distinguishedLearner = distinguishedLearner;
+    }
+
+    public int getLearnerNodeId() {
+        return learnerNodeId;
+    }
+
+    public void setLearnerNodeId(int learnerNodeId) {
+        this.learnerNodeId = learnerNodeId;
+    }
+
+    public List<Integer> getSlotOwners() {
+        return slotOwners;
+    }
+
+    public void setSlotOwners(List<Integer> slotOwners) {
+        this.slotOwners = slotOwners;
+    }
+
+    public boolean isLeaderless() {
+        return leaderless;
+    }
+
+    public void setLeaderless(boolean leaderless) {
+        this.leaderless = leaderless;
+    }
+
+    public boolean isJoining() {
+        return joining;
+    }
+
+    public void setJoining(boolean joining) {
+        this.joining = joining;
+    }
+
+    public String getConflictKeyFunction() {
+        return conflictKeyFunction;
+    }
+
+    public void setConflictKeyFunction(String conflictKeyFunction) {
+        this.conflictKeyFunction = conflictKeyFunction;
+    }
+
+    public int getDisseminationFanout() {
+        return disseminationFanout;
+    }
+
+    public void setDisseminationFanout(int disseminationFanout) {
+        this.disseminationFanout = disseminationFanout;
+    }
+
+    public int getPhaseOneQuorum() {
+        return phaseOneQuorum;
+    }
+
+    public void setPhaseOneQuorum(int phaseOneQuorum) {
+        this.phaseOneQuorum = phaseOneQuorum;
+    }
+
+    public int getPhaseTwoQuorum() {
+        return phaseTwoQuorum;
+    }
+
+    public void setPhaseTwoQuorum(int phaseTwoQuorum) {
+        this.phaseTwoQuorum = phaseTwoQuorum;
+    }
+
+    public ProtocolMode getProtocolMode() {
+        return protocolMode;
+    }
+
+    public void setProtocolMode(ProtocolMode protocolMode) {
+        this.protocolMode = protocolMode;
+    }
+
+    public String getClusterSecret() {
+        return clusterSecret;
+    }
+
+    public void setClusterSecret(String clusterSecret) {
+        this.clusterSecret = clusterSecret;
+    }
+
+    public String getTrustedCounterSecret() {
+        return trustedCounterSecret;
+    }
+
+    public void setTrustedCounterSecret(String trustedCounterSecret) {
+        this.trustedCounterSecret = trustedCounterSecret;
+    }
+
+    public String getWalDirectory() {
+        return walDirectory;
+    }
+
+    public void setWalDirectory(String walDirectory) {
+        this.walDirectory = walDirectory;
+    }
+
+    public int getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    public void setSnapshotInterval(int snapshotInterval) {
+        this.snapshotInterval = snapshotInterval;
+    }
+
     public int getPort() {
         return port;
     }
@@ -98,6 +368,14 @@ public class Node {
         this.port = port;
     }
 
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
     public int getId() {
         return id;
     }
@@ -111,12 +389,35 @@ public class Node {
         return "NodeConfiguration{" +
                 "id=" + id +
                 ", name='" + name + '\'' +
+                ", groupId='" + groupId + '\'' +
                 ", rank=" + rank +
                 ", responseTiming=" + responseTiming +
                 ", profile=" + profile +
                 ", port=" + port +
                 ", memberConfiguration=" + members +
                 ", initProposeDelay=" + initProposeDelay +
+                ", pipelineWindow=" + pipelineWindow +
+                ", maxBatchSize=" + maxBatchSize +
+                ", maxBatchBytes=" + maxBatchBytes +
+                ", batchLingerMs=" + batchLingerMs +
+                ", leaseDurationMs=" + leaseDurationMs +
+                ", thrifty=" + thrifty +
+                ", thriftyTimeoutMs=" + thriftyTimeoutMs +
+                ", electionBackoffMs=" + electionBackoffMs +
+                ", voteWeight=" + voteWeight +
+                ", subCouncil='" + subCouncil + '\'' +
+                ", distinguishedLearner=" + distinguishedLearner +
+                ", learnerNodeId=" + learnerNodeId +
+                ", slotOwners=" + slotOwners +
+                ", leaderless=" + leaderless +
+                ", joining=" + joining +
+                ", conflictKeyFunction='" + conflictKeyFunction + '\'' +
+                ", disseminationFanout=" + disseminationFanout +
+                ", phaseOneQuorum=" + phaseOneQuorum +
+                ", phaseTwoQuorum=" + phaseTwoQuorum +
+                ", protocolMode=" + protocolMode +
+                ", walDirectory='" + walDirectory + '\'' +
+                ", snapshotInterval=" + snapshotInterval +
                 '}';
     }
 }
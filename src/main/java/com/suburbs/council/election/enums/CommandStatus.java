@@ -0,0 +1,13 @@
+package com.suburbs.council.election.enums;
+
+/**
+ * CommandStatus is the state of a command instance in leaderless mode, in the
+ * order an instance goes through them.
+ */
+public enum CommandStatus {
+
+    PRE_ACCEPTED, // Attributes proposed by the command leader, possibly extended by this node
+    ACCEPTED,     // Attributes merged by the command leader on the slow path
+    COMMITTED,    // Attributes are final, executed once all the dependencies are committed
+    EXECUTED
+}
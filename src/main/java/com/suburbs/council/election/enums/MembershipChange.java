@@ -0,0 +1,11 @@
+package com.suburbs.council.election.enums;
+
+/**
+ * MembershipChange is the kind of a reconfiguration of the council. Members are added
+ * or removed one at a time, so that the majorities of the old and the new council intersect.
+ */
+public enum MembershipChange {
+
+    ADD,    // Member joins the council once its log caught up
+    REMOVE  // Member leaves the council
+}
@@ -0,0 +1,12 @@
+package com.suburbs.council.election.enums;
+
+/**
+ * Phase of the protocol a quorum is counted for. Each phase can be
+ * configured with its own quorum size, as long as any two quorums intersect.
+ */
+public enum Phase {
+
+    PREPARE, // PREPROMISE and PROMISE messages
+    ACCEPT,  // PREACCEPTED and ACCEPTED messages
+    LEARN    // ACCEPTED messages certified in a DECIDED message, counted like the accept phase
+}
@@ -7,5 +7,6 @@ package com.suburbs.council.election.enums;
 public enum Profile {
 
     CANDIDATE,
-    FOLLOWER // All Candidates are also a follower
+    FOLLOWER, // All Candidates are also a follower
+    OBSERVER // Learns the decided values and serves reads, but never votes
 }
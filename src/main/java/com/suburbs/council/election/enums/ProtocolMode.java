@@ -0,0 +1,18 @@
+package com.suburbs.council.election.enums;
+
+/**
+ * ProtocolMode selects the rounds run by the members. Without byzantine faults
+ * to tolerate, the all-to-all pre-rounds of Fast Byzantine Paxos only add messages.
+ * In LINEAR_BYZANTINE mode the pre-round votes are sent to the proposer only, which
+ * forwards a quorum of them as a certificate, so each round costs a linear no. of messages.
+ * In HYBRID mode a trusted counter on every node keeps the faulty nodes from equivocating, so
+ * the classic rounds tolerate f byzantine faults with 2f + 1 nodes.
+ */
+public enum ProtocolMode {
+
+    AUTO,           // CLASSIC if no byzantine fault can be supported, otherwise FAST_BYZANTINE
+    CLASSIC,        // PREPARE -> PROMISE -> ACCEPT -> ACCEPTED
+    FAST_BYZANTINE, // PREPARE -> PREPROMISE -> PROMISE -> ACCEPT -> PREACCEPTED -> ACCEPTED
+    LINEAR_BYZANTINE, // PREPARE -> PREPROMISE -> CERTIFICATE -> PROMISE -> ACCEPT -> PREACCEPTED -> CERTIFICATE -> ACCEPTED
+    HYBRID          // PREPARE -> PROMISE -> ACCEPT -> ACCEPTED, attested by the trusted counters, 2f + 1 nodes
+}
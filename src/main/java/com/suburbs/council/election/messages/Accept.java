@@ -1,10 +1,15 @@
 package com.suburbs.council.election.messages;
 
 import com.suburbs.council.election.paxos.Context;
+import java.util.List;
 
 /**
  * Accept messages are sent by Proposer requesting other members
  * to fulfill their Promise, accept the proposed state and come to consensus.
+ * <br>
+ * Slot <code>0</code> is reserved for the election itself, in which case the value
+ * is the {@link Proposal} of the promised {@link Prepare} message. Higher slots
+ * carry client values proposed by the leader of the term.
  */
 public class Accept implements Message {
 
@@ -12,6 +17,28 @@ public class Accept implements Message {
     private int proposerNodeId;
     private String proposerNodeName;
     private String prepareMessageId;
+    private long slot;
+    private Proposal proposal;
+
+    // Local time of the leader, echoed back in ACCEPTED as a lease grant
+    private long leaseRequestTimestamp;
+
+    // Local time of the proposer when the message was sent, echoed back in ACCEPTED to measure the response time
+    private long dispatchTimestamp;
+
+    // Members asked to run the pre-round in thrifty mode, null if all the members are asked
+    private List<Integer> quorumMemberIds;
+
+    // First slot of the term proposed by the owners of the slots, and the owners whose slots the
+    // leader proposes in the term. Set in the ACCEPT message of the election only.
+    private long ownedSlotsFrom;
+    private List<Integer> revokedOwnerIds;
+
+    // Delegate which forwarded the log entry to its sub-council and collects the votes, 0 if sent to the delegate
+    private int delegateNodeId;
+
+    // Ballot and value attested by the trusted counter of the proposer in HYBRID mode
+    private String counterAttestation;
 
     /**
      * Constructor.
@@ -27,6 +54,21 @@ public class Accept implements Message {
         this.prepareMessageId = prepareMessageId;
     }
 
+    /**
+     * Constructor.
+     *
+     * @param context Context object holds the resources which are shared among all the threads
+     * @param prepareMessageId Identifier of the PREPARE message which made this node the leader
+     * @param slot Log slot this value is proposed for
+     * @param proposal Proposed value
+     */
+    public Accept(Context context, String prepareMessageId, long slot, Proposal proposal) {
+        this(context, prepareMessageId);
+
+        this.slot = slot;
+        this.proposal = proposal;
+    }
+
     // No-Arg constructor Used by the Jackson
     public Accept() {
     }
@@ -59,6 +101,78 @@ public class Accept implements Message {
         this.proposerNodeName = proposerNodeName;
     }
 
+    public long getSlot() {
+        return slot;
+    }
+
+    public void setSlot(long slot) {
+        this.slot = slot;
+    }
+
+    public Proposal getProposal() {
+        return proposal;
+    }
+
+    public void setProposal(Proposal proposal) {
+        this.proposal = proposal;
+    }
+
+    public List<Integer> getQuorumMemberIds() {
+        return quorumMemberIds;
+    }
+
+    public void setQuorumMemberIds(List<Integer> quorumMemberIds) {
+        this.quorumMemberIds = quorumMemberIds;
+    }
+
+    public long getLeaseRequestTimestamp() {
+        return leaseRequestTimestamp;
+    }
+
+    public void setLeaseRequestTimestamp(long leaseRequestTimestamp) {
+        this.leaseRequestTimestamp = leaseRequestTimestamp;
+    }
+
+    public long getOwnedSlotsFrom() {
+        return ownedSlotsFrom;
+    }
+
+    public void setOwnedSlotsFrom(long ownedSlotsFrom) {
+        this.ownedSlotsFrom = ownedSlotsFrom;
+    }
+
+    public List<Integer> getRevokedOwnerIds() {
+        return revokedOwnerIds;
+    }
+
+    public void setRevokedOwnerIds(List<Integer> revokedOwnerIds) {
+        this.revokedOwnerIds = revokedOwnerIds;
+    }
+
+    public int getDelegateNodeId() {
+        return delegateNodeId;
+    }
+
+    public void setDelegateNodeId(int delegateNodeId) {
+        this.delegateNodeId = delegateNodeId;
+    }
+
+    public String getCounterAttestation() {
+        return counterAttestation;
+    }
+
+    public void setCounterAttestation(String counterAttestation) {
+        this.counterAttestation = counterAttestation;
+    }
+
+    public long getDispatchTimestamp() {
+        return dispatchTimestamp;
+    }
+
+    public void setDispatchTimestamp(long dispatchTimestamp) {
+        this.dispatchTimestamp = dispatchTimestamp;
+    }
+
     /**
      * Get the type of the message.
      *
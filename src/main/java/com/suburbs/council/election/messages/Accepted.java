@@ -1,6 +1,7 @@
 package com.suburbs.council.election.messages;
 
 import com.suburbs.council.election.paxos.Context;
+import java.util.Map;
 
 /**
  * Accepted message is sent by the Member back to the Proposer
@@ -13,6 +14,20 @@ public class Accepted implements Message {
     private String responderNodeName;
     private String prepareMessageId;
     private Prepare proposedPrepareMessage;
+    private long slot;
+    private Proposal proposal;
+
+    // Echo of the lease request timestamp of the ACCEPT message
+    private long leaseRequestTimestamp;
+
+    // Echo of the dispatch timestamp of the ACCEPT message
+    private long acceptDispatchTimestamp;
+
+    // MAC of the vote per member, set when sent to a distinguished learner of authenticated messages
+    private Map<Integer, String> authenticators;
+
+    // Ballot and value attested by the trusted counter of the responder in HYBRID mode
+    private String counterAttestation;
 
     /**
      * Constructor.
@@ -30,6 +45,21 @@ public class Accepted implements Message {
         this.proposedPrepareMessage = proposedPrepareMessage;
     }
 
+    /**
+     * Constructor.
+     *
+     * @param context Context object holds the resources which are shared among all the threads
+     * @param prepareMessageId Identifier of the PREPARE message which made the proposer the leader
+     * @param slot Log slot of the accepted value
+     * @param proposal Accepted value
+     */
+    public Accepted(Context context, String prepareMessageId, long slot, Proposal proposal) {
+        this(context, prepareMessageId, null);
+
+        this.slot = slot;
+        this.proposal = proposal;
+    }
+
     // No-args constructor used by Jackson
     public Accepted() {
     }
@@ -70,6 +100,54 @@ public class Accepted implements Message {
         this.proposedPrepareMessage = proposedPrepareMessage;
     }
 
+    public long getSlot() {
+        return slot;
+    }
+
+    public void setSlot(long slot) {
+        this.slot = slot;
+    }
+
+    public Proposal getProposal() {
+        return proposal;
+    }
+
+    public void setProposal(Proposal proposal) {
+        this.proposal = proposal;
+    }
+
+    public long getLeaseRequestTimestamp() {
+        return leaseRequestTimestamp;
+    }
+
+    public void setLeaseRequestTimestamp(long leaseRequestTimestamp) {
+        this.leaseRequestTimestamp = leaseRequestTimestamp;
+    }
+
+    public long getAcceptDispatchTimestamp() {
+        return acceptDispatchTimestamp;
+    }
+
+    public void setAcceptDispatchTimestamp(long acceptDispatchTimestamp) {
+        this.acceptDispatchTimestamp = acceptDispatchTimestamp;
+    }
+
+    public Map<Integer, String> getAuthenticators() {
+        return authenticators;
+    }
+
+    public void setAuthenticators(Map<Integer, String> authenticators) {
+        this.authenticators = authenticators;
+    }
+
+    public String getCounterAttestation() {
+        return counterAttestation;
+    }
+
+    public void setCounterAttestation(String counterAttestation) {
+        this.counterAttestation = counterAttestation;
+    }
+
     /**
      * Get the type of the message.
      *
@@ -0,0 +1,57 @@
+package com.suburbs.council.election.messages;
+
+/**
+ * ClientRequest carries a value submitted by a client that has to be
+ * replicated to all the members. Members which are not leading the
+ * current term forward the request to the leader.
+ */
+public class ClientRequest implements Message {
+
+    private Type messageType;
+    private String value;
+    private boolean forwarded;
+
+    /**
+     * Constructor.
+     *
+     * @param value Value to be replicated
+     */
+    public ClientRequest(String value) {
+        this.messageType = Type.CLIENT_REQUEST;
+        this.value = value;
+    }
+
+    // No-args constructor used by Jackson
+    public ClientRequest() {
+    }
+
+    public void setMessageType(Type messageType) {
+        this.messageType = messageType;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public boolean isForwarded() {
+        return forwarded;
+    }
+
+    public void setForwarded(boolean forwarded) {
+        this.forwarded = forwarded;
+    }
+
+    /**
+     * Get the type of the message.
+     *
+     * @return Type of the message
+     */
+    @Override
+    public Type getMessageType() {
+        return messageType;
+    }
+}
@@ -0,0 +1,141 @@
+package com.suburbs.council.election.messages;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Command is a client value committed in leaderless mode, in the instance of the member which
+ * received it from the client, the command leader. Its attributes, the sequence no. and the
+ * instances of the conflicting commands it depends on, order it against those commands.
+ */
+public class Command implements Serializable {
+
+    private int ownerNodeId;
+    private long instanceNumber;
+    private String value;
+    private String conflictKey;
+    private long seq;
+
+    // Instance ids of the conflicting commands this command is executed after
+    private List<String> deps;
+
+    /**
+     * Constructor.
+     *
+     * @param ownerNodeId Node id of the command leader
+     * @param instanceNumber Instance no. of the command leader
+     * @param value Client value
+     * @param conflictKey Conflict key of the value
+     * @param seq Sequence no.
+     * @param deps Instance ids of the dependencies
+     */
+    public Command(int ownerNodeId, long instanceNumber, String value, String conflictKey, long seq,
+                   List<String> deps) {
+        this.ownerNodeId = ownerNodeId;
+        this.instanceNumber = instanceNumber;
+        this.value = value;
+        this.conflictKey = conflictKey;
+        this.seq = seq;
+        this.deps = deps;
+    }
+
+    // No-args used by the Jackson
+    public Command() {
+    }
+
+    /**
+     * Formats the identifier of an instance.
+     *
+     * @param ownerNodeId Node id of the command leader
+     * @param instanceNumber Instance no.
+     * @return Instance id
+     */
+    public static String instanceId(int ownerNodeId, long instanceNumber) {
+        return ownerNodeId + "." + instanceNumber;
+    }
+
+    /**
+     * Returns the identifier of the instance of this command.
+     *
+     * @return Instance id
+     */
+    public String instanceId() {
+        return instanceId(ownerNodeId, instanceNumber);
+    }
+
+    /**
+     * Returns a copy of this command with the given attributes.
+     *
+     * @param newSeq Sequence no.
+     * @param newDeps Instance ids of the dependencies
+     * @return Command with the attributes
+     */
+    public Command withAttributes(long newSeq, List<String> newDeps) {
+        return new Command(ownerNodeId, instanceNumber, value, conflictKey, newSeq, new ArrayList<>(newDeps));
+    }
+
+    /**
+     * Checks if the other command has the same sequence no. and dependencies.
+     *
+     * @param other Command
+     * @return Has the same attributes
+     */
+    public boolean hasSameAttributes(Command other) {
+        return seq == other.seq && new HashSet<>(deps).equals(new HashSet<>(other.deps));
+    }
+
+    public int getOwnerNodeId() {
+        return ownerNodeId;
+    }
+
+    public void setOwnerNodeId(int ownerNodeId) {
+        this.ownerNodeId = ownerNodeId;
+    }
+
+    public long getInstanceNumber() {
+        return instanceNumber;
+    }
+
+    public void setInstanceNumber(long instanceNumber) {
+        this.instanceNumber = instanceNumber;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public String getConflictKey() {
+        return conflictKey;
+    }
+
+    public void setConflictKey(String conflictKey) {
+        this.conflictKey = conflictKey;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public List<String> getDeps() {
+        return deps;
+    }
+
+    public void setDeps(List<String> deps) {
+        this.deps = deps;
+    }
+
+    @Override
+    public String toString() {
+        return instanceId() + "[" + value + ", seq=" + seq + ", deps=" + deps + "]";
+    }
+}
@@ -0,0 +1,76 @@
+package com.suburbs.council.election.messages;
+
+import com.suburbs.council.election.paxos.Context;
+
+/**
+ * CommandMessage carries a {@link Command} between the command leader and the members in
+ * leaderless mode. The type of the message tells the step of the instance:
+ * <pre><code>
+ *     COMMAND_PREACCEPT -> COMMAND_PREACCEPT_OK -> COMMAND_COMMIT                                 (fast path)
+ *     COMMAND_PREACCEPT -> COMMAND_PREACCEPT_OK -> COMMAND_ACCEPT -> COMMAND_ACCEPT_OK -> COMMAND_COMMIT (slow path)
+ * </code></pre>
+ */
+public class CommandMessage implements Message {
+
+    private Type messageType;
+    private int senderNodeId;
+    private String senderNodeName;
+    private Command command;
+
+    /**
+     * Constructor.
+     *
+     * @param context Context object holds the resources which are shared among all the threads
+     * @param messageType Step of the instance
+     * @param command Command with the attributes of the sender
+     */
+    public CommandMessage(Context context, Type messageType, Command command) {
+        this.messageType = messageType;
+
+        this.senderNodeId = context.getNodeId();
+        this.senderNodeName = context.getNodeName();
+        this.command = command;
+    }
+
+    // No-args used by Jackson
+    public CommandMessage() {
+    }
+
+    public void setMessageType(Type messageType) {
+        this.messageType = messageType;
+    }
+
+    public int getSenderNodeId() {
+        return senderNodeId;
+    }
+
+    public void setSenderNodeId(int senderNodeId) {
+        this.senderNodeId = senderNodeId;
+    }
+
+    public String getSenderNodeName() {
+        return senderNodeName;
+    }
+
+    public void setSenderNodeName(String senderNodeName) {
+        this.senderNodeName = senderNodeName;
+    }
+
+    public Command getCommand() {
+        return command;
+    }
+
+    public void setCommand(Command command) {
+        this.command = command;
+    }
+
+    /**
+     * Get the type of the message.
+     *
+     * @return Type of the message
+     */
+    @Override
+    public Type getMessageType() {
+        return messageType;
+    }
+}
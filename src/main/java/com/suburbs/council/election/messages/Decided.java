@@ -0,0 +1,122 @@
+package com.suburbs.council.election.messages;
+
+import com.suburbs.council.election.paxos.Context;
+import java.util.Map;
+
+/**
+ * Decided message is sent by the distinguished learner to all the members, instead of every
+ * acceptor broadcasting its {@link Accepted} message. It carries the decided value and the
+ * ACCEPTED votes of a quorum, so that every member, even one which missed the ACCEPT message,
+ * can verify the decision with the keys it shares with the voters.
+ */
+public class Decided implements Message {
+
+    private Type messageType;
+    private int learnerNodeId;
+    private String learnerNodeName;
+    private String prepareMessageId;
+    private long slot;
+    private Proposal proposal;
+
+    // Authenticators of the ACCEPTED vote per node id of the voter, null values
+    // if the messages are not authenticated
+    private Map<Integer, Map<Integer, String>> votes;
+
+    // Delegate which forwarded the decision to its sub-council, 0 if sent to the delegate
+    private int delegateNodeId;
+
+    /**
+     * Constructor.
+     *
+     * @param context Context object holds the resources which are shared among all the threads
+     * @param prepareMessageId Identifier of the PREPARE message
+     * @param slot Log slot
+     * @param proposal Decided value
+     * @param votes Authenticators of the vote per node id of the voter
+     */
+    public Decided(Context context, String prepareMessageId, long slot, Proposal proposal,
+                   Map<Integer, Map<Integer, String>> votes) {
+        this.messageType = Type.DECIDED;
+
+        this.learnerNodeId = context.getNodeId();
+        this.learnerNodeName = context.getNodeName();
+        this.prepareMessageId = prepareMessageId;
+        this.slot = slot;
+        this.proposal = proposal;
+        this.votes = votes;
+    }
+
+    // No-args used by Jackson
+    public Decided() {
+    }
+
+    public void setMessageType(Type messageType) {
+        this.messageType = messageType;
+    }
+
+    public int getLearnerNodeId() {
+        return learnerNodeId;
+    }
+
+    public void setLearnerNodeId(int learnerNodeId) {
+        this.learnerNodeId = learnerNodeId;
+    }
+
+    public String getLearnerNodeName() {
+        return learnerNodeName;
+    }
+
+    public void setLearnerNodeName(String learnerNodeName) {
+        this.learnerNodeName = learnerNodeName;
+    }
+
+    public String getPrepareMessageId() {
+        return prepareMessageId;
+    }
+
+    public void setPrepareMessageId(String prepareMessageId) {
+        this.prepareMessageId = prepareMessageId;
+    }
+
+    public long getSlot() {
+        return slot;
+    }
+
+    public void setSlot(long slot) {
+        this.slot = slot;
+    }
+
+    public Proposal getProposal() {
+        return proposal;
+    }
+
+    public void setProposal(Proposal proposal) {
+        this.proposal = proposal;
+    }
+
+    public Map<Integer, Map<Integer, String>> getVotes() {
+        return votes;
+    }
+
+    public void setVotes(Map<Integer, Map<Integer, String>> votes) {
+        this.votes = votes;
+    }
+
+    public int getDelegateNodeId() {
+        return delegateNodeId;
+    }
+
+    public void setDelegateNodeId(int delegateNodeId) {
+        this.delegateNodeId = delegateNodeId;
+    }
+
+    /**
+     * Get the type of the message.
+     *
+     * @return Type of the message
+     */
+    @Override
+    public Type getMessageType() {
+        return messageType;
+    }
+}
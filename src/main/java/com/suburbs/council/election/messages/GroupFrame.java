@@ -0,0 +1,58 @@
+package com.suburbs.council.election.messages;
+
+/**
+ * GroupFrame carries a message of one council, when a process runs several councils over
+ * the same port. The receiving server hands the payload to the council of the group id.
+ */
+public class GroupFrame implements Message {
+
+    private Type messageType;
+    private String groupId;
+    private String payload;
+
+    /**
+     * Constructor.
+     *
+     * @param groupId Group id of the council
+     * @param payload Serialized message, possibly a {@link SignedFrame}
+     */
+    public GroupFrame(String groupId, String payload) {
+        this.messageType = Type.GROUP_FRAME;
+        this.groupId = groupId;
+        this.payload = payload;
+    }
+
+    // No-args constructor used by Jackson
+    public GroupFrame() {
+    }
+
+    public void setMessageType(Type messageType) {
+        this.messageType = messageType;
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public void setGroupId(String groupId) {
+        this.groupId = groupId;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    /**
+     * Get the type of the message.
+     *
+     * @return Type of the message
+     */
+    @Override
+    public Type getMessageType() {
+        return messageType;
+    }
+}
@@ -7,6 +7,18 @@ public class HeartBeat implements Message {
 
     private String name;
     private Type messageType;
+    private int nodeId;
+
+    // Election priority of the node
+    private int rank;
+    private boolean candidate;
+
+    // Lease request sent by the leader, stamped with its local time
+    private String leaderPrepareMessageId;
+    private long leaseRequestTimestamp;
+
+    // Echo of the lease request timestamp, sent back by the member granting the lease
+    private long leaseGrantTimestamp;
 
     /**
      * Constructor.
@@ -50,6 +62,54 @@ public class HeartBeat implements Message {
         this.name = name;
     }
 
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(int nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public void setRank(int rank) {
+        this.rank = rank;
+    }
+
+    public boolean isCandidate() {
+        return candidate;
+    }
+
+    public void setCandidate(boolean candidate) {
+        this.candidate = candidate;
+    }
+
+    public String getLeaderPrepareMessageId() {
+        return leaderPrepareMessageId;
+    }
+
+    public void setLeaderPrepareMessageId(String leaderPrepareMessageId) {
+        this.leaderPrepareMessageId = leaderPrepareMessageId;
+    }
+
+    public long getLeaseRequestTimestamp() {
+        return leaseRequestTimestamp;
+    }
+
+    public void setLeaseRequestTimestamp(long leaseRequestTimestamp) {
+        this.leaseRequestTimestamp = leaseRequestTimestamp;
+    }
+
+    public long getLeaseGrantTimestamp() {
+        return leaseGrantTimestamp;
+    }
+
+    public void setLeaseGrantTimestamp(long leaseGrantTimestamp) {
+        this.leaseGrantTimestamp = leaseGrantTimestamp;
+    }
+
     /**
      * Get the type of the message.
      *
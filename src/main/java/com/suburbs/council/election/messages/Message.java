@@ -23,6 +23,22 @@ public interface Message extends Serializable {
         ACCEPT,
         REJECT,
         PREACCEPTED,
-        ACCEPTED
+        ACCEPTED,
+        CLIENT_REQUEST,
+        READ_REQUEST,
+        READ_RESPONSE,
+        SIGNED_FRAME,
+        QUORUM_CERTIFICATE,
+        DECIDED,
+        GROUP_FRAME,
+        SUBCOUNCIL_ACCEPTED,
+        COMMAND_PREACCEPT,
+        COMMAND_PREACCEPT_OK,
+        COMMAND_ACCEPT,
+        COMMAND_ACCEPT_OK,
+        COMMAND_COMMIT,
+        RECONFIGURE,
+        STATE_REQUEST,
+        STATE_TRANSFER
     }
 }
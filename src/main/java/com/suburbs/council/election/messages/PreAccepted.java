@@ -1,6 +1,7 @@
 package com.suburbs.council.election.messages;
 
 import com.suburbs.council.election.paxos.Context;
+import java.util.Map;
 
 /**
  * PreAccepted will be broadcast by the Acceptors to all the nodes.
@@ -13,6 +14,11 @@ public class PreAccepted implements Message {
     private int proposerNodeId;
     private int responderNodeId;
     private String proposedPrepareMessageId;
+    private long slot;
+    private String digest;
+
+    // MAC of the vote per member, set in LINEAR_BYZANTINE mode
+    private Map<Integer, String> authenticators;
 
     /**
      * Constructor.
@@ -29,10 +35,42 @@ public class PreAccepted implements Message {
         this.proposerNodeId = proposerNodeId;
     }
 
+    /**
+     * Constructor.
+     *
+     * @param context Context object holds the resources which are shared among all the threads
+     * @param proposedPrepareMessageId Identifier of the PREPARE message
+     * @param proposerNodeId Node id of the proposer
+     * @param slot Log slot of the accepted value
+     * @param digest Digest of the PREPARE message id, the slot and the accepted value
+     */
+    public PreAccepted(Context context, String proposedPrepareMessageId, int proposerNodeId, long slot,
+                       String digest) {
+        this(context, proposedPrepareMessageId, proposerNodeId);
+        this.slot = slot;
+        this.digest = digest;
+    }
+
     // No-args used by Jackson
     public PreAccepted() {
     }
 
+    public Map<Integer, String> getAuthenticators() {
+        return authenticators;
+    }
+
+    public void setAuthenticators(Map<Integer, String> authenticators) {
+        this.authenticators = authenticators;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public void setDigest(String digest) {
+        this.digest = digest;
+    }
+
     public int getProposerNodeId() {
         return proposerNodeId;
     }
@@ -57,6 +95,14 @@ public class PreAccepted implements Message {
         this.proposedPrepareMessageId = proposedPrepareMessageId;
     }
 
+    public long getSlot() {
+        return slot;
+    }
+
+    public void setSlot(long slot) {
+        this.slot = slot;
+    }
+
     /**
      * Get the type of the message.
      *
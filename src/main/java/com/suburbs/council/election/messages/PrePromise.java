@@ -1,6 +1,7 @@
 package com.suburbs.council.election.messages;
 
 import com.suburbs.council.election.paxos.Context;
+import java.util.Map;
 
 /**
  * PrePromise will be broadcast by the Acceptors to all the nodes.
@@ -9,7 +10,10 @@ import com.suburbs.council.election.paxos.Context;
  */
 public class PrePromise implements Message {
 
-    private Proposal proposal;
+    private String digest;
+
+    // MAC of the vote per member, set in LINEAR_BYZANTINE mode
+    private Map<Integer, String> authenticators;
     private Type messageType;
     private int proposerNodeId;
     private int responderNodeId;
@@ -21,27 +25,35 @@ public class PrePromise implements Message {
      * @param context Context object holds the resources which are shared among all the threads
      * @param proposedPrepareMessageId Identifier of the PREPARE message
      * @param proposerNodeId Node id of the proposer
-     * @param proposal The proposal sent by the proposer
+     * @param digest Digest of the PREPARE message id and the proposal sent by the proposer
      */
-    public PrePromise(Context context, String proposedPrepareMessageId, int proposerNodeId, Proposal proposal) {
+    public PrePromise(Context context, String proposedPrepareMessageId, int proposerNodeId, String digest) {
         this.messageType = Type.PREPROMISE;
 
         this.responderNodeId = context.getNodeId();
         this.proposedPrepareMessageId = proposedPrepareMessageId;
         this.proposerNodeId = proposerNodeId;
-        this.proposal = proposal;
+        this.digest = digest;
     }
 
     // No-args used by Jackson
     public PrePromise() {
     }
 
-    public Proposal getProposal() {
-        return proposal;
+    public Map<Integer, String> getAuthenticators() {
+        return authenticators;
+    }
+
+    public void setAuthenticators(Map<Integer, String> authenticators) {
+        this.authenticators = authenticators;
+    }
+
+    public String getDigest() {
+        return digest;
     }
 
-    public void setProposal(Proposal proposal) {
-        this.proposal = proposal;
+    public void setDigest(String digest) {
+        this.digest = digest;
     }
 
     public int getProposerNodeId() {
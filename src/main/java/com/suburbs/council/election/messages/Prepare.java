@@ -1,6 +1,7 @@
 package com.suburbs.council.election.messages;
 
 import com.suburbs.council.election.paxos.Context;
+import java.util.List;
 
 /**
  * Prepare message sent by the Proposer to all Members to initiate an election.
@@ -13,6 +14,9 @@ public class Prepare implements Message {
     private Proposal proposal;
     private String newPrepareMessageId;
 
+    // Members asked to broadcast PREPROMISE in thrifty mode, null if all the members are asked
+    private List<Integer> quorumMemberIds;
+
     /**
      * Constructor.
      *
@@ -67,6 +71,14 @@ public class Prepare implements Message {
         this.proposerNodeId = proposerNodeId;
     }
 
+    public List<Integer> getQuorumMemberIds() {
+        return quorumMemberIds;
+    }
+
+    public void setQuorumMemberIds(List<Integer> quorumMemberIds) {
+        this.quorumMemberIds = quorumMemberIds;
+    }
+
     /**
      * Get the type of the message.
      *
@@ -1,6 +1,8 @@
 package com.suburbs.council.election.messages;
 
 import com.suburbs.council.election.paxos.Context;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Promise message is send by Member to Proposer to indicate that
@@ -8,11 +10,18 @@ import com.suburbs.council.election.paxos.Context;
  */
 public class Promise implements Message {
 
+    private int responderNodeId;
     private String responderNodeName;
     private Type messageType;
     private int proposerNodeId;
     private String prepareMessageId;
     private Prepare lastPrepareMessage;
+    private List<Accept> acceptedSlots;
+
+    // Values voted for in the undecided slots and their attestation by the trusted counter
+    // of the responder in HYBRID mode
+    private Map<Long, String> attestedSlots;
+    private String counterAttestation;
 
     /**
      * Constructor.
@@ -24,6 +33,7 @@ public class Promise implements Message {
     public Promise(Context context, String prepareMessageId, int proposerNodeId) {
         messageType = Type.PROMISE;
 
+        responderNodeId = context.getNodeId();
         responderNodeName = context.getNodeName();
         this.prepareMessageId = prepareMessageId;
         this.proposerNodeId = proposerNodeId;
@@ -33,6 +43,14 @@ public class Promise implements Message {
     public Promise() {
     }
 
+    public int getResponderNodeId() {
+        return responderNodeId;
+    }
+
+    public void setResponderNodeId(int responderNodeId) {
+        this.responderNodeId = responderNodeId;
+    }
+
     public String getResponderNodeName() {
         return responderNodeName;
     }
@@ -69,6 +87,30 @@ public class Promise implements Message {
         this.lastPrepareMessage = lastPrepareMessage;
     }
 
+    public List<Accept> getAcceptedSlots() {
+        return acceptedSlots;
+    }
+
+    public void setAcceptedSlots(List<Accept> acceptedSlots) {
+        this.acceptedSlots = acceptedSlots;
+    }
+
+    public Map<Long, String> getAttestedSlots() {
+        return attestedSlots;
+    }
+
+    public void setAttestedSlots(Map<Long, String> attestedSlots) {
+        this.attestedSlots = attestedSlots;
+    }
+
+    public String getCounterAttestation() {
+        return counterAttestation;
+    }
+
+    public void setCounterAttestation(String counterAttestation) {
+        this.counterAttestation = counterAttestation;
+    }
+
     /**
      * Get the type of the message.
      *
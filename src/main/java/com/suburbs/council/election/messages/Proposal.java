@@ -1,6 +1,7 @@
 package com.suburbs.council.election.messages;
 
 import java.io.Serializable;
+import java.util.List;
 
 /**
  * Proposal contains the proposed state change by the Proposer
@@ -8,6 +9,11 @@ import java.io.Serializable;
 public class Proposal implements Serializable {
 
     private String proposedMessage;
+    private List<String> proposedMessages;
+    private boolean noOp;
+
+    // Membership change committed in this slot, null for client values
+    private Reconfigure reconfiguration;
 
     /**
      * Constructor.
@@ -18,10 +24,44 @@ public class Proposal implements Serializable {
         this.proposedMessage = proposedMessage;
     }
 
+    /**
+     * Constructor.
+     *
+     * @param proposedMessages Batch of client values committed together in one slot
+     */
+    public Proposal(List<String> proposedMessages) {
+        this.proposedMessages = proposedMessages;
+    }
+
     // No-args used by the Jackson
     public Proposal() {
     }
 
+    /**
+     * Creates a no-op proposal. No-ops are used by a new leader to fill the
+     * log slots for which no value could be recovered.
+     *
+     * @return No-op proposal
+     */
+    public static Proposal noOp() {
+        Proposal proposal = new Proposal();
+        proposal.setNoOp(true);
+        return proposal;
+    }
+
+    /**
+     * Creates a proposal changing the members of the council. Every member applies the change
+     * once the slot is delivered.
+     *
+     * @param reconfiguration Membership change
+     * @return Reconfiguration proposal
+     */
+    public static Proposal reconfiguration(Reconfigure reconfiguration) {
+        Proposal proposal = new Proposal();
+        proposal.setReconfiguration(reconfiguration);
+        return proposal;
+    }
+
     public String getProposedMessage() {
         return proposedMessage;
     }
@@ -29,4 +69,39 @@ public class Proposal implements Serializable {
     public void setProposedMessage(String proposedMessage) {
         this.proposedMessage = proposedMessage;
     }
+
+    public List<String> getProposedMessages() {
+        return proposedMessages;
+    }
+
+    public void setProposedMessages(List<String> proposedMessages) {
+        this.proposedMessages = proposedMessages;
+    }
+
+    public Reconfigure getReconfiguration() {
+        return reconfiguration;
+    }
+
+    public void setReconfiguration(Reconfigure reconfiguration) {
+        this.reconfiguration = reconfiguration;
+    }
+
+    public boolean isNoOp() {
+        return noOp;
+    }
+
+    public void setNoOp(boolean noOp) {
+        this.noOp = noOp;
+    }
+
+    @Override
+    public String toString() {
+        if (noOp) {
+            return "NO-OP";
+        }
+        if (reconfiguration != null) {
+            return "RECONFIGURE " + reconfiguration;
+        }
+        return proposedMessages != null ? proposedMessages.toString() : proposedMessage;
+    }
 }
@@ -0,0 +1,113 @@
+package com.suburbs.council.election.messages;
+
+import com.suburbs.council.election.enums.Phase;
+import com.suburbs.council.election.paxos.Context;
+import java.util.Map;
+
+/**
+ * QuorumCertificate is sent by the Proposer in LINEAR_BYZANTINE mode, instead of the members
+ * broadcasting their {@link PrePromise} and {@link PreAccepted} messages to each other.
+ * It carries a quorum of the authenticated pre-round votes for the same digest. Each member
+ * verifies the votes with the keys it shares with the voters, then sends its {@link Promise}
+ * or {@link Accepted} message as if it had received the votes itself.
+ */
+public class QuorumCertificate implements Message {
+
+    private Type messageType;
+    private Phase phase;
+    private int proposerNodeId;
+    private String prepareMessageId;
+    private long slot;
+    private String digest;
+
+    // Authenticators of the vote per node id of the voter
+    private Map<Integer, Map<Integer, String>> votes;
+
+    /**
+     * Constructor.
+     *
+     * @param context Context object holds the resources which are shared among all the threads
+     * @param phase Phase the votes are for
+     * @param prepareMessageId Identifier of the PREPARE message
+     * @param slot Log slot
+     * @param digest Digest of the value voted for
+     * @param votes Authenticators of the vote per node id of the voter
+     */
+    public QuorumCertificate(Context context, Phase phase, String prepareMessageId, long slot, String digest,
+                             Map<Integer, Map<Integer, String>> votes) {
+        this.messageType = Type.QUORUM_CERTIFICATE;
+
+        this.proposerNodeId = context.getNodeId();
+        this.phase = phase;
+        this.prepareMessageId = prepareMessageId;
+        this.slot = slot;
+        this.digest = digest;
+        this.votes = votes;
+    }
+
+    // No-args used by Jackson
+    public QuorumCertificate() {
+    }
+
+    public void setMessageType(Type messageType) {
+        this.messageType = messageType;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public void setPhase(Phase phase) {
+        this.phase = phase;
+    }
+
+    public int getProposerNodeId() {
+        return proposerNodeId;
+    }
+
+    public void setProposerNodeId(int proposerNodeId) {
+        this.proposerNodeId = proposerNodeId;
+    }
+
+    public String getPrepareMessageId() {
+        return prepareMessageId;
+    }
+
+    public void setPrepareMessageId(String prepareMessageId) {
+        this.prepareMessageId = prepareMessageId;
+    }
+
+    public long getSlot() {
+        return slot;
+    }
+
+    public void setSlot(long slot) {
+        this.slot = slot;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public void setDigest(String digest) {
+        this.digest = digest;
+    }
+
+    public Map<Integer, Map<Integer, String>> getVotes() {
+        return votes;
+    }
+
+    public void setVotes(Map<Integer, Map<Integer, String>> votes) {
+        this.votes = votes;
+    }
+
+    /**
+     * Get the type of the message.
+     *
+     * @return Type of the message
+     */
+    @Override
+    public Type getMessageType() {
+        return messageType;
+    }
+}
@@ -0,0 +1,31 @@
+package com.suburbs.council.election.messages;
+
+/**
+ * ReadRequest is sent by a client to read the current decision. It is answered
+ * on the same connection with a {@link ReadResponse}.
+ */
+public class ReadRequest implements Message {
+
+    private Type messageType;
+
+    /**
+     * Constructor.
+     */
+    public ReadRequest() {
+        this.messageType = Type.READ_REQUEST;
+    }
+
+    public void setMessageType(Type messageType) {
+        this.messageType = messageType;
+    }
+
+    /**
+     * Get the type of the message.
+     *
+     * @return Type of the message
+     */
+    @Override
+    public Type getMessageType() {
+        return messageType;
+    }
+}
@@ -0,0 +1,83 @@
+package com.suburbs.council.election.messages;
+
+/**
+ * ReadResponse answers a {@link ReadRequest}. The read is only served by a leader
+ * holding a valid lease, in which case the state is guaranteed to be fresh. Otherwise
+ * the response is not served and points the client to the known leader. Observers serve every
+ * read from the slots they delivered, which may lag behind the council.
+ */
+public class ReadResponse implements Message {
+
+    private Type messageType;
+    private boolean served;
+    private String state;
+    private long appliedSlot;
+    private int leaderNodeId;
+
+    /**
+     * Constructor.
+     *
+     * @param served Whether the read was served under a valid lease
+     * @param state Current decision, only set if served
+     * @param appliedSlot Last delivered log slot, only set if served
+     * @param leaderNodeId Node id of the known leader, -1 if unknown
+     */
+    public ReadResponse(boolean served, String state, long appliedSlot, int leaderNodeId) {
+        this.messageType = Type.READ_RESPONSE;
+
+        this.served = served;
+        this.state = state;
+        this.appliedSlot = appliedSlot;
+        this.leaderNodeId = leaderNodeId;
+    }
+
+    // No-args constructor used by Jackson
+    public ReadResponse() {
+    }
+
+    public void setMessageType(Type messageType) {
+        this.messageType = messageType;
+    }
+
+    public boolean isServed() {
+        return served;
+    }
+
+    public void setServed(boolean served) {
+        this.served = served;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public long getAppliedSlot() {
+        return appliedSlot;
+    }
+
+    public void setAppliedSlot(long appliedSlot) {
+        this.appliedSlot = appliedSlot;
+    }
+
+    public int getLeaderNodeId() {
+        return leaderNodeId;
+    }
+
+    public void setLeaderNodeId(int leaderNodeId) {
+        this.leaderNodeId = leaderNodeId;
+    }
+
+    /**
+     * Get the type of the message.
+     *
+     * @return Type of the message
+     */
+    @Override
+    public Type getMessageType() {
+        return messageType;
+    }
+}
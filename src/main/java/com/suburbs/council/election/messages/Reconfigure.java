@@ -0,0 +1,111 @@
+package com.suburbs.council.election.messages;
+
+import com.suburbs.council.election.enums.MembershipChange;
+
+/**
+ * Reconfigure message requests adding a member to the council or removing one from it. It is
+ * sent to any member, which forwards it to the leader, and the leader commits it as a log entry.
+ * Once the entry is delivered every member applies the change in the same log slot.
+ */
+public class Reconfigure implements Message {
+
+    private Type messageType;
+    private MembershipChange change;
+    private int nodeId;
+    private String name;
+    private String host;
+    private int port;
+
+    // Set once a member forwarded the request to the leader
+    private boolean forwarded;
+
+    /**
+     * Constructor.
+     *
+     * @param change Kind of the change
+     * @param nodeId Node id of the member
+     * @param name Name of the member
+     * @param host Host the member listens on
+     * @param port Port the member listens on
+     */
+    public Reconfigure(MembershipChange change, int nodeId, String name, String host, int port) {
+        this.messageType = Type.RECONFIGURE;
+
+        this.change = change;
+        this.nodeId = nodeId;
+        this.name = name;
+        this.host = host;
+        this.port = port;
+    }
+
+    // No-args used by Jackson
+    public Reconfigure() {
+    }
+
+    public void setMessageType(Type messageType) {
+        this.messageType = messageType;
+    }
+
+    public MembershipChange getChange() {
+        return change;
+    }
+
+    public void setChange(MembershipChange change) {
+        this.change = change;
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(int nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public boolean isForwarded() {
+        return forwarded;
+    }
+
+    public void setForwarded(boolean forwarded) {
+        this.forwarded = forwarded;
+    }
+
+    /**
+     * Get the type of the message.
+     *
+     * @return Type of the message
+     */
+    @Override
+    public Type getMessageType() {
+        return messageType;
+    }
+
+    @Override
+    public String toString() {
+        return change + " " + nodeId;
+    }
+}
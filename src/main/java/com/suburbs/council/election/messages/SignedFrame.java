@@ -0,0 +1,84 @@
+package com.suburbs.council.election.messages;
+
+import java.util.List;
+
+/**
+ * SignedFrame carries a message from one member to another, together with the HMAC
+ * computed with the key shared by the two members. The receiver verifies the MAC before
+ * the message reaches the protocol thread. Every frame dispatched holds one message in
+ * its payloads.
+ */
+public class SignedFrame implements Message {
+
+    private Type messageType;
+    private int senderNodeId;
+    private int receiverNodeId;
+    private List<String> payloads;
+    private String mac;
+
+    /**
+     * Constructor.
+     *
+     * @param senderNodeId Node id of the sender
+     * @param receiverNodeId Node id of the receiver
+     * @param payloads Serialized messages
+     * @param mac Base64 encoded HMAC of the frame
+     */
+    public SignedFrame(int senderNodeId, int receiverNodeId, List<String> payloads, String mac) {
+        this.messageType = Type.SIGNED_FRAME;
+        this.senderNodeId = senderNodeId;
+        this.receiverNodeId = receiverNodeId;
+        this.payloads = payloads;
+        this.mac = mac;
+    }
+
+    // No-args constructor used by Jackson
+    public SignedFrame() {
+    }
+
+    public void setMessageType(Type messageType) {
+        this.messageType = messageType;
+    }
+
+    public int getSenderNodeId() {
+        return senderNodeId;
+    }
+
+    public void setSenderNodeId(int senderNodeId) {
+        this.senderNodeId = senderNodeId;
+    }
+
+    public int getReceiverNodeId() {
+        return receiverNodeId;
+    }
+
+    public void setReceiverNodeId(int receiverNodeId) {
+        this.receiverNodeId = receiverNodeId;
+    }
+
+    public List<String> getPayloads() {
+        return payloads;
+    }
+
+    public void setPayloads(List<String> payloads) {
+        this.payloads = payloads;
+    }
+
+    public String getMac() {
+        return mac;
+    }
+
+    public void setMac(String mac) {
+        this.mac = mac;
+    }
+
+    /**
+     * Get the type of the message.
+     *
+     * @return Type of the message
+     */
+    @Override
+    public Type getMessageType() {
+        return messageType;
+    }
+}
@@ -0,0 +1,73 @@
+package com.suburbs.council.election.messages;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Snapshot holds the state applied from the log up to and including its slot: the decision of the
+ * election, the highest PREPARE message and the membership changes. It replaces the log slots it
+ * covers, on disk and when a member far behind is brought up to date.
+ */
+public class Snapshot implements Serializable {
+
+    private long slot;
+    private String state;
+    private Prepare lastPrepareMessage;
+    private List<Reconfigure> reconfigurations;
+
+    /**
+     * Constructor.
+     *
+     * @param slot Last log slot applied to the snapshot
+     * @param state Decision of the election
+     * @param lastPrepareMessage Highest PREPARE message of the node
+     * @param reconfigurations Membership changes applied, in log order
+     */
+    public Snapshot(long slot, String state, Prepare lastPrepareMessage, List<Reconfigure> reconfigurations) {
+        this.slot = slot;
+        this.state = state;
+        this.lastPrepareMessage = lastPrepareMessage;
+        this.reconfigurations = reconfigurations;
+    }
+
+    // No-args used by Jackson
+    public Snapshot() {
+    }
+
+    public long getSlot() {
+        return slot;
+    }
+
+    public void setSlot(long slot) {
+        this.slot = slot;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public Prepare getLastPrepareMessage() {
+        return lastPrepareMessage;
+    }
+
+    public void setLastPrepareMessage(Prepare lastPrepareMessage) {
+        this.lastPrepareMessage = lastPrepareMessage;
+    }
+
+    public List<Reconfigure> getReconfigurations() {
+        return reconfigurations;
+    }
+
+    public void setReconfigurations(List<Reconfigure> reconfigurations) {
+        this.reconfigurations = reconfigurations;
+    }
+
+    @Override
+    public String toString() {
+        return "SNAPSHOT of slot " + slot;
+    }
+}
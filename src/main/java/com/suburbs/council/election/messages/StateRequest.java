@@ -0,0 +1,101 @@
+package com.suburbs.council.election.messages;
+
+import com.suburbs.council.election.paxos.Context;
+
+/**
+ * StateRequest message asks the leader for the decided log slots a member is missing. A joining
+ * node sends it to all the members until it caught up, with its address, since the leader does not
+ * know the node yet. The leader adds the node to the council once it asks for no further slot.
+ */
+public class StateRequest implements Message {
+
+    private Type messageType;
+    private int requesterNodeId;
+    private String requesterNodeName;
+    private long fromSlot;
+
+    // Address of a joining node, which is not a member yet
+    private boolean joining;
+    private String host;
+    private int port;
+
+    /**
+     * Constructor.
+     *
+     * @param context Context object holds the resources which are shared among all the threads
+     * @param fromSlot First log slot the requester is missing
+     */
+    public StateRequest(Context context, long fromSlot) {
+        this.messageType = Type.STATE_REQUEST;
+
+        this.requesterNodeId = context.getNodeId();
+        this.requesterNodeName = context.getNodeName();
+        this.fromSlot = fromSlot;
+    }
+
+    // No-args used by Jackson
+    public StateRequest() {
+    }
+
+    public void setMessageType(Type messageType) {
+        this.messageType = messageType;
+    }
+
+    public int getRequesterNodeId() {
+        return requesterNodeId;
+    }
+
+    public void setRequesterNodeId(int requesterNodeId) {
+        this.requesterNodeId = requesterNodeId;
+    }
+
+    public String getRequesterNodeName() {
+        return requesterNodeName;
+    }
+
+    public void setRequesterNodeName(String requesterNodeName) {
+        this.requesterNodeName = requesterNodeName;
+    }
+
+    public long getFromSlot() {
+        return fromSlot;
+    }
+
+    public void setFromSlot(long fromSlot) {
+        this.fromSlot = fromSlot;
+    }
+
+    public boolean isJoining() {
+        return joining;
+    }
+
+    public void setJoining(boolean joining) {
+        this.joining = joining;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    /**
+     * Get the type of the message.
+     *
+     * @return Type of the message
+     */
+    @Override
+    public Type getMessageType() {
+        return messageType;
+    }
+}
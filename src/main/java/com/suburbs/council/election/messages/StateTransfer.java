@@ -0,0 +1,103 @@
+package com.suburbs.council.election.messages;
+
+import com.suburbs.council.election.paxos.Context;
+import java.util.Map;
+
+/**
+ * StateTransfer message carries the decided log slots a member is missing, along with the term
+ * of the leader and the state of the election, so that the member accepts the entries of the
+ * current term once it installed the slots. Slots the leader truncated are replaced by its
+ * latest snapshot.
+ */
+public class StateTransfer implements Message {
+
+    private Type messageType;
+    private int senderNodeId;
+    private String senderNodeName;
+    private Map<Long, Proposal> decidedSlots;
+    private Prepare lastPrepareMessage;
+    private String state;
+    private Snapshot snapshot;
+
+    /**
+     * Constructor.
+     *
+     * @param context Context object holds the resources which are shared among all the threads
+     * @param decidedSlots Decided values per log slot
+     */
+    public StateTransfer(Context context, Map<Long, Proposal> decidedSlots) {
+        this.messageType = Type.STATE_TRANSFER;
+
+        this.senderNodeId = context.getNodeId();
+        this.senderNodeName = context.getNodeName();
+        this.decidedSlots = decidedSlots;
+        this.lastPrepareMessage = context.getLastPrepareMessage();
+        this.state = context.getCurrentState();
+    }
+
+    // No-args used by Jackson
+    public StateTransfer() {
+    }
+
+    public void setMessageType(Type messageType) {
+        this.messageType = messageType;
+    }
+
+    public int getSenderNodeId() {
+        return senderNodeId;
+    }
+
+    public void setSenderNodeId(int senderNodeId) {
+        this.senderNodeId = senderNodeId;
+    }
+
+    public String getSenderNodeName() {
+        return senderNodeName;
+    }
+
+    public void setSenderNodeName(String senderNodeName) {
+        this.senderNodeName = senderNodeName;
+    }
+
+    public Map<Long, Proposal> getDecidedSlots() {
+        return decidedSlots;
+    }
+
+    public void setDecidedSlots(Map<Long, Proposal> decidedSlots) {
+        this.decidedSlots = decidedSlots;
+    }
+
+    public Prepare getLastPrepareMessage() {
+        return lastPrepareMessage;
+    }
+
+    public void setLastPrepareMessage(Prepare lastPrepareMessage) {
+        this.lastPrepareMessage = lastPrepareMessage;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(Snapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Get the type of the message.
+     *
+     * @return Type of the message
+     */
+    @Override
+    public Type getMessageType() {
+        return messageType;
+    }
+}
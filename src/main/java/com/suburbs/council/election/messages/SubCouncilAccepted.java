@@ -0,0 +1,120 @@
+package com.suburbs.council.election.messages;
+
+import com.suburbs.council.election.paxos.Context;
+import java.util.List;
+
+/**
+ * SubCouncilAccepted message is sent by the delegate of a sub-council to the leader, once a
+ * majority of the sub-council accepted a log entry. It stands for the {@link Accepted} messages
+ * of the voters, so the leader receives one message per sub-council instead of one per member.
+ */
+public class SubCouncilAccepted implements Message {
+
+    private Type messageType;
+    private int delegateNodeId;
+    private String delegateNodeName;
+    private String subCouncil;
+    private String prepareMessageId;
+    private long slot;
+    private Proposal proposal;
+
+    // Node ids of the members of the sub-council which accepted the entry
+    private List<Integer> voterNodeIds;
+
+    /**
+     * Constructor.
+     *
+     * @param context Context object holds the resources which are shared among all the threads
+     * @param subCouncil Name of the sub-council of the delegate
+     * @param prepareMessageId Identifier of the PREPARE message
+     * @param slot Log slot
+     * @param proposal Accepted value
+     * @param voterNodeIds Node ids of the voters
+     */
+    public SubCouncilAccepted(Context context, String subCouncil, String prepareMessageId, long slot,
+                              Proposal proposal, List<Integer> voterNodeIds) {
+        this.messageType = Type.SUBCOUNCIL_ACCEPTED;
+
+        this.delegateNodeId = context.getNodeId();
+        this.delegateNodeName = context.getNodeName();
+        this.subCouncil = subCouncil;
+        this.prepareMessageId = prepareMessageId;
+        this.slot = slot;
+        this.proposal = proposal;
+        this.voterNodeIds = voterNodeIds;
+    }
+
+    // No-args used by Jackson
+    public SubCouncilAccepted() {
+    }
+
+    public void setMessageType(Type messageType) {
+        this.messageType = messageType;
+    }
+
+    public int getDelegateNodeId() {
+        return delegateNodeId;
+    }
+
+    public void setDelegateNodeId(int delegateNodeId) {
+        this.delegateNodeId = delegateNodeId;
+    }
+
+    public String getDelegateNodeName() {
+        return delegateNodeName;
+    }
+
+    public void setDelegateNodeName(String delegateNodeName) {
+        this.delegateNodeName = delegateNodeName;
+    }
+
+    public String getSubCouncil() {
+        return subCouncil;
+    }
+
+    public void setSubCouncil(String subCouncil) {
+        this.subCouncil = subCouncil;
+    }
+
+    public String getPrepareMessageId() {
+        return prepareMessageId;
+    }
+
+    public void setPrepareMessageId(String prepareMessageId) {
+        this.prepareMessageId = prepareMessageId;
+    }
+
+    public long getSlot() {
+        return slot;
+    }
+
+    public void setSlot(long slot) {
+        this.slot = slot;
+    }
+
+    public Proposal getProposal() {
+        return proposal;
+    }
+
+    public void setProposal(Proposal proposal) {
+        this.proposal = proposal;
+    }
+
+    public List<Integer> getVoterNodeIds() {
+        return voterNodeIds;
+    }
+
+    public void setVoterNodeIds(List<Integer> voterNodeIds) {
+        this.voterNodeIds = voterNodeIds;
+    }
+
+    /**
+     * Get the type of the message.
+     *
+     * @return Type of the message
+     */
+    @Override
+    public Type getMessageType() {
+        return messageType;
+    }
+}
@@ -1,14 +1,23 @@
 package com.suburbs.council.election.paxos;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.suburbs.council.election.Member;
+import com.suburbs.council.election.enums.MembershipChange;
+import com.suburbs.council.election.enums.Phase;
 import com.suburbs.council.election.enums.ResponseTiming;
 import com.suburbs.council.election.messages.*;
 import com.suburbs.council.election.utils.PaxosUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.IOException;
-import java.time.Instant;
-import java.util.concurrent.BlockingQueue;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * Candidates are those Members who can initiate and participate an election. They can also vote.
@@ -21,15 +30,70 @@ public class Candidate extends Follower {
     public static final int MAX_PREPARE_ID_ADD = 10;
     public static final int MIN_PREPARE_ID_ADD = 5;
 
+    // Time from broadcasting the PREPARE message until majority promises are received
+    public static final String ELECTION_LATENCY = "election.latency.us";
+
+    // No. of rounds this node started until it became the leader
+    public static final String ELECTION_ROUNDS = "election.rounds";
+
+    // Time from dispatching an ACCEPT message until the member's ACCEPTED message is received
+    public static final String PEER_RESPONSE_TIME = "peer.response.us";
+
+    // The backoff stops growing after this many contended rounds
+    private static final int MAX_BACKOFF_DOUBLINGS = 16;
 
     private final Context context;
-    private long resetStartTime;
+    private long nextElectionAt;
     private final ResponseTiming responseTiming;
-    private int intervalBetweenInitiatingElection;
-    private final BlockingQueue<String> receivedMessages;
+    private final long electionBackoffNanos;
+    private final ReplicatedLog replicatedLog;
+    private final ProposalPipeline pipeline;
+    private final ProposalBatcher batcher;
+    private final PeerSelector peerSelector;
+    private final ElectionPriority electionPriority;
+    private final long thriftyTimeoutNanos;
+
+    // ACCEPT messages sent only to a quorum, per slot, which are not decided yet
+    private final Map<Long, ThriftyDispatch> thriftyDispatches;
+
+    // PREPARE message sent only to a quorum, until majority promises are received
+    private Prepare thriftyPrepare;
+    private long thriftyPrepareDispatchedAt;
+
+    private long electionStartedAt;
+
+    // Rounds started since this node last led, or saw another leader elected
+    private int electionRounds;
+
+    // Identifier of the PREPARE message of the running round, and the highest id it was rejected for
+    private String electionPrepareMessageId;
+    private long highestRejectedPrepareMessageId;
+
+    // Term of the failed leader the next election was brought forward for
+    private String expeditedPrepareMessageId;
+
+    // Pre-round votes sent to this node in linear mode
+    private final CertificateCollector prePromiseVotes;
+    private final CertificateCollector preAcceptedVotes;
 
     private boolean dispatchedAcceptMessages;
 
+    // Identifier of the PREPARE message for which this node received majority promises
+    private String leaderPrepareMessageId;
+
+    // Term in which this node proposes its own slots while another node leads it, the first slot
+    // of the owners in the term, and the owners whose slots the leader of the term proposes
+    private final SlotOwnership slotOwnership;
+    private String ownerPrepareMessageId;
+    private long ownedSlotsFrom;
+    private Set<Integer> revokedOwnerIds;
+
+    // Term in which this node started an election to revoke the slots of a failed owner
+    private String revokingPrepareMessageId;
+
+    // A membership change proposed by this node is not delivered yet, changes are made one at a time
+    private boolean pendingReconfiguration;
+
     /**
      * Constructor.
      *
@@ -38,73 +102,562 @@ public class Candidate extends Follower {
     public Candidate(Context context) {
         super(context);
         this.context = context;
-        this.intervalBetweenInitiatingElection = context.getInitProposeDelay();
-        this.resetStartTime = Instant.now()
-                .getEpochSecond();
+        this.nextElectionAt = System.nanoTime() + context.getInitProposeDelay() * 1_000_000_000L;
+        this.electionBackoffNanos = context.getElectionBackoffMs() * 1_000_000L;
 
-        this.receivedMessages = context.getReceivedMessages();
         this.responseTiming = context.getResponseTiming();
+        this.replicatedLog = context.getReplicatedLog();
+        this.slotOwnership = context.getSlotOwnership();
+        this.revokedOwnerIds = new HashSet<>();
+        this.pipeline = new ProposalPipeline(context.getPipelineWindow(), this::ownsSlot);
+        this.batcher = new ProposalBatcher(context);
+        this.peerSelector = context.getPeerSelector();
+        this.electionPriority = context.getElectionPriority();
+        this.thriftyTimeoutNanos = context.getThriftyTimeoutMs() * 1_000_000L;
+        this.thriftyDispatches = new HashMap<>();
+        this.prePromiseVotes = new CertificateCollector(context::getVoteWeight);
+        this.preAcceptedVotes = new CertificateCollector(context::getVoteWeight);
+
+        // Decisions are delivered on this thread while handling ACCEPTED messages
+        this.replicatedLog.addDecisionListener((slot, proposal) -> batcher.onSlotDecided(slot));
+        this.replicatedLog.addDecisionListener((slot, proposal) -> {
+            if (proposal.getReconfiguration() != null) {
+                pendingReconfiguration = false;
+            }
+        });
 
         this.dispatchedAcceptMessages = false;
     }
 
     @Override
-    public void run() {
-        while (!Thread.interrupted()) {
+    public void tick() {
+
+        // The candidate should wait till init propose delay, or the backoff of a
+        // contended round, to be able to initiate a new election
+        if (System.nanoTime() - nextElectionAt >= 0) {
+            if (isElectedByAnotherMember()) {
+                scheduleNextElection();
 
-            long currentTimestamp = Instant.now()
-                    .getEpochSecond();
+            } else if (electionPriority.hasLiveHigherRankedCandidate()) {
+                log.info("[{}]: Deferring election to a live candidate of higher rank", context.getNodeName());
+                scheduleNextElection();
 
-            // The candidate should wait till init propose delay to be able to
-            // initiate a new election
-            if ((currentTimestamp - resetStartTime) > intervalBetweenInitiatingElection) {
+            } else if (!context.isVotingMember()) {
+                scheduleNextElection();
+
+            } else {
                 initiateElection();
             }
-            handleRequests();
         }
+        expediteElectionIfLeaderFailed();
+        revokeSlotsOfFailedOwner();
+        handleRequests();
+        tickCommands();
+        requestMissingState();
+        proposePendingValues();
+        widenTimedOutDispatches();
     }
 
     /**
-     * Polls the queued messages and dispatches them to their handlers
+     * Dispatches the message to its handler. Messages which are not specific
+     * to the Proposer are handled by the {@link Follower}.
+     *
+     * @param messageType Type of the message
+     * @param message Message
+     * @throws IOException Throws if encounters any error while handling the message
      */
     @Override
-    public void handleRequests() {
-        while(!receivedMessages.isEmpty()) {
+    protected void dispatchMessage(Message.Type messageType, String message) throws IOException {
+        switch (messageType) {
+            case PROMISE -> handlePromiseMessages(message);
+            case REJECT -> handleRejectMessage(message);
+            case ACCEPTED -> {
+                handleAcceptedMessage(message);
 
-            // If response timing is set to be either of MEDIUM, LATE, NEVER, the thread
-            // will sleep for that much of time
-            delayResponseIfConfigured();
+                // Decided slots make room in the window
+                pipeline.release(replicatedLog::isDecided);
+            }
+            case DECIDED -> {
+                handleDecidedMessage(message);
+                pipeline.release(replicatedLog::isDecided);
+            }
+            case SUBCOUNCIL_ACCEPTED -> {
+                handleSubCouncilAcceptedMessage(message);
+                pipeline.release(replicatedLog::isDecided);
+            }
+            case CLIENT_REQUEST -> handleClientRequest(message);
+            default -> super.dispatchMessage(messageType, message);
+        }
+    }
 
-            try {
+    /**
+     * Handles {@link ClientRequest} messages. The leader queues the value to be proposed,
+     * otherwise the request is forwarded to the leader. If the leader is not known yet the
+     * value is kept until this node wins an election. In leaderless mode every node commits
+     * the values of its own clients.
+     *
+     * @param message ClientRequest message
+     * @throws JsonProcessingException Throws if encounters any error while deserialization
+     */
+    @Override
+    public void handleClientRequest(String message) throws JsonProcessingException {
+        ClientRequest clientRequest = PaxosUtils.deserialize(message, ClientRequest.class);
+        log.info("[{}]: Received client request with value: {}", context.getNodeName(), clientRequest.getValue());
+        if (proposeCommand(clientRequest)) {
+            return;
+        }
 
-                String message = receivedMessages.poll();
-                Message.Type messageType;
-                try {
-                    // Get the message type
-                    messageType = PaxosUtils.getMessageType(message);
-
-                } catch (JsonProcessingException e) {
-                    log.error("[{}]: Error processing message with exception: {}",
-                            context.getNodeName(), e.getMessage());
-                    continue;
-                }
-
-                // Dispatch the messages to their handlers
-                switch (messageType) {
-                    case PROMISE -> handlePromiseMessages(message);
-                    case ACCEPTED -> handleAcceptedMessage(message);
-                    case PREPARE -> handlePrepareMessage(message);
-                    case ACCEPT -> handleAcceptMessage(message);
-                    case REJECT -> handleRejectMessage(message);
-                }
-
-            } catch (Exception e) {
-                log.error("[{}]: Error handling message with exception: {}",
-                        context.getNodeName(), e.getMessage());
+        // Slot owners propose the values of their clients themselves
+        boolean ownsSlots = slotOwnership != null && slotOwnership.isOwner(context.getNodeId());
+        if (isLeader() || ownsSlots || !forwardClientRequestToLeader(clientRequest)) {
+            Proposal batch = batcher.add(clientRequest.getValue());
+            if (batch != null) {
+                pipeline.submit(batch);
             }
         }
     }
 
+    /**
+     * Handles {@link Reconfigure} requests. The leader proposes the membership change, otherwise
+     * the request is forwarded to the leader.
+     *
+     * @param message Reconfigure message
+     * @throws JsonProcessingException Throws if encounters any error while deserialization
+     */
+    @Override
+    protected void handleReconfigure(String message) throws JsonProcessingException {
+        if (!isLeader()) {
+            super.handleReconfigure(message);
+            return;
+        }
+        proposeReconfiguration(PaxosUtils.deserialize(message, Reconfigure.class));
+    }
+
+    /**
+     * Drops the pre-round votes collected as the proposer and the thrifty dispatches covered by a
+     * durable snapshot, along with the state of the follower.
+     *
+     * @param covered Matches the terms and slots covered by the snapshot
+     * @param snapshotSlot Last slot of the snapshot
+     * @param prepareMessageId Promised term, the older terms are dropped
+     */
+    @Override
+    protected void compact(Predicate<InstanceKey> covered, long snapshotSlot, long prepareMessageId) {
+        super.compact(covered, snapshotSlot, prepareMessageId);
+        prePromiseVotes.removeIf(covered);
+        preAcceptedVotes.removeIf(covered);
+        thriftyDispatches.keySet().removeIf(slot -> slot >= ReplicatedLog.FIRST_SLOT && slot <= snapshotSlot);
+    }
+
+    /**
+     * Adds a joining node to the council once it asked for no further log slot.
+     *
+     * @param stateRequest State request
+     */
+    @Override
+    protected void onStateRequested(StateRequest stateRequest) {
+        if (isLeader() && !pendingReconfiguration && stateRequest.isJoining()
+                && context.getMember(stateRequest.getRequesterNodeId()) == null
+                && stateRequest.getFromSlot() >= replicatedLog.getNextDeliverySlot()) {
+
+            proposeReconfiguration(new Reconfigure(MembershipChange.ADD, stateRequest.getRequesterNodeId(),
+                    stateRequest.getRequesterNodeName(), stateRequest.getHost(), stateRequest.getPort()));
+        }
+    }
+
+    /**
+     * Proposes the membership change in the next log slot. Changes are made one node at a time, so
+     * the majorities of the old and the new council intersect, and the next change waits until the
+     * previous one is delivered.
+     *
+     * @param reconfiguration Membership change
+     */
+    private void proposeReconfiguration(Reconfigure reconfiguration) {
+        Member member = context.getMember(reconfiguration.getNodeId());
+        String refusal = null;
+
+        if (!context.isReconfigurable()) {
+            refusal = "council can not be reconfigured";
+        } else if (pendingReconfiguration) {
+            refusal = "another change is pending";
+        } else if (reconfiguration.getChange() == MembershipChange.ADD
+                && (member != null || reconfiguration.getNodeId() == context.getNodeId() || reconfiguration.getHost() == null)) {
+            refusal = "node is already a member or has no address";
+        } else if (reconfiguration.getChange() == MembershipChange.REMOVE
+                && (member == null || reconfiguration.getNodeId() == context.getNodeId())) {
+            refusal = "node is not a member other than the leader";
+        }
+
+        if (refusal != null) {
+            log.info("[{}]: Refusing reconfiguration {}: {}", context.getNodeName(), reconfiguration, refusal);
+            return;
+        }
+
+        log.info("[{}]: Proposing reconfiguration {}", context.getNodeName(), reconfiguration);
+        pendingReconfiguration = true;
+        reconfiguration.setForwarded(false);
+        pipeline.submit(Proposal.reconfiguration(reconfiguration));
+    }
+
+    /**
+     * Records the response time of the members from the echoed dispatch timestamp of the ACCEPT
+     * messages of this node, and the responses to the thrifty ACCEPT messages.
+     *
+     * @param accepted Accepted message
+     */
+    @Override
+    protected void onAcceptedReceived(Accepted accepted) {
+        if (accepted.getAcceptDispatchTimestamp() > 0 && context.getLeaderNodeId() == context.getNodeId()
+                && accepted.getPrepareMessageId().equals(context.getLastPrepareMessageIdWithNodeId())) {
+            recordResponseTime(accepted.getResponderNodeId(), LeaderLease.now() - accepted.getAcceptDispatchTimestamp());
+        }
+
+        // Members outside of the quorum respond once the ACCEPT message is sent to all
+        ThriftyDispatch dispatch = thriftyDispatches.get(accepted.getSlot());
+        if (dispatch != null && dispatch.accept.getPrepareMessageId().equals(accepted.getPrepareMessageId())) {
+            dispatch.respondedNodeIds.add(accepted.getResponderNodeId());
+        }
+    }
+
+    /**
+     * Records the response time of the member. Members which are persistently slow are demoted
+     * out of the thrifty quorums and dispatched to last.
+     *
+     * @param nodeId Node id of the member
+     * @param responseTimeNanos Time between the dispatch and the response
+     */
+    private void recordResponseTime(int nodeId, long responseTimeNanos) {
+        context.getMetrics().histogram(PEER_RESPONSE_TIME).record(responseTimeNanos / 1000);
+
+        if (peerSelector.recordResponse(nodeId, responseTimeNanos)) {
+            log.info("[{}]: Member {} {} with average response time of {} us",
+                    context.getNodeName(), nodeId, peerSelector.isDemoted(nodeId) ? "demoted" : "restored",
+                    peerSelector.getResponseTime(nodeId) / 1000);
+        }
+    }
+
+    /**
+     * Collects the PREPROMISE votes for the PREPARE message of this node in linear mode.
+     *
+     * @param prePromise PrePromise message
+     */
+    @Override
+    protected void onPrePromiseReceived(PrePromise prePromise) {
+        if (context.isLinearMode()) {
+            collectVote(prePromiseVotes, Phase.PREPARE, prePromise.getProposedPrepareMessageId(), 0,
+                    prePromise.getDigest(), prePromise.getResponderNodeId(), prePromise.getAuthenticators(), null);
+        }
+    }
+
+    /**
+     * Collects the PREACCEPTED votes for the ACCEPT messages of this node in linear mode.
+     *
+     * @param preAccepted PreAccepted message
+     */
+    @Override
+    protected void onPreAcceptedReceived(PreAccepted preAccepted) {
+        if (!context.isLinearMode()) {
+            return;
+        }
+
+        // A thrifty ACCEPT message was sent only to the quorum, so only they can use the certificate
+        ThriftyDispatch dispatch = thriftyDispatches.get(preAccepted.getSlot());
+        List<Integer> audience = dispatch != null
+                && dispatch.accept.getPrepareMessageId().equals(preAccepted.getProposedPrepareMessageId())
+                ? dispatch.accept.getQuorumMemberIds() : null;
+
+        collectVote(preAcceptedVotes, Phase.ACCEPT, preAccepted.getProposedPrepareMessageId(),
+                preAccepted.getSlot(), preAccepted.getDigest(), preAccepted.getResponderNodeId(),
+                preAccepted.getAuthenticators(), audience);
+    }
+
+    /**
+     * Records an authenticated vote and sends the {@link QuorumCertificate} once a quorum of the
+     * votes agree on the digest. Votes arriving after that are answered with the certificate.
+     *
+     * @param collector Votes of the phase
+     * @param phase Phase the vote is for
+     * @param prepareMessageId Formatted identifier of the PREPARE message
+     * @param slot Log slot
+     * @param digest Digest of the value voted for
+     * @param voterNodeId Node id of the voter
+     * @param authenticators MAC of the vote per member
+     * @param audience Node ids the certificate is sent to, null to send it to all the members
+     */
+    private void collectVote(CertificateCollector collector, Phase phase, String prepareMessageId, long slot,
+                             String digest, int voterNodeId, Map<Integer, String> authenticators,
+                             List<Integer> audience) {
+
+        // A vote this node can not verify would not be verified by the other members either
+        if (!context.getMessageAuthenticator().verifyVote(voterNodeId, phase, prepareMessageId, slot, digest,
+                authenticators)) {
+            log.info("[{}]: Dropping unauthenticated {} vote of member: {} for id: {}",
+                    context.getNodeName(), phase, voterNodeId, prepareMessageId);
+            return;
+        }
+
+        InstanceKey voteKey = new InstanceKey(PaxosUtils.parsePrepareNumer(prepareMessageId), slot, digest);
+        Map<Integer, Map<Integer, String>> votes = collector.record(voteKey, voterNodeId, authenticators,
+                context.getQuorumSize(phase));
+        if (votes == null) {
+            return;
+        }
+
+        QuorumCertificate certificate = new QuorumCertificate(context, phase, prepareMessageId, slot, digest, votes);
+        List<Integer> receivers = collector.markCertified(voteKey) ? audience : List.of(voterNodeId);
+
+        context.getMembers()
+                .forEach(member -> {
+                    if (receivers != null && !receivers.contains(member.getId())) {
+                        return;
+                    }
+                    try {
+                        log.info("[{}]: Dispatching {} certificate to {} for id: {} and slot: {}",
+                                context.getNodeName(), phase, member.getName(), prepareMessageId, slot);
+                        PaxosUtils.dispatch(member, certificate);
+
+                    } catch (IOException e) {
+                        log.error("[{}]: Error dispatching {} certificate for prepare message id: {}",
+                                context.getNodeName(), phase, prepareMessageId);
+                    }
+                });
+    }
+
+    /**
+     * Sends the thrifty PREPARE and ACCEPT messages again to all the members, if the quorum
+     * they were sent to did not respond in time. The members which did not respond before
+     * the decision are ranked lower the next time a quorum is selected.
+     */
+    private void widenTimedOutDispatches() {
+        long now = System.nanoTime();
+
+        if (thriftyPrepare != null) {
+            if (dispatchedAcceptMessages
+                    || !thriftyPrepare.getNewPrepareMessageId().equals(context.getLastPrepareMessageIdWithNodeId())) {
+                thriftyPrepare = null;
+
+            } else if (now - thriftyPrepareDispatchedAt > thriftyTimeoutNanos) {
+                log.info("[{}]: Quorum did not promise in time. Sending PREPARE message with id: {} to all the members",
+                        context.getNodeName(), thriftyPrepare.getNewPrepareMessageId());
+
+                thriftyPrepare.setQuorumMemberIds(null);
+                broadcastPrepareMessage(thriftyPrepare);
+                thriftyPrepare = null;
+            }
+        }
+
+        if (thriftyDispatches.isEmpty()) {
+            return;
+        }
+
+        Iterator<Map.Entry<Long, ThriftyDispatch>> iterator = thriftyDispatches.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, ThriftyDispatch> entry = iterator.next();
+            ThriftyDispatch dispatch = entry.getValue();
+
+            // Members which did not respond at all before the decision are penalized
+            if (isDecided(entry.getKey(), dispatch.accept)) {
+                dispatch.quorum.stream()
+                        .filter(nodeId -> !dispatch.respondedNodeIds.contains(nodeId))
+                        .forEach(peerSelector::penalize);
+                iterator.remove();
+                continue;
+            }
+
+            if (!dispatch.accept.getPrepareMessageId().equals(leaderPrepareMessageId) || !isLeader()) {
+                iterator.remove();
+                continue;
+            }
+
+            if (dispatch.widened || now - dispatch.dispatchedAt <= thriftyTimeoutNanos) {
+                continue;
+            }
+
+            log.info("[{}]: Quorum {} did not accept slot: {} in time. Sending ACCEPT message to all the members",
+                    context.getNodeName(), dispatch.accept.getQuorumMemberIds(), entry.getKey());
+
+            // Late responses of the quorum are still measured until the slot is decided
+            dispatch.widened = true;
+            dispatch.accept.setQuorumMemberIds(null);
+            sendAcceptMessage(dispatch.accept);
+        }
+    }
+
+    /**
+     * Checks if the value of the ACCEPT message is decided.
+     *
+     * @param slot Log slot
+     * @param accept Accept message
+     * @return Is decided
+     */
+    private boolean isDecided(long slot, Accept accept) {
+        if (slot >= ReplicatedLog.FIRST_SLOT) {
+            return replicatedLog.isDecided(slot);
+        }
+        return context.isMajorityVotesReceived(PaxosUtils.parsePrepareNumer(accept.getPrepareMessageId()));
+    }
+
+    /**
+     * Closes the lingering batch and opens new slots for the pending batches as long as
+     * there is room in the window. Slot owners skip their slots below the slots proposed
+     * by the other owners.
+     */
+    private void proposePendingValues() {
+        Proposal batch = batcher.closeIfLingered();
+        if (batch != null) {
+            pipeline.submit(batch);
+        }
+
+        if (!isProposer()) {
+            return;
+        }
+
+        String prepareMessageId = isLeader() ? leaderPrepareMessageId : ownerPrepareMessageId;
+        while (pipeline.hasNext()) {
+            Map.Entry<Long, Proposal> slot = pipeline.next();
+            batcher.onSlotOpened(slot.getKey(), slot.getValue());
+            context.getLeaderLease().setReadIndex(slot.getKey());
+            broadcastAcceptMessage(new Accept(context, prepareMessageId, slot.getKey(), slot.getValue()));
+        }
+
+        if (slotOwnership == null) {
+            return;
+        }
+
+        for (long slot : pipeline.skipTo(replicatedLog.getHighestKnownSlot())) {
+            broadcastAcceptMessage(new Accept(context, prepareMessageId, slot, Proposal.noOp()));
+        }
+    }
+
+    /**
+     * Checks if this node proposes slots in the term it is currently promised to, either as the
+     * leader or as the owner of slots.
+     *
+     * @return Is proposer
+     */
+    private boolean isProposer() {
+        if (isLeader()) {
+            return slotOwnership == null || slotOwnership.isOwner(context.getNodeId()) || !revokedOwnerIds.isEmpty();
+        }
+        return ownerPrepareMessageId != null && ownerPrepareMessageId.equals(context.getLastPrepareMessageIdWithNodeId());
+    }
+
+    /**
+     * Checks if this node opens the slot in the current term. The leader also opens the slots of
+     * the owners it revoked.
+     *
+     * @param slot Log slot
+     * @return Is the slot opened by this node
+     */
+    private boolean ownsSlot(long slot) {
+        if (slotOwnership == null) {
+            return true;
+        }
+
+        int ownerNodeId = slotOwnership.getOwner(slot);
+        return ownerNodeId == context.getNodeId() || (isLeader() && revokedOwnerIds.contains(ownerNodeId));
+    }
+
+    /**
+     * Starts proposing the own slots in the term of another leader, from the first slot of the owners
+     * announced in the ACCEPT message of the election. Own slots in flight from that slot on are
+     * proposed again in the new term.
+     *
+     * @param accept Accept message of the election
+     */
+    @Override
+    protected void onTermAccepted(Accept accept) {
+        if (slotOwnership == null || accept.getProposerNodeId() == context.getNodeId()
+                || accept.getPrepareMessageId().equals(ownerPrepareMessageId)) {
+            return;
+        }
+
+        revokedOwnerIds = accept.getRevokedOwnerIds() == null
+                ? new HashSet<>()
+                : new HashSet<>(accept.getRevokedOwnerIds());
+
+        if (!slotOwnership.isOwner(context.getNodeId()) || revokedOwnerIds.contains(context.getNodeId())) {
+            ownerPrepareMessageId = null;
+            return;
+        }
+
+        ownerPrepareMessageId = accept.getPrepareMessageId();
+        ownedSlotsFrom = accept.getOwnedSlotsFrom();
+
+        Map<Long, Proposal> ownedSlots = pipeline.startOwnedSlots(ownedSlotsFrom, replicatedLog);
+        log.info("[{}]: Proposing own slots from slot {} in term: {}. Re-proposing {} undecided slots",
+                context.getNodeName(), ownedSlotsFrom, ownerPrepareMessageId, ownedSlots.size());
+
+        ownedSlots.forEach((slot, proposal) ->
+                broadcastAcceptMessage(new Accept(context, ownerPrepareMessageId, slot, proposal)));
+    }
+
+    /**
+     * Starts a new election if the delivery of the log waits for a slot of an owner which is suspected
+     * to have failed. The new term revokes the slots of the owner, and fills them with no-ops.
+     */
+    private void revokeSlotsOfFailedOwner() {
+        if (slotOwnership == null || !isLeader() || leaderPrepareMessageId.equals(revokingPrepareMessageId)) {
+            return;
+        }
+
+        long slot = replicatedLog.getNextDeliverySlot();
+        int ownerNodeId = slotOwnership.getOwner(slot);
+        if (slot > replicatedLog.getHighestKnownSlot() || ownerNodeId == context.getNodeId()
+                || revokedOwnerIds.contains(ownerNodeId) || !electionPriority.isSuspected(ownerNodeId)) {
+            return;
+        }
+
+        revokingPrepareMessageId = leaderPrepareMessageId;
+        nextElectionAt = System.nanoTime();
+        log.info("[{}]: Owner {} of slot {} is suspected to have failed. Initiating election to revoke its slots",
+                context.getNodeName(), ownerNodeId, slot);
+    }
+
+    /**
+     * Checks if this node is the leader of the term it is currently promised to.
+     *
+     * @return Is leader
+     */
+    private boolean isLeader() {
+        return leaderPrepareMessageId != null
+                && leaderPrepareMessageId.equals(context.getLastPrepareMessageIdWithNodeId());
+    }
+
+    /**
+     * Starts the leadership for the given term. The undecided slots of the previous terms
+     * are proposed again before any new client value.
+     *
+     * @param prepareMessageId Identifier of the PREPARE message
+     */
+    private void startLeadership(String prepareMessageId) {
+        leaderPrepareMessageId = prepareMessageId;
+        context.getMetrics().histogram(ELECTION_LATENCY).record((System.nanoTime() - electionStartedAt) / 1000);
+        context.getMetrics().histogram(ELECTION_ROUNDS).record(electionRounds);
+        scheduleNextElection();
+        context.getLeaderLease().startHolding(prepareMessageId, context.getNodeId());
+
+        // Owners suspected to have failed do not propose in this term, their slots are proposed by this node
+        revokedOwnerIds = new HashSet<>();
+        if (slotOwnership != null) {
+            slotOwnership.getOwnerNodeIds()
+                    .stream()
+                    .filter(ownerNodeId -> ownerNodeId != context.getNodeId() && electionPriority.isSuspected(ownerNodeId))
+                    .forEach(revokedOwnerIds::add);
+        }
+
+        Map<Long, Proposal> recoveredSlots = pipeline.startTerm(replicatedLog);
+        pendingReconfiguration = recoveredSlots.values().stream().anyMatch(proposal -> proposal.getReconfiguration() != null);
+        ownedSlotsFrom = pipeline.getNextSlot();
+        log.info("[{}]: Leading term: {}. Re-proposing {} undecided slots",
+                context.getNodeName(), prepareMessageId, recoveredSlots.size());
+
+        recoveredSlots.forEach((slot, proposal) -> {
+            context.getLeaderLease().setReadIndex(slot);
+            broadcastAcceptMessage(new Accept(context, prepareMessageId, slot, proposal));
+        });
+    }
+
     /**
      * Delays the execution as per the configuration of {@link ResponseTiming}
      * in {@link com.suburbs.council.election.Node}.
@@ -139,12 +692,32 @@ public class Candidate extends Follower {
         log.info("[{}]: Received promise message from member: {} for id: {}",
                 context.getNodeName(), promise.getResponderNodeName(), promise.getPrepareMessageId());
 
+        // Late promises of an earlier round must not make this node the leader of a stale term
+        if (!promise.getPrepareMessageId().equals(electionPrepareMessageId)
+                || !promise.getPrepareMessageId().equals(context.getLastPrepareMessageIdWithNodeId())) {
+            log.info("[{}]: Ignoring promise for id: {} which is not the running round",
+                    context.getNodeName(), promise.getPrepareMessageId());
+            return;
+        }
+
         // Parse the identifier
         long promiseMessageId = PaxosUtils.parsePrepareNumer(
                 promise.getPrepareMessageId());
 
+        // In HYBRID mode only the values attested by the trusted counter of the member are recovered
+        List<Accept> acceptedSlots = getAttestedSlots(promise);
+        if (acceptedSlots == null) {
+            log.info("[{}]: Promise of member: {} for id: {} is not attested. Ignoring it",
+                    context.getNodeName(), promise.getResponderNodeName(), promise.getPrepareMessageId());
+            return;
+        }
+
         // Increment total no. of promises
-        context.incrementPromisesForPrepare(promiseMessageId);
+        context.incrementPromisesForPrepare(promiseMessageId, promise.getResponderNodeId());
+        peerSelector.recordHeard(promise.getResponderNodeId());
+
+        // Values accepted by the member in the earlier terms
+        acceptedSlots.forEach(pipeline::recover);
 
         // If there was a PREPARE message accepted by other nodes but not received by this node
         // then this node has to update its proposal to last prepare message and send that in
@@ -174,22 +747,124 @@ public class Candidate extends Follower {
         log.info("Majority promises received for id: {}, time to dispatch accept messages",
                 promise.getPrepareMessageId());
 
+        dispatchedAcceptMessages = true;
+        startLeadership(promise.getPrepareMessageId());
+
+        // The owners of the slots propose from the first slot this node does not recover
         Accept accept = new Accept(context, promise.getPrepareMessageId());
+        if (slotOwnership != null) {
+            accept.setOwnedSlotsFrom(ownedSlotsFrom);
+            accept.setRevokedOwnerIds(new ArrayList<>(revokedOwnerIds));
+        }
         broadcastAcceptMessage(accept);
-        dispatchedAcceptMessages = true;
     }
 
     /**
-     * Broadcasts the {@link Accept} messages to all the members.
+     * Returns the values the member reports in its {@link Promise} message. In HYBRID mode the
+     * trusted counter of the member attests the values it voted for, so every one of them has to
+     * be reported, with an ACCEPT message attested by its proposer. Reported values the member did
+     * not vote for are dropped.
+     *
+     * @param promise Promise message
+     * @return Accepted values or null if the promise is not attested
+     * @throws JsonProcessingException Throws if encounters error while computing the digest
+     */
+    private List<Accept> getAttestedSlots(Promise promise) throws JsonProcessingException {
+        List<Accept> acceptedSlots = promise.getAcceptedSlots() == null ? List.of() : promise.getAcceptedSlots();
+        TrustedCounter trustedCounter = context.getTrustedCounter();
+        if (trustedCounter == null) {
+            return acceptedSlots;
+        }
+
+        Map<Long, String> attestedSlots = promise.getAttestedSlots();
+        if (!trustedCounter.verifyPromise(promise.getResponderNodeId(), promise.getPrepareMessageId(),
+                attestedSlots, promise.getCounterAttestation())) {
+            return null;
+        }
+
+        List<Accept> attested = new ArrayList<>();
+        for (Accept accept : acceptedSlots) {
+            String digest = PaxosUtils.digest(accept.getPrepareMessageId(), accept.getSlot(), accept.getProposal());
+            if (digest.equals(attestedSlots.get(accept.getSlot())) && isAttested(accept)) {
+                attested.add(accept);
+            }
+        }
+        return attested.size() == attestedSlots.size() ? attested : null;
+    }
+
+    /**
+     * Broadcasts the {@link Accept} messages to all the members. In thrifty mode the message
+     * is sent only to a quorum of the fastest members.
      *
      * @param accept Accept message
      */
     private void broadcastAcceptMessage(Accept accept) {
-        context.getMembers()
+
+        // In HYBRID mode the trusted counter refuses a second value for the slot in the same term
+        TrustedCounter trustedCounter = context.getTrustedCounter();
+        if (trustedCounter != null) {
+            try {
+                accept.setCounterAttestation(trustedCounter.attest(Message.Type.ACCEPT, accept.getSlot(),
+                        accept.getPrepareMessageId(),
+                        PaxosUtils.digest(accept.getPrepareMessageId(), accept.getSlot(), accept.getProposal())));
+
+            } catch (JsonProcessingException e) {
+                log.error("[{}]: Error attesting ACCEPT message for slot: {}", context.getNodeName(), accept.getSlot());
+            }
+
+            if (accept.getCounterAttestation() == null) {
+                log.info("[{}]: Trusted counter refused ACCEPT message for id: {} and slot: {}",
+                        context.getNodeName(), accept.getPrepareMessageId(), accept.getSlot());
+                return;
+            }
+        }
+
+        if (context.isThrifty()) {
+            List<Integer> quorum = peerSelector.selectQuorum(context.getQuorumSize(Phase.ACCEPT));
+            accept.setQuorumMemberIds(quorum);
+            thriftyDispatches.put(accept.getSlot(), new ThriftyDispatch(accept, quorum));
+        }
+
+        sendAcceptMessage(accept);
+    }
+
+    /**
+     * Sends the {@link Accept} message to the members of its quorum, or along the dissemination tree.
+     *
+     * @param accept Accept message
+     */
+    private void sendAcceptMessage(Accept accept) {
+
+        // Every ACCEPT message requests the lease, the members grant it with their ACCEPTED messages
+        if (context.getLeaderLease().isEnabled()) {
+            accept.setLeaseRequestTimestamp(LeaderLease.now());
+        }
+        accept.setDispatchTimestamp(LeaderLease.now());
+
+        // Log entries go to the delegates of the other sub-councils, this node is the delegate of its own one
+        if (isSentToSubCouncils(accept)) {
+            dispatchToDelegates(accept, accept.getPrepareMessageId(), accept.getSlot());
+            accept.setDelegateNodeId(context.getNodeId());
+            dispatchToSubCouncil(accept, accept.getPrepareMessageId(), accept.getSlot());
+            return;
+        }
+
+        // Log entries for all the members are relayed by the interior nodes of the tree
+        if (isRelayed(accept)) {
+            relayMessage(context.getNodeId(), accept, accept.getPrepareMessageId(), accept.getSlot());
+            return;
+        }
+
+        // Fastest members first, so that the quorum is reached as early as possible
+        List<Integer> quorum = accept.getQuorumMemberIds();
+        peerSelector.rankMembers()
                 .forEach(member -> {
+                    if (quorum != null && !quorum.contains(member.getId())) {
+                        return;
+                    }
                     try {
-                        log.info("[{}]: Dispatching ACCEPT message to {}", context.getNodeName(),
-                                member.getName());
+                        log.info("[{}]: Dispatching ACCEPT message to {} for slot: {}", context.getNodeName(),
+                                member.getName(), accept.getSlot());
                         PaxosUtils.dispatch(member, accept);
 
                     } catch (IOException e) {
@@ -200,12 +875,12 @@ public class Candidate extends Follower {
     }
 
     /**
-     * Broadcast the {@link Prepare} message to all the members.
+     * Broadcast the {@link Prepare} message to all the members, fastest first.
      *
      * @param prepare Prepare message to broadcast
      */
     private void broadcastPrepareMessage(Prepare prepare) {
-        context.getMembers()
+        peerSelector.rankMembers()
                 .forEach(member -> {
                     try {
                         log.info("[{}]: Dispatching PREPARE message to {} with id: {}",
@@ -240,10 +915,23 @@ public class Candidate extends Follower {
                     prepare.getNewPrepareMessageId()
             );
 
-            broadcastPrepareMessage(prepare);
+            // In thrifty mode only a quorum of the members broadcast PREPROMISE messages. In linear
+            // mode all of them only vote to this node anyway.
+            if (context.isThrifty() && !context.isClassicMode() && !context.isLinearMode()) {
+                prepare.setQuorumMemberIds(peerSelector.selectQuorum(context.getQuorumSize(Phase.PREPARE)));
+                thriftyPrepare = prepare;
+                thriftyPrepareDispatchedAt = System.nanoTime();
+            }
+
+            electionStartedAt = System.nanoTime();
+            electionPrepareMessageId = prepare.getNewPrepareMessageId();
+            highestRejectedPrepareMessageId = 0;
+
+            // The id is made durable first, so a restarted node never proposes another value with it
             context.savePrepareMessage(prepareMessageId, prepare);
             context.setLastPrepareMessageId(prepareMessageId);
             context.setLastPrepareMessageIdWithNodeId(prepare.getNewPrepareMessageId());
+            context.whenDurable(() -> broadcastPrepareMessage(prepare));
 
         } catch (Exception e) {
             log.error("[{}]: Failed to broadcast prepare message with exception: {}",
@@ -251,13 +939,54 @@ public class Candidate extends Follower {
 
         } finally {
 
-            // Once Prepare messages are broadcast, the interval and the start time has to reset.
-            this.intervalBetweenInitiatingElection = generateRandomIntervalBetweenElections();
-            this.resetStartTime = Instant.now()
-                    .getEpochSecond();
+            // The round is retried if it does not make this node the leader within the backoff
+            this.electionRounds++;
+            this.nextElectionAt = System.nanoTime() + generateElectionBackoff();
         }
     }
 
+    /**
+     * Checks if a contended election of this node ended with another member being elected,
+     * in which case the node stops retrying.
+     *
+     * @return Is another member elected
+     */
+    private boolean isElectedByAnotherMember() {
+        int leaderNodeId = context.getLeaderNodeId();
+        return electionRounds > 0 && leaderNodeId >= 0 && leaderNodeId != context.getNodeId()
+                && !electionPriority.isSuspected(leaderNodeId);
+    }
+
+    /**
+     * Brings the next election forward if the heartbeats of the leader stopped and no live
+     * candidate of higher rank is going to replace it.
+     */
+    private void expediteElectionIfLeaderFailed() {
+        int leaderNodeId = context.getLeaderNodeId();
+        String leaderPrepareId = context.getLastPrepareMessageIdWithNodeId();
+        if (electionRounds > 0 || leaderNodeId < 0 || leaderNodeId == context.getNodeId() || !context.isVotingMember()
+                || leaderPrepareId.equals(expeditedPrepareMessageId)
+                || !electionPriority.isSuspected(leaderNodeId) || electionPriority.hasLiveHigherRankedCandidate()) {
+            return;
+        }
+
+        expeditedPrepareMessageId = leaderPrepareId;
+        long electionAt = System.nanoTime() + generateElectionBackoff();
+        if (nextElectionAt - electionAt > 0) {
+            nextElectionAt = electionAt;
+            log.info("[{}]: Leader {} is suspected to have failed. Initiating election in {} ms",
+                    context.getNodeName(), leaderNodeId, (nextElectionAt - System.nanoTime()) / 1_000_000);
+        }
+    }
+
+    /**
+     * Schedules the next regular election once the current one is settled.
+     */
+    private void scheduleNextElection() {
+        this.electionRounds = 0;
+        this.nextElectionAt = System.nanoTime() + generateRandomIntervalBetweenElections() * 1_000_000_000L;
+    }
+
     /**
      * Handles {@link Reject} message.
      *
@@ -268,22 +997,50 @@ public class Candidate extends Follower {
         log.info("[{}]: Received REJECT message from member: {} for id: {}",
                 context.getNodeName(), reject.getResponderNodeId(), reject.getProposedPrepareMessageId());
 
-        // Check if this regarding current node's stored PREPARE message id.
-        if (context.getLastPrepareMessageIdWithNodeId().equals(reject.getProposedPrepareMessageId())) {
-            // This is regarding the correct proposed id.
-            // Update the state.
+        // Check if this regarding current node's running round.
+        if (!reject.getProposedPrepareMessageId().equals(electionPrepareMessageId)
+                || reject.getCurrentPrepareMessageId() <= highestRejectedPrepareMessageId) {
+            return;
+        }
 
+        // The first REJECT message shows the round is contended, no need to wait for its timeout
+        if (highestRejectedPrepareMessageId == 0) {
+            this.nextElectionAt = System.nanoTime() + generateElectionBackoff();
+            log.info("[{}]: Election with id: {} is contended. Retrying in {} ms",
+                    context.getNodeName(), electionPrepareMessageId,
+                    (nextElectionAt - System.nanoTime()) / 1_000_000);
+        }
+        this.highestRejectedPrepareMessageId = reject.getCurrentPrepareMessageId();
+
+        // The next PREPARE message jumps past the highest id reported by the members,
+        // unless this node has promised a higher one in the meantime.
+        if (highestRejectedPrepareMessageId > context.getLastPrepareMessageId()) {
             context.setLastPrepareMessageId(
-                    reject.getCurrentPrepareMessageId()
+                    highestRejectedPrepareMessageId
             );
             context.setLastPrepareMessageIdWithNodeId(
                     PaxosUtils.generatePrepareNumber(
-                            reject.getCurrentPrepareMessageId(), reject.getResponderNodeId()
+                            highestRejectedPrepareMessageId, reject.getResponderNodeId()
                     )
             );
         }
     }
 
+    /**
+     * Generates the time in nanos the current election round gets before it is retried. The
+     * backoff doubles with every contended round, up to the regular interval between elections,
+     * and is randomized so that duelling candidates stop colliding. Candidates ranked lower
+     * wait a multiple of it.
+     *
+     * @return Backoff in nanos
+     */
+    private long generateElectionBackoff() {
+        int doublings = Math.min(Math.max(electionRounds - 1, 0), MAX_BACKOFF_DOUBLINGS);
+        long ceiling = Math.min((electionBackoffNanos << doublings) * (1 + electionPriority.getPosition()),
+                MIN_INTERVAL * 1_000_000_000L);
+        return ceiling / 2 + (long) (Math.random() * (ceiling / 2));
+    }
+
     /**
      * Generates random interval between elections.
      *
@@ -292,4 +1049,28 @@ public class Candidate extends Follower {
     private int generateRandomIntervalBetweenElections() {
         return PaxosUtils.generateRandomNumber(MAX_INTERVAL, MIN_INTERVAL);
     }
+
+    /**
+     * ACCEPT message sent to a thrifty quorum, with the members which responded so far.
+     */
+    private static class ThriftyDispatch {
+        private final Accept accept;
+        private final long dispatchedAt;
+        private final List<Integer> quorum;
+        private final Set<Integer> respondedNodeIds;
+        private boolean widened;
+
+        /**
+         * Constructor.
+         *
+         * @param accept Accept message
+         * @param quorum Node ids of the quorum
+         */
+        ThriftyDispatch(Accept accept, List<Integer> quorum) {
+            this.accept = accept;
+            this.dispatchedAt = System.nanoTime();
+            this.quorum = quorum;
+            this.respondedNodeIds = new HashSet<>();
+        }
+    }
 }
@@ -0,0 +1,67 @@
+package com.suburbs.council.election.paxos;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Predicate;
+
+/**
+ * Collects the authenticated pre-round votes sent to the proposer in LINEAR_BYZANTINE mode.
+ * Votes are kept per term, slot and digest, once per voter, until a quorum of them can be
+ * forwarded to the members as a certificate.
+ */
+public class CertificateCollector {
+
+    private final Map<InstanceKey, Map<Integer, Map<Integer, String>>> votes = new HashMap<>();
+    private final Set<InstanceKey> certified = new HashSet<>();
+    private final IntUnaryOperator voteWeights;
+
+    /**
+     * Constructor.
+     *
+     * @param voteWeights Vote weight per node id
+     */
+    public CertificateCollector(IntUnaryOperator voteWeights) {
+        this.voteWeights = voteWeights;
+    }
+
+    /**
+     * Records the vote and returns the votes for the key, once the quorum is reached.
+     *
+     * @param key Term, slot and digest the vote is for
+     * @param voterNodeId Node id of the voter
+     * @param authenticators MAC of the vote per member
+     * @param quorumSize Weight of the votes needed
+     * @return Authenticators per voter, or null if the quorum is not reached yet
+     */
+    public Map<Integer, Map<Integer, String>> record(InstanceKey key, int voterNodeId,
+                                                     Map<Integer, String> authenticators, int quorumSize) {
+        Map<Integer, Map<Integer, String>> keyVotes = votes.computeIfAbsent(key, k -> new HashMap<>());
+        keyVotes.putIfAbsent(voterNodeId, authenticators);
+
+        int weight = keyVotes.keySet().stream().mapToInt(voteWeights::applyAsInt).sum();
+        return weight >= quorumSize ? new HashMap<>(keyVotes) : null;
+    }
+
+    /**
+     * Marks the key as certified.
+     *
+     * @param key Term, slot and digest
+     * @return Whether the key was not certified before
+     */
+    public boolean markCertified(InstanceKey key) {
+        return certified.add(key);
+    }
+
+    /**
+     * Removes the votes and the certified marks of all the keys matching the predicate.
+     *
+     * @param predicate Predicate
+     */
+    public void removeIf(Predicate<InstanceKey> predicate) {
+        votes.keySet().removeIf(predicate);
+        certified.removeIf(predicate);
+    }
+}
@@ -0,0 +1,279 @@
+package com.suburbs.council.election.paxos;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.suburbs.council.election.Member;
+import com.suburbs.council.election.messages.Command;
+import com.suburbs.council.election.messages.CommandMessage;
+import com.suburbs.council.election.messages.Message;
+import com.suburbs.council.election.utils.PaxosUtils;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * CommandCoordinator commits the client values in leaderless mode. Every member leads the commands
+ * of its own clients in its own instances of the {@link CommandLog}, without an election:
+ * <br>
+ * The command leader pre-accepts the command with the conflicting instances it knows, and sends it
+ * to all the members, which add the conflicting instances they know. If a fast quorum of them
+ * reports no other dependency, the command is committed right away, in one round trip. Otherwise the
+ * leader merges the reported dependencies and has a majority accept them, before committing the
+ * command. Commands which commute always take the fast path, since they never depend on each other.
+ * <br>
+ * With N nodes and F = (N - 1) / 2, a fast quorum holds F + (F + 1) / 2 nodes and a majority F + 1
+ * nodes, both including the command leader.
+ */
+public class CommandCoordinator {
+    private static final Logger log = LoggerFactory.getLogger(CommandCoordinator.class);
+
+    public static final String COMMAND_COMMIT_LATENCY = "command.commit.latency.us";
+    public static final String COMMAND_FAST_PATH = "command.fast.path";
+    public static final String COMMAND_SLOW_PATH = "command.slow.path";
+
+    // Time the fast quorum gets to respond before the majority responded so far takes the slow path
+    private static final long FAST_PATH_TIMEOUT_MS = 500L;
+
+    private final Context context;
+    private final CommandLog commandLog;
+    private final int fastQuorumReplies;
+    private final int slowQuorumReplies;
+
+    // Commands this node leads which are not committed yet, per instance id
+    private final Map<String, Instance> instances;
+
+    /**
+     * Constructor.
+     *
+     * @param context Context object holds the resources which are shared among all the threads
+     */
+    public CommandCoordinator(Context context) {
+        this.context = context;
+        this.commandLog = context.getCommandLog();
+        this.instances = new HashMap<>();
+
+        // Replies needed besides the own vote of the command leader
+        int totalNodes = context.getMembers().size() + 1;
+        int maxFailures = (totalNodes - 1) / 2;
+        this.slowQuorumReplies = totalNodes / 2;
+        this.fastQuorumReplies = Math.max(slowQuorumReplies, maxFailures + (maxFailures + 1) / 2 - 1);
+    }
+
+    /**
+     * Starts committing the client value in the next instance of this node.
+     *
+     * @param value Client value
+     */
+    public void propose(String value) {
+        Command command = commandLog.createCommand(value);
+        log.info("[{}]: Leading command {}", context.getNodeName(), command);
+
+        Instance instance = new Instance(command);
+        instances.put(command.instanceId(), instance);
+
+        if (fastQuorumReplies == 0) {
+            commit(instance, command);
+            return;
+        }
+        broadcast(Message.Type.COMMAND_PREACCEPT, command);
+    }
+
+    /**
+     * Dispatches the command message to the handler of its step.
+     *
+     * @param messageType Type of the message
+     * @param message Command message
+     * @throws JsonProcessingException Throws if encounters any error while deserialization
+     */
+    public void handleMessage(Message.Type messageType, String message) throws JsonProcessingException {
+        CommandMessage commandMessage = PaxosUtils.deserialize(message, CommandMessage.class);
+        Command command = commandMessage.getCommand();
+
+        log.info("[{}]: Received {} message from member: {} for command: {}",
+                context.getNodeName(), messageType, commandMessage.getSenderNodeName(), command.instanceId());
+
+        switch (messageType) {
+            case COMMAND_PREACCEPT -> reply(command.getOwnerNodeId(), Message.Type.COMMAND_PREACCEPT_OK,
+                    commandLog.preAccept(command));
+            case COMMAND_PREACCEPT_OK -> handlePreAcceptOk(commandMessage.getSenderNodeId(), command);
+            case COMMAND_ACCEPT -> {
+                commandLog.accept(command);
+                reply(command.getOwnerNodeId(), Message.Type.COMMAND_ACCEPT_OK, command);
+            }
+            case COMMAND_ACCEPT_OK -> handleAcceptOk(commandMessage.getSenderNodeId(), command);
+            case COMMAND_COMMIT -> commandLog.commit(command);
+            default -> log.error("[{}]: Unexpected command message: {}", context.getNodeName(), messageType);
+        }
+    }
+
+    /**
+     * Moves the instances whose fast quorum did not respond in time to the slow path, as soon as
+     * a majority responded.
+     */
+    public void tick() {
+        long now = System.nanoTime();
+        for (Instance instance : new ArrayList<>(instances.values())) {
+            if (!instance.accepting && instance.replies.size() >= slowQuorumReplies
+                    && now - instance.startedAt > TimeUnit.MILLISECONDS.toNanos(FAST_PATH_TIMEOUT_MS)) {
+                startSlowPath(instance);
+            }
+        }
+    }
+
+    /**
+     * Counts the attributes a member pre-accepted the command with. The command is committed on
+     * the fast path once a fast quorum reported the original attributes, and goes to the slow path
+     * as soon as any member reported others.
+     *
+     * @param responderNodeId Node id of the member
+     * @param command Command with the attributes of the member
+     */
+    private void handlePreAcceptOk(int responderNodeId, Command command) {
+        Instance instance = instances.get(command.instanceId());
+        if (instance == null || instance.accepting) {
+            return;
+        }
+
+        instance.replies.put(responderNodeId, command);
+        if (instance.replies.size() < fastQuorumReplies) {
+            return;
+        }
+
+        boolean unchanged = instance.replies.values().stream().allMatch(reply -> reply.hasSameAttributes(instance.command));
+        if (unchanged) {
+            context.getMetrics().increment(COMMAND_FAST_PATH, 1);
+            commit(instance, instance.command);
+            return;
+        }
+        startSlowPath(instance);
+    }
+
+    /**
+     * Merges the attributes reported by the members, the highest sequence no. and all the
+     * dependencies, and has a majority accept them.
+     *
+     * @param instance Instance of the command
+     */
+    private void startSlowPath(Instance instance) {
+        long seq = instance.command.getSeq();
+        Set<String> deps = new LinkedHashSet<>(instance.command.getDeps());
+        for (Command reply : instance.replies.values()) {
+            seq = Math.max(seq, reply.getSeq());
+            deps.addAll(reply.getDeps());
+        }
+
+        instance.command = instance.command.withAttributes(seq, new ArrayList<>(deps));
+        instance.accepting = true;
+        context.getMetrics().increment(COMMAND_SLOW_PATH, 1);
+
+        log.info("[{}]: Taking the slow path for command {}", context.getNodeName(), instance.command);
+        commandLog.accept(instance.command);
+        broadcast(Message.Type.COMMAND_ACCEPT, instance.command);
+    }
+
+    /**
+     * Counts the members which accepted the merged attributes, and commits the command once a majority did.
+     *
+     * @param responderNodeId Node id of the member
+     * @param command Accepted command
+     */
+    private void handleAcceptOk(int responderNodeId, Command command) {
+        Instance instance = instances.get(command.instanceId());
+        if (instance == null || !instance.accepting || !instance.command.hasSameAttributes(command)) {
+            return;
+        }
+
+        instance.acceptedNodeIds.add(responderNodeId);
+        if (instance.acceptedNodeIds.size() >= slowQuorumReplies) {
+            commit(instance, instance.command);
+        }
+    }
+
+    /**
+     * Commits the command locally and on all the members.
+     *
+     * @param instance Instance of the command
+     * @param command Command with the final attributes
+     */
+    private void commit(Instance instance, Command command) {
+        instances.remove(command.instanceId());
+        context.getMetrics().histogram(COMMAND_COMMIT_LATENCY)
+                .record((System.nanoTime() - instance.startedAt) / 1000);
+
+        commandLog.commit(command);
+        broadcast(Message.Type.COMMAND_COMMIT, command);
+    }
+
+    /**
+     * Sends the command to all the members.
+     *
+     * @param messageType Step of the instance
+     * @param command Command
+     */
+    private void broadcast(Message.Type messageType, Command command) {
+        CommandMessage message = new CommandMessage(context, messageType, command);
+        context.getMembers().forEach(member -> dispatch(member, message));
+    }
+
+    /**
+     * Sends the command back to its leader.
+     *
+     * @param ownerNodeId Node id of the command leader
+     * @param messageType Step of the instance
+     * @param command Command with the attributes of this node
+     */
+    private void reply(int ownerNodeId, Message.Type messageType, Command command) {
+        Member owner = context.getMember(ownerNodeId);
+        if (owner != null) {
+            dispatch(owner, new CommandMessage(context, messageType, command));
+        }
+    }
+
+    /**
+     * Sends the command message to the member.
+     *
+     * @param member Member
+     * @param message Command message
+     */
+    private void dispatch(Member member, CommandMessage message) {
+        try {
+            log.info("[{}]: Dispatching {} message to {} for command: {}", context.getNodeName(),
+                    message.getMessageType(), member.getName(), message.getCommand().instanceId());
+
+            PaxosUtils.dispatch(member, message);
+
+        } catch (IOException e) {
+            log.error("[{}]: Error dispatching {} message for command: {}", context.getNodeName(),
+                    message.getMessageType(), message.getCommand().instanceId());
+        }
+    }
+
+    /**
+     * A command led by this node, with the replies collected so far.
+     */
+    private static class Instance {
+        private final long startedAt;
+        private final Map<Integer, Command> replies;
+        private final Set<Integer> acceptedNodeIds;
+        private Command command;
+        private boolean accepting;
+
+        /**
+         * Constructor.
+         *
+         * @param command Command with the attributes of the command leader
+         */
+        Instance(Command command) {
+            this.startedAt = System.nanoTime();
+            this.replies = new HashMap<>();
+            this.acceptedNodeIds = new HashSet<>();
+            this.command = command;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.suburbs.council.election.paxos;
+
+import com.suburbs.council.election.enums.CommandStatus;
+import com.suburbs.council.election.messages.Command;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * CommandLog holds the command instances of all the members in leaderless mode. Every member
+ * owns a row of instances and commits the values of its own clients in it, so the instances are
+ * not ordered by a log slot. Instead every command records the conflicting instances it depends on,
+ * and its sequence no. breaks the ties between commands depending on each other.
+ * <br>
+ * A committed command is executed once all the instances it depends on, directly or transitively,
+ * are committed. The dependency graph is then split into its strongly connected components, which
+ * are executed dependencies first, and the commands of a component in the order of their sequence
+ * no. Since every member commits the same attributes, conflicting commands are executed in the same
+ * order by every member, while commuting commands are never waited on.
+ */
+public class CommandLog {
+
+    // Orders the commands of a strongly connected component
+    private static final Comparator<Command> EXECUTION_ORDER = Comparator.comparingLong(Command::getSeq)
+            .thenComparingInt(Command::getOwnerNodeId)
+            .thenComparingLong(Command::getInstanceNumber);
+
+    private final int nodeId;
+    private final ConflictKeyFunction conflictKeyFunction;
+    private final Map<String, Command> commands;
+    private final Map<String, CommandStatus> statuses;
+
+    // Latest instance no. per owner, and highest sequence no., of the commands seen per conflict key
+    private final Map<String, Map<Integer, Long>> latestInstances;
+    private final Map<String, Long> maxSeqs;
+
+    // Committed commands waiting for their dependencies
+    private final Set<String> pendingExecution;
+    private final List<ExecutionListener> executionListeners;
+
+    private long nextInstanceNumber;
+
+    /**
+     * Constructor.
+     *
+     * @param nodeId Node id of the current node
+     * @param conflictKeyFunction Conflict key of the client values
+     */
+    public CommandLog(int nodeId, ConflictKeyFunction conflictKeyFunction) {
+        this.nodeId = nodeId;
+        this.conflictKeyFunction = conflictKeyFunction;
+        this.commands = new HashMap<>();
+        this.statuses = new HashMap<>();
+        this.latestInstances = new HashMap<>();
+        this.maxSeqs = new HashMap<>();
+        this.pendingExecution = new LinkedHashSet<>();
+        this.executionListeners = new CopyOnWriteArrayList<>();
+        this.nextInstanceNumber = 1L;
+    }
+
+    /**
+     * Registers a listener which will receive the executed commands.
+     *
+     * @param listener Execution listener
+     */
+    public void addExecutionListener(ExecutionListener listener) {
+        executionListeners.add(listener);
+    }
+
+    /**
+     * Creates the command of a client value in the next instance of this node. It depends on the
+     * latest conflicting instance of every member this node has seen.
+     *
+     * @param value Client value
+     * @return Pre-accepted command
+     */
+    public synchronized Command createCommand(String value) {
+        String conflictKey = conflictKeyFunction.conflictKey(value);
+        Command command = new Command(nodeId, nextInstanceNumber++, value, conflictKey,
+                maxSeqs.getOrDefault(conflictKey, 0L) + 1, getConflictingInstances(conflictKey, null));
+
+        record(command, CommandStatus.PRE_ACCEPTED);
+        return command;
+    }
+
+    /**
+     * Pre-accepts the command of a command leader. The attributes proposed by the leader are
+     * extended by the conflicting instances this node has seen.
+     *
+     * @param command Command with the attributes of the leader
+     * @return Command with the attributes of this node
+     */
+    public synchronized Command preAccept(Command command) {
+        String instanceId = command.instanceId();
+        if (isAtLeast(instanceId, CommandStatus.ACCEPTED)) {
+            return commands.getOrDefault(instanceId, command);
+        }
+
+        Set<String> deps = new LinkedHashSet<>(command.getDeps());
+        deps.addAll(getConflictingInstances(command.getConflictKey(), instanceId));
+        long seq = Math.max(command.getSeq(), maxSeqs.getOrDefault(command.getConflictKey(), 0L) + 1);
+
+        Command preAccepted = command.withAttributes(seq, new ArrayList<>(deps));
+        record(preAccepted, CommandStatus.PRE_ACCEPTED);
+        return preAccepted;
+    }
+
+    /**
+     * Accepts the attributes merged by the command leader on the slow path.
+     *
+     * @param command Command with the merged attributes
+     */
+    public synchronized void accept(Command command) {
+        if (!isAtLeast(command.instanceId(), CommandStatus.COMMITTED)) {
+            record(command, CommandStatus.ACCEPTED);
+        }
+    }
+
+    /**
+     * Commits the command and executes every committed command whose dependencies are committed.
+     *
+     * @param command Command with the final attributes
+     * @return true if the command was not committed before
+     */
+    public synchronized boolean commit(Command command) {
+        String instanceId = command.instanceId();
+        if (isAtLeast(instanceId, CommandStatus.COMMITTED)) {
+            return false;
+        }
+
+        record(command, CommandStatus.COMMITTED);
+        pendingExecution.add(instanceId);
+        executeCommittedCommands();
+        return true;
+    }
+
+    /**
+     * Returns the status of the instance.
+     *
+     * @param instanceId Instance id
+     * @return Status or null if the instance is not known
+     */
+    public synchronized CommandStatus getStatus(String instanceId) {
+        return statuses.get(instanceId);
+    }
+
+    /**
+     * Returns the no. of committed commands waiting for their dependencies.
+     *
+     * @return Pending commands
+     */
+    public synchronized int getPendingExecutionCount() {
+        return pendingExecution.size();
+    }
+
+    /**
+     * Saves the command with its status, and updates the latest instances and the highest
+     * sequence no. of its conflict key.
+     *
+     * @param command Command
+     * @param status Status
+     */
+    private void record(Command command, CommandStatus status) {
+        String instanceId = command.instanceId();
+        commands.put(instanceId, command);
+        statuses.put(instanceId, status);
+
+        latestInstances.computeIfAbsent(command.getConflictKey(), key -> new HashMap<>())
+                .merge(command.getOwnerNodeId(), command.getInstanceNumber(), Math::max);
+        maxSeqs.merge(command.getConflictKey(), command.getSeq(), Math::max);
+    }
+
+    /**
+     * Returns the latest instance of every owner seen with the conflict key.
+     *
+     * @param conflictKey Conflict key
+     * @param excludedInstanceId Instance id which is not a dependency of itself, or null
+     * @return Instance ids
+     */
+    private List<String> getConflictingInstances(String conflictKey, String excludedInstanceId) {
+        List<String> instanceIds = new ArrayList<>();
+        latestInstances.getOrDefault(conflictKey, Map.of()).forEach((ownerNodeId, instanceNumber) -> {
+            String instanceId = Command.instanceId(ownerNodeId, instanceNumber);
+            if (!instanceId.equals(excludedInstanceId)) {
+                instanceIds.add(instanceId);
+            }
+        });
+        return instanceIds;
+    }
+
+    /**
+     * Checks if the instance reached the status.
+     *
+     * @param instanceId Instance id
+     * @param status Status
+     * @return Reached the status
+     */
+    private boolean isAtLeast(String instanceId, CommandStatus status) {
+        CommandStatus current = statuses.get(instanceId);
+        return current != null && current.compareTo(status) >= 0;
+    }
+
+    /**
+     * Executes the committed commands whose dependencies are all committed.
+     */
+    private void executeCommittedCommands() {
+        for (String instanceId : new ArrayList<>(pendingExecution)) {
+            if (pendingExecution.contains(instanceId) && isExecutable(instanceId)) {
+                execute(instanceId);
+            }
+        }
+    }
+
+    /**
+     * Checks if every instance reachable from the command is committed.
+     *
+     * @param instanceId Instance id
+     * @return Is executable
+     */
+    private boolean isExecutable(String instanceId) {
+        Set<String> visited = new HashSet<>();
+        Deque<String> stack = new ArrayDeque<>();
+        stack.push(instanceId);
+
+        while (!stack.isEmpty()) {
+            String current = stack.pop();
+            if (!visited.add(current) || statuses.get(current) == CommandStatus.EXECUTED) {
+                continue;
+            }
+            if (statuses.get(current) != CommandStatus.COMMITTED) {
+                return false;
+            }
+            commands.get(current).getDeps().forEach(stack::push);
+        }
+        return true;
+    }
+
+    /**
+     * Executes the command and its unexecuted dependencies, one strongly connected component at a
+     * time. Tarjan's algorithm completes the components of the dependencies first.
+     *
+     * @param instanceId Instance id
+     */
+    private void execute(String instanceId) {
+        new ComponentWalk().visit(instanceId);
+    }
+
+    /**
+     * Delivers the command to the listeners and drops its attributes, which are not needed anymore.
+     *
+     * @param command Command
+     */
+    private void executeCommand(Command command) {
+        String instanceId = command.instanceId();
+        statuses.put(instanceId, CommandStatus.EXECUTED);
+        pendingExecution.remove(instanceId);
+        commands.remove(instanceId);
+
+        for (ExecutionListener listener : executionListeners) {
+            listener.onExecution(command);
+        }
+    }
+
+    /**
+     * One run of Tarjan's algorithm over the unexecuted commands, executing every component once it is complete.
+     */
+    private class ComponentWalk {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final Map<String, Integer> lowLinks = new HashMap<>();
+        private final Deque<String> stack = new ArrayDeque<>();
+        private final Set<String> onStack = new HashSet<>();
+
+        /**
+         * Visits the command and the dependencies not visited yet.
+         *
+         * @param current Instance id
+         */
+        void visit(String current) {
+            indexes.put(current, indexes.size());
+            lowLinks.put(current, indexes.get(current));
+            stack.push(current);
+            onStack.add(current);
+
+            for (String dep : commands.get(current).getDeps()) {
+                if (statuses.get(dep) == CommandStatus.EXECUTED) {
+                    continue;
+                }
+                if (!indexes.containsKey(dep)) {
+                    visit(dep);
+                    lowLinks.put(current, Math.min(lowLinks.get(current), lowLinks.get(dep)));
+
+                } else if (onStack.contains(dep)) {
+                    lowLinks.put(current, Math.min(lowLinks.get(current), indexes.get(dep)));
+                }
+            }
+
+            // The root of a component pops all of its commands
+            if (!lowLinks.get(current).equals(indexes.get(current))) {
+                return;
+            }
+
+            List<Command> component = new ArrayList<>();
+            String member;
+            do {
+                member = stack.pop();
+                onStack.remove(member);
+                component.add(commands.get(member));
+            } while (!member.equals(current));
+
+            component.sort(EXECUTION_ORDER);
+            component.forEach(CommandLog.this::executeCommand);
+        }
+    }
+}
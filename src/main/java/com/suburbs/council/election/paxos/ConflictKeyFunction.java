@@ -0,0 +1,20 @@
+package com.suburbs.council.election.paxos;
+
+/**
+ * ConflictKeyFunction tells which commands commute in leaderless mode. Commands with different
+ * keys commute and are committed in one round trip without being ordered, commands with the same
+ * key conflict and are executed in the same order by every member.
+ * <br>
+ * Implementations are configured by their class name and need a public no-args constructor.
+ */
+@FunctionalInterface
+public interface ConflictKeyFunction {
+
+    /**
+     * Returns the conflict key of the client value.
+     *
+     * @param value Client value
+     * @return Conflict key
+     */
+    String conflictKey(String value);
+}
@@ -4,16 +4,30 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.suburbs.council.election.Member;
 import com.suburbs.council.election.Node;
+import com.suburbs.council.election.enums.MembershipChange;
+import com.suburbs.council.election.enums.Phase;
+import com.suburbs.council.election.enums.Profile;
+import com.suburbs.council.election.enums.ProtocolMode;
 import com.suburbs.council.election.enums.ResponseTiming;
+import com.suburbs.council.election.messages.Accept;
 import com.suburbs.council.election.messages.HeartBeat;
 import com.suburbs.council.election.messages.Prepare;
+import com.suburbs.council.election.messages.ReadResponse;
+import com.suburbs.council.election.messages.Reconfigure;
+import com.suburbs.council.election.messages.Snapshot;
+import com.suburbs.council.election.paxos.service.Metrics;
 import com.suburbs.council.election.paxos.service.MonitoringService;
 import com.suburbs.council.election.utils.PaxosUtils;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.LinkedBlockingQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,19 +45,58 @@ public class Context {
     private Server server;
     private int totalNodes;
     private int majorityNumber;
+    private int phaseOneQuorumSize;
+    private int phaseTwoQuorumSize;
+    private ProtocolMode protocolMode;
     private Long lastPrepareMessageId = 0L;
     private int totalByzantineFaultsSupported;
+    private int totalVoteWeight;
+    private int byzantineVoteWeight;
     private String currentAcceptedPrepareMessageId;
     private MonitoringService monitoringService;
     private String lastPrepareMessageIdWithNodeId;
 
-    private final Map<Long, Integer> votesPerPrepare;
-    private final Map<Long, Integer> promisesPerPrepare;
+    // Notified whenever a message is queued, if the protocol thread does not poll the queue itself
+    private Runnable messageListener;
+
+    private final Map<Integer, Integer> voteWeights;
+    // Votes for the election per term and digest of the value, promises per term, each counted once per member
+    private final QuorumTracker<InstanceKey> votesPerPrepare;
+    private final QuorumTracker<Long> promisesPerPrepare;
+
+    // Digest of the value the election of the term decided
+    private final Map<Long, String> decidedPrepares;
     private final BlockingQueue<String> receivedMessages;
     private final BlockingQueue<HeartBeat> heartBeatMessages;
     private final Map<Long, Prepare> receivedPrepareMessages;
 
-    private String state;
+    private final Metrics metrics;
+    private final ReplicatedLog replicatedLog;
+    private final LeaderLease leaderLease;
+    private final PeerSelector peerSelector;
+    private final ElectionPriority electionPriority;
+    private final DisseminationTree disseminationTree;
+    private final SubCouncils subCouncils;
+    private final SlotOwnership slotOwnership;
+    private final CommandLog commandLog;
+    private final MessageAuthenticator messageAuthenticator;
+    private final TrustedCounter trustedCounter;
+
+    // Assigned once the records of the previous run are replayed, so the replay is not logged again
+    private WriteAheadLog writeAheadLog;
+
+    // Writes the snapshots of the applied state, null if the log is never truncated
+    private final Snapshotter snapshotter;
+    private long lastSnapshotSlot;
+
+    // Membership changes delivered so far in log order, part of the applied state of a snapshot
+    private final List<Reconfigure> appliedReconfigurations;
+
+    private volatile String state;
+
+    // Node is catching up to join the council, or was removed from it, and does not take part in the elections
+    private volatile boolean joining;
+    private volatile boolean removed;
 
     /**
      * Constructor.
@@ -53,23 +106,285 @@ public class Context {
      */
     public Context(Node node, List<Member> members) {
         this.node = node;
-        this.members = members;
+
+        // Members change once a reconfiguration is delivered, while the other threads iterate them
+        this.members = new CopyOnWriteArrayList<>(members);
+        this.joining = node.isJoining();
+
+        // Messages of a council sharing the port with other councils are tagged with its group id
+        if (node.getGroupId() != null) {
+            members.forEach(member -> member.tagWithGroup(node.getGroupId()));
+        }
 
         state = "Election yet to happen";
         mapper = new ObjectMapper();
-        votesPerPrepare = new HashMap<>();
-        promisesPerPrepare = new HashMap<>();
+        voteWeights = new ConcurrentHashMap<>();
+        votesPerPrepare = new QuorumTracker<>(this::getVoteWeight);
+        promisesPerPrepare = new QuorumTracker<>(this::getVoteWeight);
+        decidedPrepares = new HashMap<>();
         receivedPrepareMessages = new HashMap<>();
+        appliedReconfigurations = new ArrayList<>();
         currentAcceptedPrepareMessageId = null;
         lastPrepareMessageIdWithNodeId = null;
         receivedMessages = new LinkedBlockingQueue<>();
         heartBeatMessages = new LinkedBlockingQueue<>();
 
+        metrics = new Metrics();
+        leaderLease = new LeaderLease(node.getLeaseDurationMs(), this::getVoteWeight);
+        peerSelector = new PeerSelector(this.members, node.getThriftyTimeoutMs());
+        electionPriority = new ElectionPriority(node.getId(), node.getRank());
+        disseminationTree = createDisseminationTree();
+        subCouncils = createSubCouncils();
+        slotOwnership = createSlotOwnership();
+        messageAuthenticator = createMessageAuthenticator();
+        trustedCounter = createTrustedCounter();
+        replicatedLog = new ReplicatedLog(this::getVoteWeight);
+        replicatedLog.addDecisionListener((slot, proposal) ->
+                log.info("[{}]: Decided slot {} with value: {}", node.getName(), slot, proposal));
+        commandLog = createCommandLog();
+        replicatedLog.addDecisionListener((slot, proposal) -> {
+            if (proposal.getReconfiguration() != null) {
+                applyReconfiguration(slot, proposal.getReconfiguration());
+            }
+        });
+        replicatedLog.addDecisionListener((slot, proposal) -> {
+            if (writeAheadLog != null) {
+                writeAheadLog.append(WriteAheadLog.Record.decide(slot, proposal));
+            }
+        });
+
+        // Registered after the reconfigurations are applied, so the cut holds the members of its slot
+        snapshotter = createSnapshotter();
+        replicatedLog.addDecisionListener((slot, proposal) -> takeSnapshotIfDue(slot));
+
         // Update the total number of nodes, as per the configuration file and
         // calculate the number of nodes needed for majority votes.
         updateTotalNumberOfNodes();
+        resolveProtocolMode();
         calculateTotalNumberOfByzantineFaultsSupported();
+        calculateVoteWeights();
         calculateMajorityNumber();
+        calculateQuorumSizes();
+        validateLearner();
+        validateSubCouncils();
+        validateLeaderless();
+        validateJoining();
+        validateObservers();
+        recoverSnapshot();
+        recoverWriteAheadLog();
+    }
+
+    /**
+     * Creates the {@link Snapshotter} if a snapshot interval is configured. The snapshots are written
+     * to the directory of the write-ahead log. The command log of leaderless mode is not a log of
+     * slots and can not be truncated at one.
+     *
+     * @return Snapshotter or null if the log is never truncated
+     */
+    private Snapshotter createSnapshotter() {
+        if (node.getSnapshotInterval() < 0) {
+            throw new IllegalArgumentException("Snapshot interval can not be negative: " + node.getSnapshotInterval());
+        }
+        if (node.getSnapshotInterval() == 0) {
+            return null;
+        }
+        if (commandLog != null) {
+            throw new IllegalArgumentException("Snapshots can not be combined with leaderless mode");
+        }
+
+        log.info("[{}]: Taking a snapshot every {} slots", getNodeName(), node.getSnapshotInterval());
+        return new Snapshotter(node.getWalDirectory(), node.getId(), metrics);
+    }
+
+    /**
+     * Restores the snapshot of the previous run, the write-ahead log then replays the slots after it.
+     */
+    private void recoverSnapshot() {
+        if (snapshotter == null) {
+            return;
+        }
+
+        Snapshot snapshot;
+        try {
+            snapshot = snapshotter.load();
+
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Snapshot can not be read from directory: " + node.getWalDirectory(), e);
+        }
+
+        if (snapshot != null && restoreSnapshot(snapshot)) {
+            log.info("[{}]: Recovered {}. Next slot to deliver: {}",
+                    getNodeName(), snapshot, replicatedLog.getNextDeliverySlot());
+        }
+    }
+
+    /**
+     * Takes a snapshot once the interval of slots since the last one was delivered. The cut is a copy
+     * of the applied state taken on the protocol thread while the slot is delivered, and is written
+     * on the thread of the {@link Snapshotter}. A cut taken while the previous snapshot is being
+     * written is skipped, the next slot delivered takes it again.
+     *
+     * @param slot Delivered log slot
+     */
+    private void takeSnapshotIfDue(long slot) {
+        if (snapshotter == null || slot - lastSnapshotSlot < node.getSnapshotInterval()) {
+            return;
+        }
+
+        Snapshot snapshot = new Snapshot(slot, state, getLastPrepareMessage(), new ArrayList<>(appliedReconfigurations));
+        if (snapshotter.take(snapshot)) {
+            lastSnapshotSlot = slot;
+        }
+    }
+
+    /**
+     * Skips the log to the snapshot and applies its state: the membership changes are applied again
+     * in log order, which leaves the members of its slot, and its PREPARE message is adopted if it is
+     * the highest this node has seen.
+     *
+     * @param snapshot Snapshot
+     * @return Whether the snapshot was ahead of this node
+     */
+    private synchronized boolean restoreSnapshot(Snapshot snapshot) {
+        if (!replicatedLog.installSnapshot(snapshot.getSlot())) {
+            return false;
+        }
+
+        appliedReconfigurations.clear();
+        if (snapshot.getReconfigurations() != null) {
+            snapshot.getReconfigurations().forEach(reconfiguration ->
+                    applyReconfiguration(snapshot.getSlot(), reconfiguration));
+        }
+
+        Prepare prepare = snapshot.getLastPrepareMessage();
+        if (prepare != null) {
+            long prepareMessageId = PaxosUtils.parsePrepareNumer(prepare.getNewPrepareMessageId());
+            if (prepareMessageId > lastPrepareMessageId) {
+                savePrepareMessage(prepareMessageId, prepare);
+                state = snapshot.getState();
+            }
+        }
+
+        lastSnapshotSlot = snapshot.getSlot();
+        replicatedLog.deliverDecidedSlots();
+        return true;
+    }
+
+    /**
+     * Installs the snapshot the leader sent, since the slots it covers are truncated from its log.
+     * It is installed whether or not this node takes snapshots itself, and written as the own one
+     * if it does, the write-ahead log holds no slot before it.
+     *
+     * @param snapshot Snapshot of the leader
+     * @return Whether the snapshot was ahead of this node
+     */
+    public boolean installSnapshot(Snapshot snapshot) {
+        if (!restoreSnapshot(snapshot)) {
+            return false;
+        }
+
+        if (snapshotter != null) {
+            snapshotter.take(snapshot);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the latest snapshot if the slot is truncated from the log, to be sent instead of the slot.
+     *
+     * @param slot Log slot
+     * @return Snapshot or null if the slot is still in the log
+     */
+    public Snapshot getSnapshotCovering(long slot) {
+        if (snapshotter == null || slot > replicatedLog.getSnapshotSlot()) {
+            return null;
+        }
+        return snapshotter.getLatest();
+    }
+
+    /**
+     * Returns the next snapshot which became durable, whose slots can be truncated.
+     *
+     * @return Snapshot or null if none
+     */
+    public Snapshot pollDurableSnapshot() {
+        return snapshotter == null ? null : snapshotter.pollDurable();
+    }
+
+    /**
+     * Truncates the log slots covered by the durable snapshot, and drops the PREPARE messages and the
+     * votes of the terms older than the promised one. The write-ahead log is compacted to the records
+     * of the state after the snapshot: the promised PREPARE message, the decided slots after it and
+     * the accepted values of the undecided slots, which are written in the background.
+     *
+     * @param snapshot Durable snapshot
+     */
+    public void compact(Snapshot snapshot) {
+        replicatedLog.truncate(snapshot.getSlot());
+        receivedPrepareMessages.keySet().removeIf(prepareMessageId -> prepareMessageId < lastPrepareMessageId);
+        votesPerPrepare.removeIf(key -> key.getPrepareMessageId() < lastPrepareMessageId);
+        promisesPerPrepare.removeIf(prepareMessageId -> prepareMessageId < lastPrepareMessageId);
+        decidedPrepares.keySet().removeIf(prepareMessageId -> prepareMessageId < lastPrepareMessageId);
+
+        if (writeAheadLog != null) {
+            List<WriteAheadLog.Record> records = new ArrayList<>();
+            if (getLastPrepareMessage() != null) {
+                records.add(WriteAheadLog.Record.promise(getLastPrepareMessage()));
+            }
+            replicatedLog.getDecidedValuesAfter(snapshot.getSlot())
+                    .forEach((slot, proposal) -> records.add(WriteAheadLog.Record.decide(slot, proposal)));
+            replicatedLog.getUndecidedAcceptedValues()
+                    .forEach(accept -> records.add(WriteAheadLog.Record.accept(accept)));
+            writeAheadLog.compact(records);
+        }
+
+        log.info("[{}]: Truncated the log up to slot {}", getNodeName(), replicatedLog.getSnapshotSlot());
+    }
+
+    /**
+     * Opens the write-ahead log if a directory is configured, and replays the records of the previous
+     * run: the last promised PREPARE message, the accepted values of the undecided log slots and the
+     * decided log slots, which are delivered again in order.
+     */
+    private void recoverWriteAheadLog() {
+        if (node.getWalDirectory() == null) {
+            return;
+        }
+        if (commandLog != null) {
+            throw new IllegalArgumentException("Write-ahead log can not be combined with leaderless mode");
+        }
+
+        WriteAheadLog recoveredLog;
+        List<WriteAheadLog.Record> records;
+        try {
+            recoveredLog = new WriteAheadLog(node.getWalDirectory(), node.getId(), metrics);
+            records = recoveredLog.read();
+
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Write-ahead log can not be opened in directory: "
+                    + node.getWalDirectory(), e);
+        }
+
+        for (WriteAheadLog.Record record : records) {
+            switch (record.getType()) {
+                case PROMISE -> {
+                    long prepareMessageId = PaxosUtils.parsePrepareNumer(record.getPrepare().getNewPrepareMessageId());
+                    if (prepareMessageId > lastPrepareMessageId) {
+                        savePrepareMessage(prepareMessageId, record.getPrepare());
+                    }
+                }
+                case ACCEPT -> {
+                    if (!replicatedLog.isDecided(record.getAccept().getSlot())) {
+                        replicatedLog.saveAcceptedValue(record.getAccept());
+                    }
+                }
+                case DECIDE -> replicatedLog.decide(record.getSlot(), record.getProposal());
+            }
+        }
+
+        writeAheadLog = recoveredLog;
+        log.info("[{}]: Recovered {} records of the write-ahead log. Promised id: {}, next slot to deliver: {}",
+                getNodeName(), records.size(), lastPrepareMessageIdWithNodeId, replicatedLog.getNextDeliverySlot());
     }
 
     /**
@@ -77,18 +392,232 @@ public class Context {
      * where N is the number of nodes and M is total number of byzantine faults.
      *
      * Assuming all the members as acceptors this will calculate total no. of
-     * byzantine faults.
+     * byzantine faults. In HYBRID mode the trusted counters keep the faulty nodes from
+     * equivocating, thus <pre><code>N >= 2M + 1</code></pre> is enough. CLASSIC mode only
+     * tolerates crash faults.
      */
     private void calculateTotalNumberOfByzantineFaultsSupported() {
+        if (protocolMode == ProtocolMode.CLASSIC) {
+            this.totalByzantineFaultsSupported = 0;
 
-        // The formula is (Total no. of members including proposer - 1) / 5 >= Byzantine faults.
-        this.totalByzantineFaultsSupported = (int) ((totalNodes - 1) / 5);
+            log.info("[{}]: Only crash faults are supported in {} protocol mode", getNodeName(), protocolMode);
+            return;
+        }
+
+        if (protocolMode == ProtocolMode.HYBRID) {
+            this.totalByzantineFaultsSupported = (totalNodes - 1) / 2;
+
+            log.info("[{}]: Following assumption is being made that (nodes >= 2f + 1)", getNodeName());
+            log.info("[{}]: Total no. of byzantine faults that can be supported is {}",
+                    getNodeName(), totalByzantineFaultsSupported);
+            return;
+        }
+
+        this.totalByzantineFaultsSupported = getFastByzantineFaultsSupported();
 
         log.info("[{}]: Following assumption is being made that (proposers >= 3f + 1)", getNodeName());
         log.info("[{}]: Total no. of byzantine faults that can be supported is {}",
                 getNodeName(), totalByzantineFaultsSupported);
     }
 
+    /**
+     * Creates the {@link DisseminationTree} of all the nodes if a fanout is configured. Nodes whose
+     * heartbeats stopped are routed around.
+     *
+     * @return Dissemination tree or null if the messages are sent directly
+     */
+    private DisseminationTree createDisseminationTree() {
+        if (node.getDisseminationFanout() < 0) {
+            throw new IllegalArgumentException("Dissemination fanout can not be negative: "
+                    + node.getDisseminationFanout());
+        }
+        if (node.getDisseminationFanout() == 0) {
+            return null;
+        }
+
+        List<Integer> nodeIds = new ArrayList<>();
+        nodeIds.add(node.getId());
+        members.forEach(member -> nodeIds.add(member.getId()));
+        return new DisseminationTree(node.getId(), nodeIds, node.getDisseminationFanout(),
+                electionPriority::isSuspected);
+    }
+
+    /**
+     * Creates the {@link SubCouncils} if this node is configured with a sub-council. Every member
+     * has to be configured with one then.
+     *
+     * @return Sub-councils or null for a flat council
+     */
+    private SubCouncils createSubCouncils() {
+        if (node.getSubCouncil() == null) {
+            return null;
+        }
+
+        Map<Integer, String> subCouncilPerNodeId = new HashMap<>();
+        subCouncilPerNodeId.put(node.getId(), node.getSubCouncil());
+        for (Member member : members) {
+            if (member.getSubCouncil() == null) {
+                throw new IllegalArgumentException("No sub-council configured for member: " + member.getName());
+            }
+            subCouncilPerNodeId.put(member.getId(), member.getSubCouncil());
+        }
+
+        return new SubCouncils(node.getId(), subCouncilPerNodeId, this::getVoteWeight, electionPriority::isSuspected);
+    }
+
+    /**
+     * Creates the {@link SlotOwnership} if slot owners are configured. The owners have to be nodes of
+     * the council which take part in the elections.
+     *
+     * @return Slot ownership or null if the leader proposes all the slots
+     */
+    private SlotOwnership createSlotOwnership() {
+        List<Integer> ownerNodeIds = node.getSlotOwners();
+        if (ownerNodeIds == null || ownerNodeIds.isEmpty()) {
+            return null;
+        }
+
+        for (int ownerNodeId : ownerNodeIds) {
+            if (ownerNodeId != node.getId() && getMember(ownerNodeId) == null) {
+                throw new IllegalArgumentException("Slot owner " + ownerNodeId + " is not a member");
+            }
+        }
+        if (ownerNodeIds.contains(node.getId()) && node.getProfile() != Profile.CANDIDATE) {
+            throw new IllegalArgumentException("Slot owners have to be candidates: " + node.getName());
+        }
+        if (subCouncils != null || node.getLeaseDurationMs() > 0) {
+            throw new IllegalArgumentException("Slot owners can not be combined with sub-councils or leases");
+        }
+
+        SlotOwnership ownership = new SlotOwnership(ownerNodeIds);
+        log.info("[{}]: Log slots are owned round-robin by nodes {}", getNodeName(), ownership.getOwnerNodeIds());
+        return ownership;
+    }
+
+    /**
+     * Creates the {@link CommandLog} if the values are committed without a leader, with an instance
+     * of the configured {@link ConflictKeyFunction}.
+     *
+     * @return Command log or null if the leader commits the values
+     */
+    private CommandLog createCommandLog() {
+        if (!node.isLeaderless()) {
+            return null;
+        }
+
+        ConflictKeyFunction conflictKeyFunction;
+        try {
+            conflictKeyFunction = Class.forName(node.getConflictKeyFunction())
+                    .asSubclass(ConflictKeyFunction.class)
+                    .getDeclaredConstructor()
+                    .newInstance();
+
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException("Invalid conflict key function: " + node.getConflictKeyFunction(), e);
+        }
+
+        CommandLog instances = new CommandLog(node.getId(), conflictKeyFunction);
+        instances.addExecutionListener(command ->
+                log.info("[{}]: Executed command {} with value: {}", node.getName(), command.instanceId(), command.getValue()));
+        return instances;
+    }
+
+    /**
+     * Creates the {@link MessageAuthenticator} if a cluster secret or a shared key of any member
+     * is configured. Every message dispatched to the members is then signed.
+     *
+     * @return Message authenticator or null if the messages are not authenticated
+     */
+    private MessageAuthenticator createMessageAuthenticator() {
+        boolean configured = node.getClusterSecret() != null
+                || members.stream().anyMatch(member -> member.getSharedKey() != null);
+
+        if (!configured) {
+            return null;
+        }
+
+        MessageAuthenticator authenticator = new MessageAuthenticator(node.getId(), node.getClusterSecret(), members);
+        members.forEach(member -> member.authenticateWith(authenticator));
+
+        log.info("[{}]: Messages are authenticated with pairwise keys", getNodeName());
+        return authenticator;
+    }
+
+    /**
+     * Creates the {@link TrustedCounter} of this node in HYBRID mode. Votes forwarded in the DECIDED
+     * messages of a distinguished learner are not attested, thus the learner is not supported.
+     *
+     * @return Trusted counter or null if the messages are not attested
+     */
+    private TrustedCounter createTrustedCounter() {
+        if (node.getProtocolMode() != ProtocolMode.HYBRID) {
+            return null;
+        }
+
+        if (node.getTrustedCounterSecret() == null) {
+            throw new IllegalArgumentException("Protocol mode " + ProtocolMode.HYBRID + " needs a trustedCounterSecret");
+        }
+        if (node.isDistinguishedLearner()) {
+            throw new IllegalArgumentException("Protocol mode " + ProtocolMode.HYBRID
+                    + " can not be combined with a distinguished learner");
+        }
+
+        log.info("[{}]: Ballots and values are attested by the trusted counter", getNodeName());
+        return new TrustedCounter(node.getId(), node.getTrustedCounterSecret());
+    }
+
+    /**
+     * Returns the trusted counter attesting the messages of this node.
+     *
+     * @return Trusted counter or null if the messages are not attested
+     */
+    public TrustedCounter getTrustedCounter() {
+        return trustedCounter;
+    }
+
+    /**
+     * Appends the accepted value of a log slot to the write-ahead log, if there is one.
+     *
+     * @param accept Accepted ACCEPT message
+     */
+    public void logAccepted(Accept accept) {
+        if (writeAheadLog != null) {
+            writeAheadLog.append(WriteAheadLog.Record.accept(accept));
+        }
+    }
+
+    /**
+     * Runs the response once the state it reveals is durable. Without a write-ahead log it runs right away.
+     *
+     * @param response Response to send
+     */
+    public void whenDurable(Runnable response) {
+        if (writeAheadLog == null) {
+            response.run();
+            return;
+        }
+        writeAheadLog.whenDurable(response);
+    }
+
+    /**
+     * Forces the records appended while handling the queued messages with one fsync, and sends the
+     * responses which waited for them.
+     */
+    public void syncWriteAheadLog() {
+        if (writeAheadLog != null) {
+            writeAheadLog.sync();
+        }
+    }
+
+    /**
+     * Returns the authenticator verifying the messages received from the members.
+     *
+     * @return Message authenticator or null if the messages are not authenticated
+     */
+    public MessageAuthenticator getMessageAuthenticator() {
+        return messageAuthenticator;
+    }
+
     /**
      * Returns the port number for the current node where
      * the server socket should bind to.
@@ -103,16 +632,390 @@ public class Context {
      * Update total number of nodes.
      */
     private void updateTotalNumberOfNodes() {
-        totalNodes = members.size() + 1;
+        totalNodes = getVoters().size() + (isObserver() ? 0 : 1);
+    }
+
+    /**
+     * Collects the vote weights of all the nodes. The byzantine nodes are assumed to be the
+     * heaviest ones, so the weight they may hold is the sum of the <code>f</code> largest weights.
+     */
+    private void calculateVoteWeights() {
+        if (!isObserver()) {
+            voteWeights.put(node.getId(), node.getVoteWeight());
+        }
+        getVoters().forEach(member -> voteWeights.put(member.getId(), member.getVoteWeight()));
+        voteWeights.keySet().removeIf(nodeId -> nodeId != node.getId() && getMember(nodeId) == null);
+
+        if (voteWeights.values().stream().anyMatch(weight -> weight < 1)) {
+            throw new IllegalArgumentException("Vote weights have to be at least 1: " + voteWeights);
+        }
+
+        totalVoteWeight = voteWeights.values().stream().mapToInt(Integer::intValue).sum();
+        byzantineVoteWeight = voteWeights.values()
+                .stream()
+                .sorted(Comparator.reverseOrder())
+                .limit(totalByzantineFaultsSupported)
+                .mapToInt(Integer::intValue)
+                .sum();
+
+        if (totalVoteWeight != totalNodes) {
+            log.info("[{}]: Total vote weight is {} of which byzantine nodes may hold {}",
+                    getNodeName(), totalVoteWeight, byzantineVoteWeight);
+        }
+    }
+
+    /**
+     * Returns the no. of byzantine faults Fast Byzantine Paxos supports with the nodes.
+     *
+     * @return No. of byzantine faults
+     */
+    private int getFastByzantineFaultsSupported() {
+        // The formula is (Total no. of members including proposer - 1) / 5 >= Byzantine faults.
+        return (totalNodes - 1) / 5;
     }
 
     /**
      * Calculate number of nodes/responses needed for majority.
      */
     private void calculateMajorityNumber() {
+        // Without byzantine faults more than half of the weight is a majority
+        if (protocolMode == ProtocolMode.CLASSIC) {
+            majorityNumber = totalVoteWeight / 2 + 1;
+            return;
+        }
+
         // As per Fast Byzantine Paxos the formula for majority number is
-        // votes >= (a + 3f + 1) / 2
-        majorityNumber = (int) ((totalNodes + (3 * totalByzantineFaultsSupported) + 1) / 2);
+        // votes >= (a + 3f + 1) / 2, in which votes are weighted
+        majorityNumber = (totalVoteWeight + (3 * getEquivocatingVoteWeight()) + 1) / 2;
+    }
+
+    /**
+     * Returns the weight of the byzantine nodes which may vote for different values in the
+     * intersection of two quorums. There are none in CLASSIC mode, and the trusted counters rule
+     * them out in HYBRID mode, there the quorums only have to intersect like the classic ones.
+     *
+     * @return Weight of the equivocating nodes
+     */
+    private int getEquivocatingVoteWeight() {
+        return isClassicMode() ? 0 : byzantineVoteWeight;
+    }
+
+    /**
+     * Calculate the quorum sizes of the prepare and the accept phase. A phase without
+     * configured quorum uses the majority number. Quorum sizes are vote weights, which are
+     * the no. of nodes unless the weights are configured.
+     * <br>
+     * Configured quorums have to intersect in <code>3f + 1</code> nodes, like the quorums of
+     * Fast Byzantine Paxos do, which reduces to <code>q1 + q2 > N</code> in CLASSIC and HYBRID mode.
+     * A quorum can not be larger than the weight of the other nodes, since no node counts its own
+     * proposal.
+     */
+    private void calculateQuorumSizes() {
+        phaseOneQuorumSize = node.getPhaseOneQuorum() > 0 ? node.getPhaseOneQuorum() : majorityNumber;
+        phaseTwoQuorumSize = node.getPhaseTwoQuorum() > 0 ? node.getPhaseTwoQuorum() : majorityNumber;
+
+        if (node.getPhaseOneQuorum() <= 0 && node.getPhaseTwoQuorum() <= 0 && totalVoteWeight == totalNodes) {
+            return;
+        }
+
+        int otherNodesWeight = totalVoteWeight - getVoteWeight(node.getId());
+        if (phaseOneQuorumSize > otherNodesWeight || phaseTwoQuorumSize > otherNodesWeight) {
+            throw new IllegalArgumentException("Quorum sizes " + phaseOneQuorumSize + " and " + phaseTwoQuorumSize
+                    + " can not exceed the vote weight of the other nodes: " + otherNodesWeight);
+        }
+
+        int minimumSum = totalVoteWeight + (3 * getEquivocatingVoteWeight()) + 1;
+        if (phaseOneQuorumSize + phaseTwoQuorumSize < minimumSum) {
+            throw new IllegalArgumentException("Quorum sizes " + phaseOneQuorumSize + " and " + phaseTwoQuorumSize
+                    + " do not intersect. Their sum has to be at least " + minimumSum);
+        }
+
+        log.info("[{}]: Quorum size of the prepare phase is {} and of the accept phase is {}",
+                getNodeName(), phaseOneQuorumSize, phaseTwoQuorumSize);
+    }
+
+    /**
+     * Resolves the configured {@link ProtocolMode}. In AUTO mode the byzantine pre-rounds
+     * are skipped if no byzantine fault can be supported anyway, or if the council is split
+     * into sub-councils, whose delegates are trusted. A joining node can only join a CLASSIC council,
+     * which stays CLASSIC once it grew large enough for byzantine faults.
+     */
+    private void resolveProtocolMode() {
+        protocolMode = node.getProtocolMode() == null ? ProtocolMode.AUTO : node.getProtocolMode();
+
+        if (protocolMode == ProtocolMode.AUTO) {
+            protocolMode = getFastByzantineFaultsSupported() == 0 || subCouncils != null || commandLog != null || joining
+                    ? ProtocolMode.CLASSIC
+                    : ProtocolMode.FAST_BYZANTINE;
+        }
+
+        // Forwarded votes can only be trusted if the voters authenticated them
+        if (protocolMode == ProtocolMode.LINEAR_BYZANTINE && messageAuthenticator == null) {
+            throw new IllegalArgumentException("Protocol mode " + protocolMode
+                    + " needs a sharedKey of every member to authenticate the votes");
+        }
+
+        // Every member derives every key from the cluster secret, so a byzantine member could forge the others
+        if (protocolMode != ProtocolMode.CLASSIC && messageAuthenticator != null
+                && members.stream().anyMatch(member -> member.getSharedKey() == null)) {
+            throw new IllegalArgumentException("Protocol mode " + protocolMode
+                    + " needs a sharedKey of every member, the keys derived from the clusterSecret are known to all of them");
+        }
+
+        log.info("[{}]: Running in {} protocol mode", getNodeName(), protocolMode);
+    }
+
+    /**
+     * Checks that the configured distinguished learner is a node of the cluster.
+     */
+    private void validateLearner() {
+        int learnerNodeId = node.getLearnerNodeId();
+        if (!node.isDistinguishedLearner() || learnerNodeId == 0) {
+            return;
+        }
+
+        if (learnerNodeId != node.getId() && getMember(learnerNodeId) == null) {
+            throw new IllegalArgumentException("Learner node id " + learnerNodeId + " is not a member");
+        }
+    }
+
+    /**
+     * Checks that the two-level quorums can be used, and raises the quorum of the prepare phase,
+     * so that it intersects every two-level quorum of the accept phase. Delegates are trusted with
+     * the votes of their sub-council, thus only CLASSIC mode without message authentication is
+     * supported, and the other ways of sending the ACCEPT and the ACCEPTED messages are not.
+     */
+    private void validateSubCouncils() {
+        if (subCouncils == null) {
+            return;
+        }
+
+        if (protocolMode != ProtocolMode.CLASSIC || messageAuthenticator != null) {
+            throw new IllegalArgumentException("Sub-councils need CLASSIC protocol mode without message authentication");
+        }
+        if (node.isThrifty() || node.isDistinguishedLearner() || node.getDisseminationFanout() > 0
+                || node.getLeaseDurationMs() > 0) {
+            throw new IllegalArgumentException("Sub-councils can not be combined with thrifty mode, a distinguished "
+                    + "learner, a dissemination tree or leases");
+        }
+
+        int otherNodesWeight = totalVoteWeight - node.getVoteWeight();
+        phaseOneQuorumSize = Math.max(phaseOneQuorumSize, totalVoteWeight - subCouncils.getMinimumQuorumWeight() + 1);
+        if (phaseOneQuorumSize > otherNodesWeight) {
+            throw new IllegalArgumentException("Quorum size of the prepare phase " + phaseOneQuorumSize
+                    + " can not exceed the vote weight of the other nodes: " + otherNodesWeight);
+        }
+
+        log.info("[{}]: Voting in sub-council {} of {}. Quorum size of the prepare phase is {}",
+                getNodeName(), subCouncils.getSubCouncil(), subCouncils.getSubCouncils().size(), phaseOneQuorumSize);
+    }
+
+    /**
+     * Checks that the values can be committed without a leader. The command leaders count their
+     * replies by the no. of nodes, and do not run the byzantine pre-rounds, thus only CLASSIC mode
+     * with equal vote weights is supported, and the other ways of assigning the log slots are not.
+     */
+    private void validateLeaderless() {
+        if (commandLog == null) {
+            return;
+        }
+
+        if (protocolMode != ProtocolMode.CLASSIC || totalVoteWeight != totalNodes) {
+            throw new IllegalArgumentException("Leaderless mode needs CLASSIC protocol mode and equal vote weights");
+        }
+        if (subCouncils != null || slotOwnership != null) {
+            throw new IllegalArgumentException("Leaderless mode can not be combined with sub-councils or slot owners");
+        }
+
+        log.info("[{}]: Committing the client values without a leader, ordered by {}",
+                getNodeName(), node.getConflictKeyFunction());
+    }
+
+    /**
+     * Checks that the observers only learn the values which the voters send to all the members. The
+     * dissemination tree and the sub-councils route the messages through the nodes instead, and the
+     * command leaders and the slot owners have to be voters.
+     */
+    private void validateObservers() {
+        List<Integer> observerNodeIds = new ArrayList<>();
+        if (isObserver()) {
+            observerNodeIds.add(node.getId());
+        }
+        members.stream().filter(Member::isObserver).forEach(member -> observerNodeIds.add(member.getId()));
+
+        if (observerNodeIds.isEmpty()) {
+            return;
+        }
+
+        if (disseminationTree != null || subCouncils != null || commandLog != null) {
+            throw new IllegalArgumentException("Observers can not be combined with a dissemination tree, "
+                    + "sub-councils or leaderless mode");
+        }
+        if (slotOwnership != null && slotOwnership.getOwnerNodeIds().stream().anyMatch(observerNodeIds::contains)) {
+            throw new IllegalArgumentException("Observers can not own log slots: " + observerNodeIds);
+        }
+
+        log.info("[{}]: Observers {} are not counted in the quorums", getNodeName(), observerNodeIds);
+    }
+
+    /**
+     * Checks that a joining node can be added to the council. The node has to be configured in
+     * its own members, the leader learns its host from there.
+     */
+    private void validateJoining() {
+        if (!joining) {
+            return;
+        }
+
+        if (!isReconfigurable()) {
+            throw new IllegalArgumentException("Joining node needs a council which can be reconfigured");
+        }
+        if (node.getHost() == null) {
+            throw new IllegalArgumentException("Joining node has to be configured in its own members");
+        }
+
+        log.info("[{}]: Joining the council once caught up", getNodeName());
+    }
+
+    /**
+     * Checks if the members of the council can be changed at runtime. The crash-fault majorities of
+     * two councils differing in one member intersect only with equal vote weights, so only CLASSIC
+     * mode is supported, and the features deriving their state from the members once are not.
+     * New members derive their keys from the cluster secret.
+     *
+     * @return Is reconfigurable
+     */
+    public boolean isReconfigurable() {
+        return protocolMode == ProtocolMode.CLASSIC && totalVoteWeight == totalNodes
+                && node.getPhaseOneQuorum() <= 0 && node.getPhaseTwoQuorum() <= 0
+                && disseminationTree == null && subCouncils == null && slotOwnership == null && commandLog == null
+                && (messageAuthenticator == null || node.getClusterSecret() != null);
+    }
+
+    /**
+     * Applies the membership change delivered in the log slot, and recomputes the no. of nodes and the
+     * quorum sizes from the new members. The protocol mode is not resolved again, since all the members
+     * would have to switch at the same slot, so the council stays in CLASSIC mode without byzantine
+     * faults and its majority stays <code>N / 2 + 1</code> at any size. The listeners of the log run
+     * on the protocol thread, thus no message is handled with half of the new configuration.
+     *
+     * @param slot Log slot of the change
+     * @param reconfiguration Membership change
+     */
+    private synchronized void applyReconfiguration(long slot, Reconfigure reconfiguration) {
+        int changedNodeId = reconfiguration.getNodeId();
+
+        if (reconfiguration.getChange() == MembershipChange.ADD) {
+            if (changedNodeId == node.getId()) {
+                joining = false;
+            } else if (getMember(changedNodeId) == null) {
+                members.add(createMember(reconfiguration));
+                if (messageAuthenticator != null) {
+                    messageAuthenticator.addPeer(changedNodeId);
+                }
+            }
+
+        } else if (changedNodeId == node.getId()) {
+            removed = true;
+        } else {
+            members.removeIf(member -> member.getId() == changedNodeId);
+            if (messageAuthenticator != null) {
+                messageAuthenticator.removePeer(changedNodeId);
+            }
+        }
+        appliedReconfigurations.add(reconfiguration);
+
+        updateTotalNumberOfNodes();
+        calculateTotalNumberOfByzantineFaultsSupported();
+        calculateVoteWeights();
+        calculateMajorityNumber();
+        calculateQuorumSizes();
+
+        log.info("[{}]: Applied {} of slot {}. Council has {} nodes, majority is {}",
+                getNodeName(), reconfiguration, slot, totalNodes, majorityNumber);
+    }
+
+    /**
+     * Creates the member a node is reached with, which is not in the configured members.
+     *
+     * @param reconfiguration Membership change naming the node and its address
+     * @return Member
+     */
+    public Member createMember(Reconfigure reconfiguration) {
+        Member member = new Member(reconfiguration.getNodeId(), reconfiguration.getName(), 0,
+                reconfiguration.getHost(), reconfiguration.getPort());
+
+        if (node.getGroupId() != null) {
+            member.tagWithGroup(node.getGroupId());
+        }
+        if (messageAuthenticator != null) {
+            member.authenticateWith(messageAuthenticator);
+        }
+        return member;
+    }
+
+    /**
+     * Checks if this node votes in the council and may run for the elections. A joining node becomes
+     * a voting member once its own addition is delivered, a removed one never again.
+     *
+     * @return Is voting member
+     */
+    public boolean isVotingMember() {
+        return !joining && !removed;
+    }
+
+    /**
+     * Returns the host the other nodes reach this node at.
+     *
+     * @return Host or null if not configured
+     */
+    public String getHost() {
+        return node.getHost();
+    }
+
+    /**
+     * Checks if the node is catching up to join the council.
+     *
+     * @return Is joining
+     */
+    public boolean isJoining() {
+        return joining;
+    }
+
+    /**
+     * Checks if the members skip the byzantine pre-rounds, which they do in HYBRID mode as well.
+     *
+     * @return Is classic mode
+     */
+    public boolean isClassicMode() {
+        return protocolMode == ProtocolMode.CLASSIC || protocolMode == ProtocolMode.HYBRID;
+    }
+
+    /**
+     * Checks if the pre-round votes are collected by the proposer instead of being broadcast.
+     *
+     * @return Is linear mode
+     */
+    public boolean isLinearMode() {
+        return protocolMode == ProtocolMode.LINEAR_BYZANTINE;
+    }
+
+    /**
+     * Checks if the ACCEPTED messages are sent to a single learner, which announces the decisions.
+     *
+     * @return Is distinguished learner mode
+     */
+    public boolean isDistinguishedLearner() {
+        return node.isDistinguishedLearner();
+    }
+
+    /**
+     * Returns the node id of the distinguished learner, which is the leader unless configured.
+     *
+     * @return Node id of the learner or -1 if the leader is not known
+     */
+    public int getLearnerNodeId() {
+        return node.getLearnerNodeId() == 0 ? getLeaderNodeId() : node.getLearnerNodeId();
     }
 
     /**
@@ -124,6 +1027,39 @@ public class Context {
         return this.majorityNumber;
     }
 
+    /**
+     * Returns the vote weight of the responses needed in the given phase, which is
+     * the no. of responses unless vote weights are configured.
+     *
+     * @param phase Phase of the protocol
+     * @return Quorum size
+     */
+    public int getQuorumSize(Phase phase) {
+        return phase == Phase.PREPARE ? phaseOneQuorumSize : phaseTwoQuorumSize;
+    }
+
+    /**
+     * Returns the weight of the lease grants the leader needs from the members. A competing proposer
+     * needs promises of weight {@link #phaseOneQuorumSize} from the other nodes, which is impossible once
+     * more than <code>totalVoteWeight - phaseOneQuorumSize</code> of the weight refuses it, counting the
+     * leader itself. Byzantine members may grant and promise anyway, so their weight is not counted.
+     *
+     * @return Weight of the grants needed
+     */
+    public int getLeaseQuorumSize() {
+        return Math.max(1, totalVoteWeight - phaseOneQuorumSize + byzantineVoteWeight);
+    }
+
+    /**
+     * Returns the weight of the votes of the node.
+     *
+     * @param nodeId Node id
+     * @return Vote weight, 0 for an unknown node
+     */
+    public int getVoteWeight(int nodeId) {
+        return voteWeights.getOrDefault(nodeId, 0);
+    }
+
     /**
      * Returns list of all members.
      *
@@ -133,13 +1069,55 @@ public class Context {
         return members;
     }
 
+    /**
+     * Returns the members which vote, all the members but the observers.
+     *
+     * @return List of voting members
+     */
+    public List<Member> getVoters() {
+        return members.stream().filter(member -> !member.isObserver()).toList();
+    }
+
+    /**
+     * Checks if this node is an observer, which learns the decided values but never votes.
+     *
+     * @return Is observer
+     */
+    public boolean isObserver() {
+        return node.getProfile() == Profile.OBSERVER;
+    }
+
+    /**
+     * Returns the member with the given node id.
+     *
+     * @param nodeId Node id of the member
+     * @return Member or null if no such member is configured
+     */
+    public Member getMember(int nodeId) {
+        for (Member member : members) {
+            if (member.getId() == nodeId) {
+                return member;
+            }
+        }
+        return null;
+    }
+
     /**
      * Returns the name of the current node.
      *
      * @return Name of the current node
      */
     public String getNodeName() {
-        return node.getName();
+        return node.getGroupId() == null ? node.getName() : node.getName() + "@" + node.getGroupId();
+    }
+
+    /**
+     * Returns the group id of the council of the current node.
+     *
+     * @return Group id or null for a single council
+     */
+    public String getGroupId() {
+        return node.getGroupId();
     }
 
     /**
@@ -151,6 +1129,24 @@ public class Context {
         return node.getId();
     }
 
+    /**
+     * Returns the configured rank of the current node.
+     *
+     * @return Rank of the current node
+     */
+    public int getRank() {
+        return node.getRank();
+    }
+
+    /**
+     * Checks if the current node takes part in elections.
+     *
+     * @return Is candidate
+     */
+    public boolean isCandidate() {
+        return node.getProfile() == Profile.CANDIDATE;
+    }
+
     /**
      * Sets the {@link #monitoringService}.
      */
@@ -174,6 +1170,15 @@ public class Context {
         this.server = server;
     }
 
+    /**
+     * Sets the {@link #messageListener}, which is run after every queued message.
+     *
+     * @param messageListener Message listener
+     */
+    public void setMessageListener(Runnable messageListener) {
+        this.messageListener = messageListener;
+    }
+
     /**
      * Puts heartbeat messages into blocking queue.
      *
@@ -182,18 +1187,24 @@ public class Context {
      */
     public void putHeartBeatMessages(String heartBeat) throws InterruptedException, JsonProcessingException {
         HeartBeat hb = mapper.readValue(heartBeat, HeartBeat.class);
+
+        // Lease requests and grants are time bound, thus handled right away
+        if (monitoringService != null) {
+            monitoringService.handleLeaseHeartBeat(hb);
+        }
         this.heartBeatMessages.put(hb);
     }
 
     /**
-     * Returns collection of heartbeat messages.
+     * Returns collection of heartbeat messages received since the last poll.
      *
      * @return List of heartbeat messages.
      */
     public List<HeartBeat> pollHeartBeatMessage() {
         if (!heartBeatMessages.isEmpty()) {
-            return heartBeatMessages.stream()
-                    .toList();
+            List<HeartBeat> messages = new ArrayList<>();
+            heartBeatMessages.drainTo(messages);
+            return messages;
         }
         return Collections.emptyList();
     }
@@ -215,15 +1226,22 @@ public class Context {
      */
     public void putIncomingMessageToQueue(String incomingMessage) throws InterruptedException {
         receivedMessages.put(incomingMessage);
+
+        if (messageListener != null) {
+            messageListener.run();
+        }
     }
 
     /**
-     * Saves given prepare message
+     * Saves given prepare message, and appends it to the write-ahead log if there is one
      *
      * @param prepareMessageNumber message id
      * @param prepare Prepare message
      */
     public void savePrepareMessage(Long prepareMessageNumber, Prepare prepare) {
+        if (writeAheadLog != null) {
+            writeAheadLog.append(WriteAheadLog.Record.promise(prepare));
+        }
         receivedPrepareMessages.put(prepareMessageNumber, prepare);
 
         lastPrepareMessageId = prepareMessageNumber;
@@ -231,85 +1249,64 @@ public class Context {
     }
 
     /**
-     * Increment no. of votes received for the message id
+     * Records the vote of the member for the value of the election in the term. Votes are counted
+     * once per member and per digest of the value, so neither a repeated message nor a lying member
+     * can complete the quorum for another value.
      *
      * @param prepareMessageNumber message id
+     * @param responderNodeId Node id of the voter
+     * @param digest Digest of the value voted for
+     * @return Whether this vote decided the value
      */
-    public void incrementVotesForPrepare(Long prepareMessageNumber) {
-
-        if (!votesPerPrepare.containsKey(prepareMessageNumber)) {
-            votesPerPrepare.put(prepareMessageNumber, 0);
-        }
-
-
-        Integer currentVotes = votesPerPrepare.get(prepareMessageNumber);
+    public boolean incrementVotesForPrepare(Long prepareMessageNumber, int responderNodeId, String digest) {
+        InstanceKey key = new InstanceKey(prepareMessageNumber, 0, digest);
+        votesPerPrepare.record(key, responderNodeId);
 
-        currentVotes = currentVotes == null ? 0 : currentVotes;
-
-        log.info("[{}]: Incrementing votes for prepare id: {} to {}",
+        log.info("[{}]: Votes for prepare id: {} are {}",
                 node.getName(),
                 prepareMessageNumber,
-                currentVotes + 1);
-        votesPerPrepare.replace(prepareMessageNumber, currentVotes + 1);
-    }
-
-    /**
-     * Get current votes for the message id.
-     *
-     * @param prepareMessageNumber message id
-     * @return no. of votes
-     */
-    public int getCurrentVotes(Long prepareMessageNumber) {
-        Integer currentVotes = votesPerPrepare.get(prepareMessageNumber);
+                votesPerPrepare.weight(key));
 
-        currentVotes = currentVotes == null ? 0 : currentVotes;
-        return currentVotes;
+        if (decidedPrepares.containsKey(prepareMessageNumber) || !votesPerPrepare.hasQuorum(key, phaseTwoQuorumSize)) {
+            return false;
+        }
+        decidedPrepares.put(prepareMessageNumber, digest);
+        return true;
     }
 
     /**
-     * Checks if majority votes received.
+     * Checks if majority votes received for one value.
      *
      * @param prepareMessageNumber message id
      * @return if majority votes received
      */
     public boolean isMajorityVotesReceived(Long prepareMessageNumber) {
-        int currentVotes = getCurrentVotes(prepareMessageNumber);
-        return currentVotes >= majorityNumber;
+        return decidedPrepares.containsKey(prepareMessageNumber);
     }
 
     /**
-     * Increment no. of promises received.
+     * Records the promise of the member, once per member.
      *
      * @param prepareMessageNumber message id
+     * @param responderNodeId Node id of the member which promised
      */
-    public void incrementPromisesForPrepare(Long prepareMessageNumber) {
+    public void incrementPromisesForPrepare(Long prepareMessageNumber, int responderNodeId) {
+        promisesPerPrepare.record(prepareMessageNumber, responderNodeId);
 
-        if (!promisesPerPrepare.containsKey(prepareMessageNumber)) {
-            promisesPerPrepare.put(prepareMessageNumber, 0);
-        }
-
-        Integer promises = promisesPerPrepare.get(prepareMessageNumber);
-
-        promises = promises == null ? 0 : promises;
-
-        log.info("[{}]: Incrementing promises for prepare id: {} to {}",
+        log.info("[{}]: Promises for prepare id: {} are {}",
                 node.getName(),
                 prepareMessageNumber,
-                promises + 1);
-        promisesPerPrepare.replace(prepareMessageNumber, promises + 1);
+                promisesPerPrepare.weight(prepareMessageNumber));
     }
 
     /**
-     * Get no. of promises received.
+     * Get weight of the promises received.
      *
      * @param prepareMessageNumber message id
-     * @return no. of promises received
+     * @return weight of the promises received
      */
     public int getCurrentNoOfPromises(Long prepareMessageNumber) {
-        Integer currentNumberOfPromises = promisesPerPrepare.get(prepareMessageNumber);
-
-        currentNumberOfPromises = currentNumberOfPromises == null ? 0 : currentNumberOfPromises;
-        return currentNumberOfPromises;
+        return promisesPerPrepare.weight(prepareMessageNumber);
     }
 
     /**
@@ -320,7 +1317,7 @@ public class Context {
      */
     public boolean isMajorityPromisesReceived(Long prepareMessageNumber) {
         int currentNumberOfPromises = getCurrentNoOfPromises(prepareMessageNumber);
-        return currentNumberOfPromises >= majorityNumber;
+        return currentNumberOfPromises >= phaseOneQuorumSize;
     }
 
     /**
@@ -413,6 +1410,209 @@ public class Context {
         return state;
     }
 
+    /**
+     * Returns the replicated log holding the per-slot state.
+     *
+     * @return Replicated log
+     */
+    public ReplicatedLog getReplicatedLog() {
+        return replicatedLog;
+    }
+
+    /**
+     * Get configured no. of slots the leader keeps in flight.
+     *
+     * @return Pipeline window
+     */
+    public int getPipelineWindow() {
+        return node.getPipelineWindow();
+    }
+
+    /**
+     * Get configured max no. of client values in a batch.
+     *
+     * @return Max batch size
+     */
+    public int getMaxBatchSize() {
+        return node.getMaxBatchSize();
+    }
+
+    /**
+     * Get configured max no. of bytes of the client values in a batch.
+     *
+     * @return Max batch bytes
+     */
+    public int getMaxBatchBytes() {
+        return node.getMaxBatchBytes();
+    }
+
+    /**
+     * Get configured time in ms an incomplete batch waits for more values.
+     *
+     * @return Batch linger time
+     */
+    public int getBatchLingerMs() {
+        return node.getBatchLingerMs();
+    }
+
+    /**
+     * Returns the metrics of the current node.
+     *
+     * @return Metrics
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the leader lease of the current node.
+     *
+     * @return Leader lease
+     */
+    public LeaderLease getLeaderLease() {
+        return leaderLease;
+    }
+
+    /**
+     * Checks if the accept-phase messages are sent only to a quorum of the members.
+     *
+     * @return Is thrifty
+     */
+    public boolean isThrifty() {
+        return node.isThrifty();
+    }
+
+    /**
+     * Checks if the ACCEPTED messages for a log slot go only to the thrifty quorum of its ACCEPT message
+     * and the leader, which announces the decision to the other members in a DECIDED message. The members
+     * can only trust the announced decision without byzantine faults, or if the votes in it are authenticated.
+     *
+     * @return Is thrifty ACCEPTED
+     */
+    public boolean isThriftyAccepted() {
+        return node.isThrifty() && !node.isDistinguishedLearner()
+                && (protocolMode == ProtocolMode.CLASSIC || messageAuthenticator != null);
+    }
+
+    /**
+     * Get configured time in ms the thrifty quorum gets to respond before the messages
+     * are sent to all the members.
+     *
+     * @return Thrifty timeout
+     */
+    public int getThriftyTimeoutMs() {
+        return node.getThriftyTimeoutMs();
+    }
+
+    /**
+     * Get configured time in ms the first election round gets before it is retried.
+     *
+     * @return Election backoff
+     */
+    public int getElectionBackoffMs() {
+        return node.getElectionBackoffMs();
+    }
+
+    /**
+     * Returns the selector ranking the members for thrifty quorums.
+     *
+     * @return Peer selector
+     */
+    public PeerSelector getPeerSelector() {
+        return peerSelector;
+    }
+
+    /**
+     * Returns the ranks of the candidates, as announced in their heartbeats.
+     *
+     * @return Election priority
+     */
+    public ElectionPriority getElectionPriority() {
+        return electionPriority;
+    }
+
+    /**
+     * Returns the tree the DECIDED messages and the log entries are relayed along.
+     *
+     * @return Dissemination tree or null if the messages are sent directly
+     */
+    public DisseminationTree getDisseminationTree() {
+        return disseminationTree;
+    }
+
+    /**
+     * Returns the sub-councils the log entries are voted on in.
+     *
+     * @return Sub-councils or null for a flat council
+     */
+    public SubCouncils getSubCouncils() {
+        return subCouncils;
+    }
+
+    /**
+     * Returns the assignment of the log slots to their owners.
+     *
+     * @return Slot ownership or null if the leader proposes all the slots
+     */
+    public SlotOwnership getSlotOwnership() {
+        return slotOwnership;
+    }
+
+    /**
+     * Returns the instances of the commands committed without a leader.
+     *
+     * @return Command log or null if the leader commits the values
+     */
+    public CommandLog getCommandLog() {
+        return commandLog;
+    }
+
+    /**
+     * Returns the node id of the proposer of the last promised PREPARE message.
+     *
+     * @return Node id of the leader or -1 if not known
+     */
+    public int getLeaderNodeId() {
+        Prepare lastPrepareMessage = getLastPrepareMessage();
+        return lastPrepareMessage == null ? -1 : lastPrepareMessage.getProposerNodeId();
+    }
+
+    /**
+     * Reads the current decision, locally on observers, and under the lease of the leader otherwise.
+     *
+     * @return Read response
+     */
+    public ReadResponse read() {
+        return isObserver() ? readLocal() : readLinearizable();
+    }
+
+    /**
+     * Reads the decision this node delivered so far, without a lease. The read may lag behind the
+     * council, the client tells how far from the applied slot of the response.
+     *
+     * @return Read response
+     */
+    private ReadResponse readLocal() {
+        return new ReadResponse(true, state, replicatedLog.getNextDeliverySlot() - 1, getLeaderNodeId());
+    }
+
+    /**
+     * Reads the current decision locally. The read is served only if this node holds a
+     * valid lease and every slot it proposed is delivered, which makes the read linearizable
+     * without running another round of consensus.
+     *
+     * @return Read response
+     */
+    public ReadResponse readLinearizable() {
+        boolean served = leaderLease.isValid(getLeaseQuorumSize())
+                && replicatedLog.getNextDeliverySlot() > leaderLease.getReadIndex();
+
+        if (!served) {
+            return new ReadResponse(false, null, 0, getLeaderNodeId());
+        }
+        return new ReadResponse(true, state, replicatedLog.getNextDeliverySlot() - 1, getNodeId());
+    }
+
     /**
      * Get configured initial delay for initiating election
      *
@@ -0,0 +1,18 @@
+package com.suburbs.council.election.paxos;
+
+import com.suburbs.council.election.messages.Proposal;
+
+/**
+ * Receives the decided log slots, strictly in slot order.
+ */
+@FunctionalInterface
+public interface DecisionListener {
+
+    /**
+     * Invoked once per decided slot.
+     *
+     * @param slot Decided slot
+     * @param proposal Decided value
+     */
+    void onDecision(long slot, Proposal proposal);
+}
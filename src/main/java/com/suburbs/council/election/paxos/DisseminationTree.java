@@ -0,0 +1,79 @@
+package com.suburbs.council.election.paxos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * DisseminationTree derives a k-ary tree of the nodes, rooted at the sender of a message,
+ * so that the sender only sends the message to its children and every interior node
+ * forwards it to its own children. A fanout of 1 makes a chain.
+ * <br>
+ * The nodes are ordered by their node id, starting from the root and wrapping around, thus
+ * every node derives the same tree without any coordination, and the interior positions
+ * differ from root to root. A child which is suspected to have failed is skipped, and its
+ * children are adopted by its parent.
+ */
+public class DisseminationTree {
+
+    private final int nodeId;
+    private final int fanout;
+    private final List<Integer> nodeIds;
+    private final IntPredicate suspected;
+
+    /**
+     * Constructor.
+     *
+     * @param nodeId Node id of the current node
+     * @param nodeIds Node ids of all the nodes, including the current node
+     * @param fanout Max no. of children of a node
+     * @param suspected Checks if the node with the given id is suspected to have failed
+     */
+    public DisseminationTree(int nodeId, List<Integer> nodeIds, int fanout, IntPredicate suspected) {
+        this.nodeId = nodeId;
+        this.fanout = fanout;
+        this.nodeIds = nodeIds.stream().sorted().toList();
+        this.suspected = suspected;
+    }
+
+    /**
+     * Returns the node ids this node sends or forwards the message of the root to.
+     *
+     * @param rootNodeId Node id of the sender of the message
+     * @return Node ids of the children, empty for a leaf
+     */
+    public List<Integer> getChildren(int rootNodeId) {
+        int rootIndex = nodeIds.indexOf(rootNodeId);
+        int ownIndex = nodeIds.indexOf(nodeId);
+        List<Integer> children = new ArrayList<>();
+        if (rootIndex < 0 || ownIndex < 0) {
+            return children;
+        }
+
+        int position = Math.floorMod(ownIndex - rootIndex, nodeIds.size());
+        addChildren(rootIndex, position, children);
+        return children;
+    }
+
+    /**
+     * Adds the children of the position, replacing the suspected ones by their own children.
+     *
+     * @param rootIndex Index of the root in the ordered node ids
+     * @param position Position in the tree, 0 for the root
+     * @param children Node ids collected so far
+     */
+    private void addChildren(int rootIndex, int position, List<Integer> children) {
+        for (int child = fanout * position + 1; child <= fanout * position + fanout; child++) {
+            if (child >= nodeIds.size()) {
+                return;
+            }
+
+            int childNodeId = nodeIds.get((rootIndex + child) % nodeIds.size());
+            if (suspected.test(childNodeId)) {
+                addChildren(rootIndex, child, children);
+            } else {
+                children.add(childNodeId);
+            }
+        }
+    }
+}
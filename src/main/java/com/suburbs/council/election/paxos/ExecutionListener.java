@@ -0,0 +1,18 @@
+package com.suburbs.council.election.paxos;
+
+import com.suburbs.council.election.messages.Command;
+
+/**
+ * Receives the commands executed in leaderless mode. Conflicting commands are received
+ * in the same order on every member.
+ */
+@FunctionalInterface
+public interface ExecutionListener {
+
+    /**
+     * Invoked once per executed command.
+     *
+     * @param command Executed command
+     */
+    void onExecution(Command command);
+}
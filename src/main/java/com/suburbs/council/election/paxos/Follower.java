@@ -1,13 +1,22 @@
 package com.suburbs.council.election.paxos;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.suburbs.council.election.Member;
+import com.suburbs.council.election.enums.MembershipChange;
+import com.suburbs.council.election.enums.Phase;
 import com.suburbs.council.election.enums.ResponseTiming;
 import com.suburbs.council.election.messages.*;
 import com.suburbs.council.election.utils.PaxosUtils;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.function.Predicate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,16 +27,49 @@ import org.slf4j.LoggerFactory;
 public class Follower extends PaxosMember {
     private static final Logger log = LoggerFactory.getLogger(Follower.class);
 
+    // Interval of the requests for missing log slots, and the max no. of slots transferred at once
+    private static final long STATE_REQUEST_INTERVAL_MS = 1000L;
+    private static final int MAX_TRANSFERRED_SLOTS = 1000;
+
     private final Context context;
-    private final int majorityNumber;
     private final ResponseTiming responseTiming;
     private final BlockingQueue<String> receivedMessages;
     private final Map<Long, Prepare> savedPrepareMessages;
-    private final Map<Long, Integer> numberOfPrePromiseMessages;
-    private final Map<Long, Integer> numberOfPreAcceptMessages;
+    private final Map<Long, String> savedPrepareDigests;
+    private final Map<InstanceKey, String> acceptedDigests;
+    private final QuorumTracker<InstanceKey> prePromiseVotes;
+    private final QuorumTracker<InstanceKey> preAcceptedVotes;
 
     private final Map<Long, Boolean> dispatchedPromiseMessages;
-    private final Map<Long, Boolean> dispatchedAcceptedMessages;
+    private final Map<InstanceKey, Boolean> dispatchedAcceptedMessages;
+    private final Map<InstanceKey, Long> leaseRequestTimestamps;
+    private final Map<InstanceKey, Long> dispatchTimestamps;
+
+    // Certificates received before the PREPARE or ACCEPT message they certify
+    private final Map<Long, QuorumCertificate> pendingPrePromiseCertificates;
+    private final Map<InstanceKey, QuorumCertificate> pendingPreAcceptedCertificates;
+
+    // ACCEPTED votes counted by the distinguished learner per term, slot and digest
+    private final CertificateCollector learnedVotes;
+
+    // Terms and slots of the messages this node already relayed along the dissemination tree
+    private final Set<InstanceKey> relayedAcceptMessages;
+    private final Set<InstanceKey> relayedDecidedMessages;
+
+    // Votes of the own sub-council collected as its delegate, and the voters of all the sub-councils
+    // collected as the leader, per term and slot
+    private final CertificateCollector subCouncilVotes;
+    private final Map<InstanceKey, Set<Integer>> subCouncilVoters;
+
+    // Delegates this node sent its vote to per term and slot
+    private final Map<InstanceKey, Set<Integer>> voteDelegates;
+
+    // Commits the client values of this node without a leader, null if the leader commits them
+    private final CommandCoordinator commandCoordinator;
+
+    // Time of the last request for missing log slots, and the first missing slot back then
+    private long lastStateRequestTime;
+    private long lastStateRequestSlot;
 
     /**
      * Constructor.
@@ -36,23 +78,35 @@ public class Follower extends PaxosMember {
      */
     public Follower(Context context) {
         this.context = context;
-        this.majorityNumber = context.getMajorityNumber();
         this.receivedMessages = context.getReceivedMessages();
         this.responseTiming = context.getResponseTiming();
 
         this.savedPrepareMessages = new HashMap<>();
-        this.numberOfPrePromiseMessages = new HashMap<>();
-        this.numberOfPreAcceptMessages = new HashMap<>();
+        this.savedPrepareDigests = new HashMap<>();
+        this.acceptedDigests = new HashMap<>();
+        this.prePromiseVotes = new QuorumTracker<>(context::getVoteWeight);
+        this.preAcceptedVotes = new QuorumTracker<>(context::getVoteWeight);
 
         this.dispatchedPromiseMessages = new HashMap<>();
         this.dispatchedAcceptedMessages = new HashMap<>();
+        this.leaseRequestTimestamps = new HashMap<>();
+        this.dispatchTimestamps = new HashMap<>();
+        this.pendingPrePromiseCertificates = new HashMap<>();
+        this.pendingPreAcceptedCertificates = new HashMap<>();
+        this.learnedVotes = new CertificateCollector(context::getVoteWeight);
+        this.relayedAcceptMessages = new HashSet<>();
+        this.relayedDecidedMessages = new HashSet<>();
+        this.subCouncilVotes = new CertificateCollector(context::getVoteWeight);
+        this.subCouncilVoters = new HashMap<>();
+        this.voteDelegates = new HashMap<>();
+        this.commandCoordinator = context.getCommandLog() == null ? null : new CommandCoordinator(context);
     }
 
     @Override
-    public void run() {
-        while (!Thread.interrupted()) {
-            handleRequests();
-        }
+    public void tick() {
+        handleRequests();
+        tickCommands();
+        requestMissingState();
     }
 
     /**
@@ -79,19 +133,103 @@ public class Follower extends PaxosMember {
                 }
 
                 // Dispatch the messages to their handlers
-                switch (messageType) {
-                    case PREPARE -> handlePrepareMessage(message);
-                    case ACCEPT -> handleAcceptMessage(message);
-                    case ACCEPTED -> handleAcceptedMessage(message);
-                    case PREPROMISE -> handlePrePromiseMessage(message);
-                    case PREACCEPTED -> handlePreAcceptedMessage(message);
-                }
+                dispatchMessage(messageType, message);
 
             } catch (Exception e) {
                 log.error("[{}]: Error handling message with exception: {}",
                         context.getNodeName(), e.getMessage());
             }
         }
+
+        // One fsync makes the state of all the handled messages durable before their responses are sent
+        try {
+            context.syncWriteAheadLog();
+
+        } catch (UncheckedIOException e) {
+            log.error("[{}]: Error syncing write-ahead log with exception: {}", context.getNodeName(), e.getMessage());
+        }
+
+        compactDurableSnapshots();
+    }
+
+    /**
+     * Truncates the state covered by the snapshots written since the last pass: the log slots up to
+     * the slot of the snapshot, and the election state of the terms older than the promised one.
+     */
+    private void compactDurableSnapshots() {
+        Snapshot snapshot;
+        while ((snapshot = context.pollDurableSnapshot()) != null) {
+            long snapshotSlot = snapshot.getSlot();
+            long prepareMessageId = context.getLastPrepareMessageId();
+            try {
+                context.compact(snapshot);
+
+            } catch (UncheckedIOException e) {
+                log.error("[{}]: Error compacting write-ahead log with exception: {}",
+                        context.getNodeName(), e.getMessage());
+            }
+
+            compact(key -> key.getSlot() >= ReplicatedLog.FIRST_SLOT
+                    ? key.getSlot() <= snapshotSlot
+                    : key.getPrepareMessageId() < prepareMessageId, snapshotSlot, prepareMessageId);
+        }
+    }
+
+    /**
+     * Drops the votes, certificates and dispatch marks covered by a durable snapshot.
+     *
+     * @param covered Matches the terms and slots covered by the snapshot
+     * @param snapshotSlot Last slot of the snapshot
+     * @param prepareMessageId Promised term, the older terms are dropped
+     */
+    protected void compact(Predicate<InstanceKey> covered, long snapshotSlot, long prepareMessageId) {
+        acceptedDigests.keySet().removeIf(covered);
+        prePromiseVotes.removeIf(covered);
+        preAcceptedVotes.removeIf(covered);
+        dispatchedAcceptedMessages.keySet().removeIf(covered);
+        leaseRequestTimestamps.keySet().removeIf(covered);
+        dispatchTimestamps.keySet().removeIf(covered);
+        pendingPreAcceptedCertificates.keySet().removeIf(covered);
+        learnedVotes.removeIf(covered);
+        relayedAcceptMessages.removeIf(covered);
+        relayedDecidedMessages.removeIf(covered);
+        subCouncilVotes.removeIf(covered);
+        subCouncilVoters.keySet().removeIf(covered);
+        voteDelegates.keySet().removeIf(covered);
+
+        savedPrepareMessages.keySet().removeIf(id -> id < prepareMessageId);
+        savedPrepareDigests.keySet().removeIf(id -> id < prepareMessageId);
+        dispatchedPromiseMessages.keySet().removeIf(id -> id < prepareMessageId);
+        pendingPrePromiseCertificates.keySet().removeIf(id -> id < prepareMessageId);
+    }
+
+    /**
+     * Dispatches the message to its handler.
+     *
+     * @param messageType Type of the message
+     * @param message Message
+     * @throws IOException Throws if encounters any error while handling the message
+     */
+    protected void dispatchMessage(Message.Type messageType, String message) throws IOException {
+        switch (messageType) {
+            case PREPARE -> handlePrepareMessage(message);
+            case ACCEPT -> handleAcceptMessage(message);
+            case ACCEPTED -> handleAcceptedMessage(message);
+            case PREPROMISE -> handlePrePromiseMessage(message);
+            case PREACCEPTED -> handlePreAcceptedMessage(message);
+            case QUORUM_CERTIFICATE -> handleQuorumCertificate(message);
+            case DECIDED -> handleDecidedMessage(message);
+            case SUBCOUNCIL_ACCEPTED -> handleSubCouncilAcceptedMessage(message);
+            case CLIENT_REQUEST -> handleClientRequest(message);
+            case RECONFIGURE -> handleReconfigure(message);
+            case STATE_REQUEST -> handleStateRequest(message);
+            case STATE_TRANSFER -> handleStateTransfer(message);
+            case COMMAND_PREACCEPT, COMMAND_PREACCEPT_OK, COMMAND_ACCEPT, COMMAND_ACCEPT_OK, COMMAND_COMMIT -> {
+                if (commandCoordinator != null) {
+                    commandCoordinator.handleMessage(messageType, message);
+                }
+            }
+        }
     }
 
     /**
@@ -127,12 +265,22 @@ public class Follower extends PaxosMember {
         log.info("[{}]: Received prepare message from member: {} with id: {}",
                 context.getNodeName(), prepare.getProposerNodeName(), prepare.getNewPrepareMessageId());
 
+        if (!isVotingFor(prepare.getProposerNodeId())) {
+            log.info("[{}]: Member: {} or this node is not in the council. Ignoring PREPARE message",
+                    context.getNodeName(), prepare.getProposerNodeName());
+            return;
+        }
+
         long prepareMessageId = PaxosUtils.parsePrepareNumer(
                 prepare.getNewPrepareMessageId()
         );
 
+        // A thrifty proposer sends the PREPARE message again to all the members if its quorum
+        // does not respond in time. If this node already promised it, it only joins the PREPROMISE round.
+        boolean promised = prepare.getNewPrepareMessageId().equals(context.getLastPrepareMessageIdWithNodeId());
+
         // Check if higher prepare message ids are already processed
-        if (!isHighestPrepareMessageId(prepareMessageId)) {
+        if (!promised && !isHighestPrepareMessageId(prepareMessageId)) {
             // Since it is lower than the already existing message id
             // send a REJECT message.
 
@@ -146,18 +294,66 @@ public class Follower extends PaxosMember {
             return;
         }
 
-        // Byzantine algo comes to effect. Broadcast PrePromise messages.
+        // While the lease granted to another leader is valid, competing PREPARE messages are refused
+        if (!promised && isRefusedByLease(prepare.getProposerNodeId(), prepare.getNewPrepareMessageId())) {
+            return;
+        }
+
+        // Without byzantine faults to tolerate the PREPARE message is promised right away
+        if (context.isClassicMode()) {
+            this.savedPrepareMessages
+                    .put(prepareMessageId, prepare);
+
+            dispatchPromise(prepareMessageId, prepare.getNewPrepareMessageId(), prepare.getProposerNodeId());
+            return;
+        }
+
+        // In linear mode the vote goes to the proposer only, which certifies a quorum of the votes
+        if (context.isLinearMode()) {
+            String digest = PaxosUtils.digest(prepare.getNewPrepareMessageId(), 0, prepare.getProposal());
+            this.savedPrepareDigests.put(prepareMessageId, digest);
+            this.savedPrepareMessages
+                    .put(prepareMessageId, prepare);
+
+            PrePromise prePromise = new PrePromise(context, prepare.getNewPrepareMessageId(),
+                    prepare.getProposerNodeId(), digest);
+            prePromise.setAuthenticators(context.getMessageAuthenticator()
+                    .authenticateVote(Phase.PREPARE, prepare.getNewPrepareMessageId(), 0, digest));
+
+            dispatchVoteToProposer(prepare.getProposerNodeId(), prePromise, prepare.getNewPrepareMessageId());
+
+            QuorumCertificate certificate = this.pendingPrePromiseCertificates.remove(prepareMessageId);
+            if (certificate != null) {
+                applyQuorumCertificate(certificate);
+            }
+            return;
+        }
+
+        // Byzantine algo comes to effect. Broadcast PrePromise messages. In thrifty mode
+        // only the members of the proposer's quorum broadcast, the others just listen.
+        Prepare savedPrepare = this.savedPrepareMessages.get(prepareMessageId);
+        boolean alreadyBroadcast = savedPrepare != null
+                && isQuorumMember(savedPrepare.getQuorumMemberIds(), context.getNodeId());
 
-        PrePromise prePromise = new PrePromise(context, prepare.getNewPrepareMessageId(),
-                prepare.getProposerNodeId(), prepare.getProposal());
+        // The pre-round carries only the digest of the PREPARE message
+        String digest = PaxosUtils.digest(prepare.getNewPrepareMessageId(), 0, prepare.getProposal());
+        this.savedPrepareDigests.put(prepareMessageId, digest);
 
-        incrementValue(this.numberOfPrePromiseMessages, prepareMessageId, Message.Type.PREPROMISE,
+        recordPrePromise(new InstanceKey(prepareMessageId, 0, digest), context.getNodeId(),
                 prepare.getNewPrepareMessageId());
 
-        broadcastPrePromiseMessage(prePromise);
+        if (!alreadyBroadcast && isQuorumMember(prepare.getQuorumMemberIds(), context.getNodeId())) {
+            PrePromise prePromise = new PrePromise(context, prepare.getNewPrepareMessageId(),
+                    prepare.getProposerNodeId(), digest);
+
+            broadcastPrePromiseMessage(prePromise);
+        }
 
         this.savedPrepareMessages
                 .put(prepareMessageId, prepare);
+
+        // PREPROMISE messages of the other members may have arrived before this PREPARE
+        dispatchPromiseIfMajority(prepareMessageId, prepare.getNewPrepareMessageId(), prepare.getProposerNodeId());
     }
 
     /**
@@ -214,6 +410,30 @@ public class Follower extends PaxosMember {
                 });
     }
 
+    /**
+     * Dispatches a {@link PrePromise} or {@link PreAccepted} vote to the Proposer.
+     *
+     * @param proposerNodeId Node id of the Proposer
+     * @param vote Vote to dispatch
+     * @param prepareMessageId Formatted identifier of the PREPARE message
+     */
+    private void dispatchVoteToProposer(int proposerNodeId, Message vote, String prepareMessageId) {
+        Member proposer = context.getMember(proposerNodeId);
+        if (proposer == null) {
+            return;
+        }
+        try {
+            log.info("[{}]: Dispatching {} message to {} for id: {}",
+                    context.getNodeName(), vote.getMessageType(), proposer.getName(), prepareMessageId);
+
+            PaxosUtils.dispatch(proposer, vote);
+
+        } catch (IOException e) {
+            log.error("[{}]: Error dispatching {} message for prepare message id: {}",
+                    context.getNodeName(), vote.getMessageType(), prepareMessageId);
+        }
+    }
+
     /**
      * Handles {@link Accept} message from Proposer.
      *
@@ -225,10 +445,35 @@ public class Follower extends PaxosMember {
         log.info("[{}]: Received accept message from member: {} for id: {}",
                 context.getNodeName(), accept.getProposerNodeName(), accept.getPrepareMessageId());
 
+        if (!isVotingFor(accept.getProposerNodeId())) {
+            log.info("[{}]: Member: {} or this node is not in the council. Ignoring ACCEPT message",
+                    context.getNodeName(), accept.getProposerNodeName());
+            return;
+        }
+
+        if (!isAttested(accept)) {
+            log.info("[{}]: ACCEPT message from member: {} for slot: {} is not attested. Ignoring it",
+                    context.getNodeName(), accept.getProposerNodeName(), accept.getSlot());
+            return;
+        }
+
         long receivedPrepareMessageId = PaxosUtils.parsePrepareNumer(
                 accept.getPrepareMessageId()
         );
 
+        // The subtree gets the log entry even if this node does not accept it
+        if (isRelayed(accept) && this.relayedAcceptMessages.add(new InstanceKey(receivedPrepareMessageId,
+                accept.getSlot()))) {
+            relayMessage(accept.getProposerNodeId(), accept, accept.getPrepareMessageId(), accept.getSlot());
+        }
+
+        // The delegate forwards the log entry of the leader to its sub-council, and collects the votes
+        if (isSentToSubCouncils(accept) && accept.getDelegateNodeId() == 0
+                && this.relayedAcceptMessages.add(new InstanceKey(receivedPrepareMessageId, accept.getSlot()))) {
+            accept.setDelegateNodeId(context.getNodeId());
+            dispatchToSubCouncil(accept, accept.getPrepareMessageId(), accept.getSlot());
+        }
+
         // Check if the accept message is for last proposed prepare message
         if (!accept.getPrepareMessageId().equals(context.getLastPrepareMessageIdWithNodeId())) {
             // It's another prepare message.
@@ -243,23 +488,88 @@ public class Follower extends PaxosMember {
             return;
         }
 
-        // Broadcast PreAccepted message.
-        PreAccepted preAccepted = new PreAccepted(context, accept.getPrepareMessageId(), accept.getProposerNodeId());
+        // A slot is proposed by its owner, or by the leader of the term
+        if (!isProposedByOwner(accept)) {
+            log.info("[{}]: Slot {} is not owned by member: {}. Ignoring ACCEPT message",
+                    context.getNodeName(), accept.getSlot(), accept.getProposerNodeName());
+            return;
+        }
+
+        if (accept.getSlot() < ReplicatedLog.FIRST_SLOT) {
+            onTermAccepted(accept);
+        }
+
+        // Values of the log slots are kept, so they can be reported to a new leader
+        // and sent in the ACCEPTED message.
+        if (accept.getSlot() >= ReplicatedLog.FIRST_SLOT) {
+            context.getReplicatedLog().saveAcceptedValue(accept);
+            context.logAccepted(accept);
+        }
+
+        // Accepting a value grants the lease to the proposer. The request timestamp is echoed
+        // back in the ACCEPTED message.
+        InstanceKey instanceKey = new InstanceKey(receivedPrepareMessageId, accept.getSlot());
+        if (accept.getLeaseRequestTimestamp() > 0) {
+            context.getLeaderLease().grant(accept.getProposerNodeId());
+            this.leaseRequestTimestamps.put(instanceKey, accept.getLeaseRequestTimestamp());
+        }
+
+        // The proposer measures its response time from the echoed dispatch timestamp
+        if (accept.getDispatchTimestamp() > 0) {
+            this.dispatchTimestamps.put(instanceKey, accept.getDispatchTimestamp());
+        }
+
+        // Without byzantine faults to tolerate the value is accepted right away
+        if (context.isClassicMode()) {
+            if (isSentToSubCouncils(accept)) {
+                dispatchAcceptedToDelegate(instanceKey, accept);
+                return;
+            }
+            dispatchAccepted(instanceKey, accept.getPrepareMessageId());
+            return;
+        }
+
+        // Broadcast PreAccepted message, carrying only the digest of the accepted value.
+        String digest = PaxosUtils.digest(accept.getPrepareMessageId(), accept.getSlot(), accept.getProposal());
+        this.acceptedDigests.put(instanceKey, digest);
+
+        PreAccepted preAccepted = new PreAccepted(context, accept.getPrepareMessageId(), accept.getProposerNodeId(),
+                accept.getSlot(), digest);
+
+        // In linear mode the vote goes to the proposer only, which certifies a quorum of the votes
+        if (context.isLinearMode()) {
+            preAccepted.setAuthenticators(context.getMessageAuthenticator()
+                    .authenticateVote(Phase.ACCEPT, accept.getPrepareMessageId(), accept.getSlot(), digest));
+
+            dispatchVoteToProposer(accept.getProposerNodeId(), preAccepted, accept.getPrepareMessageId());
+
+            QuorumCertificate certificate = this.pendingPreAcceptedCertificates.remove(instanceKey);
+            if (certificate != null) {
+                applyQuorumCertificate(certificate);
+            }
+            return;
+        }
+
+        recordPreAccepted(instanceKey.withDigest(digest), context.getNodeId(), accept.getPrepareMessageId());
 
-        incrementValue(this.numberOfPrePromiseMessages, receivedPrepareMessageId, Message.Type.PREACCEPTED,
-                accept.getPrepareMessageId());
+        broadcastPreAcceptedMessage(preAccepted, accept.getQuorumMemberIds());
 
-        broadcastPreAcceptedMessage(preAccepted);
+        // PREACCEPTED messages of the other members may have arrived before this ACCEPT
+        dispatchAcceptedIfMajority(instanceKey, accept.getPrepareMessageId());
     }
 
     /**
-     * Broadcasts {@link Accepted} messages to all the Members.
+     * Broadcasts {@link Accepted} messages to the Members of the audience.
      *
      * @param accepted Accepted message to broadcast
+     * @param audienceNodeIds Node ids of the thrifty quorum and the leader, null to broadcast to all the Members
      */
-    public void broadcastAcceptedMessage(Accepted accepted) {
+    public void broadcastAcceptedMessage(Accepted accepted, List<Integer> audienceNodeIds) {
         context.getMembers()
                 .forEach(member -> {
+                    if (!isQuorumMember(audienceNodeIds, member.getId())) {
+                        return;
+                    }
                     try {
                         log.info("[{}]: Dispatching ACCEPTED message to {} for id: {}",
                                 context.getNodeName(),
@@ -276,12 +586,12 @@ public class Follower extends PaxosMember {
     }
 
     /**
-     * Broadcasts {@link PrePromise} messages to all the Members.
+     * Broadcasts {@link PrePromise} messages to all the voting Members.
      *
      * @param prePromise PrePromise message to broadcast
      */
     public void broadcastPrePromiseMessage(PrePromise prePromise) {
-        context.getMembers()
+        context.getVoters()
                 .forEach(member -> {
                     try {
                         log.info("[{}]: Dispatching PREPROMISE message to {} for id: {}",
@@ -299,13 +609,17 @@ public class Follower extends PaxosMember {
     }
 
     /**
-     * Broadcasts {@link PreAccepted} messages to all the Members.
+     * Broadcasts {@link PreAccepted} messages to the Members of the proposer's quorum.
      *
      * @param preAccepted PreAccepted message to broadcast
+     * @param quorumMemberIds Node ids of the quorum, null to broadcast to all the Members
      */
-    public void broadcastPreAcceptedMessage(PreAccepted preAccepted) {
-        context.getMembers()
+    public void broadcastPreAcceptedMessage(PreAccepted preAccepted, List<Integer> quorumMemberIds) {
+        context.getVoters()
                 .forEach(member -> {
+                    if (!isQuorumMember(quorumMemberIds, member.getId())) {
+                        return;
+                    }
                     try {
                         log.info("[{}]: Dispatching PREACCEPTED message to {} for id: {}",
                                 context.getNodeName(),
@@ -332,193 +646,1421 @@ public class Follower extends PaxosMember {
         log.info("[{}]: Received ACCEPTED message from member: {} for id: {}",
                 context.getNodeName(), accepted.getResponderNodeName(), accepted.getPrepareMessageId());
 
+        if (!isAttested(accepted)) {
+            log.info("[{}]: ACCEPTED message from member: {} for slot: {} is not attested. Ignoring it",
+                    context.getNodeName(), accepted.getResponderNodeName(), accepted.getSlot());
+            return;
+        }
+
+        onAcceptedReceived(accepted);
+
         // Parse the identifier
         long prepareMessageId = PaxosUtils.parsePrepareNumer(
                 accepted.getPrepareMessageId()
         );
 
-        // Increment total no. of votes for the identifier
-        context.incrementVotesForPrepare(prepareMessageId);
+        // If this node is the leader, the ACCEPTED message is also a lease grant
+        context.getLeaderLease().recordGrant(accepted.getPrepareMessageId(), accepted.getResponderNodeId(),
+                accepted.getLeaseRequestTimestamp());
 
-        // Check if Majority is achieved. If yes, update the state
-        if (context.isMajorityVotesReceived(prepareMessageId)) {
-            context.updateState(
-                    accepted.getProposedPrepareMessage()
-                            .getProposal()
-                            .getProposedMessage() + " for term: " + accepted.getPrepareMessageId()
-            );
+        // The distinguished learner announces the decision to the members, and so does the leader
+        // of the log slots whose votes were only sent to the thrifty quorum
+        if (context.isDistinguishedLearner() || (context.isThriftyAccepted()
+                && accepted.getSlot() >= ReplicatedLog.FIRST_SLOT && context.getLeaderNodeId() == context.getNodeId())) {
+            learnAccepted(accepted);
+            return;
+        }
+
+        // Votes for the log slots are collected by the delegate of the voter's sub-council
+        if (context.getSubCouncils() != null && accepted.getSlot() >= ReplicatedLog.FIRST_SLOT) {
+            collectSubCouncilVote(accepted);
+            return;
+        }
+
+        // Votes for the log slots are counted per slot and digest by the replicated log, so that
+        // a lying acceptor can not help deciding another value
+        if (accepted.getSlot() >= ReplicatedLog.FIRST_SLOT) {
+            if (accepted.getProposal() == null) {
+                return;
+            }
+            String digest = PaxosUtils.digest(accepted.getPrepareMessageId(), accepted.getSlot(), accepted.getProposal());
+            context.getReplicatedLog().recordAcceptedVote(
+                    new InstanceKey(prepareMessageId, accepted.getSlot(), digest),
+                    accepted.getResponderNodeId(),
+                    accepted.getProposal(),
+                    context.getQuorumSize(Phase.ACCEPT));
+            return;
+        }
+
+        // Votes are counted per member and digest of the value, the state is updated with the value
+        // of the digest which reached the majority
+        Proposal proposal = getAcceptedProposal(accepted);
+        if (proposal == null) {
+            return;
+        }
+        String digest = PaxosUtils.digest(accepted.getPrepareMessageId(), accepted.getSlot(), proposal);
+        if (context.incrementVotesForPrepare(prepareMessageId, accepted.getResponderNodeId(), digest)) {
+            context.updateState(proposal.getProposedMessage() + " for term: " + accepted.getPrepareMessageId());
         }
     }
 
     /**
-     * Handles all the {@link PrePromise} messages received from the members.
+     * Counts the ACCEPTED vote as the distinguished learner. Once the votes for the same value reach
+     * the quorum, the value is decided and a {@link Decided} message is broadcast to the members.
      *
-     * @param message PrePromise message
-     * @throws JsonProcessingException Throws if encounters any error while deserialization
+     * @param accepted Accepted message
+     * @throws JsonProcessingException Throws if encounters error while computing the digest
      */
-    public void handlePrePromiseMessage(String message) throws JsonProcessingException {
-        PrePromise prePromise = PaxosUtils.deserialize(message, PrePromise.class);
-        log.info("[{}]: Received PREPROMISE message from member: {} for id: {}",
-                context.getNodeName(), prePromise.getResponderNodeId(), prePromise.getProposedPrepareMessageId());
+    private void learnAccepted(Accepted accepted) throws JsonProcessingException {
+        long prepareMessageId = PaxosUtils.parsePrepareNumer(accepted.getPrepareMessageId());
+        long slot = accepted.getSlot();
+        Proposal proposal = getAcceptedProposal(accepted);
+        if (proposal == null) {
+            return;
+        }
 
-        // Parse the identifier
-        long prepareMessageId = PaxosUtils.parsePrepareNumer(
-                prePromise.getProposedPrepareMessageId()
-        );
+        // Votes count per digest, so that a lying acceptor can not help deciding another value
+        String digest = PaxosUtils.digest(accepted.getPrepareMessageId(), slot, proposal);
 
-        // Increment total no. of PrePromises for the identifier
-        incrementValue(this.numberOfPrePromiseMessages, prepareMessageId,
-                Message.Type.PREPROMISE, prePromise.getProposedPrepareMessageId());
+        // The election tally is still kept, the candidate checks it for its own term
+        if (slot < ReplicatedLog.FIRST_SLOT) {
+            context.incrementVotesForPrepare(prepareMessageId, accepted.getResponderNodeId(), digest);
+        }
+        InstanceKey voteKey = new InstanceKey(prepareMessageId, slot, digest);
+        Map<Integer, Map<Integer, String>> votes = learnedVotes.record(voteKey, accepted.getResponderNodeId(),
+                accepted.getAuthenticators(), context.getQuorumSize(Phase.LEARN));
 
-        // Check if Majority is achieved. If yes, update the state
-        if (!isByzantineMajorityReceived(this.numberOfPrePromiseMessages, prepareMessageId)) {
+        if (votes == null || !learnedVotes.markCertified(voteKey)) {
             return;
         }
 
-        log.info("[{}]: Byzantine majority reached for {} with count: {}",
-                context.getNodeName(), Message.Type.PREPROMISE, this.numberOfPrePromiseMessages.get(prepareMessageId));
+        log.info("[{}]: Learned value for id: {} and slot: {} with weight: {}",
+                context.getNodeName(), accepted.getPrepareMessageId(), slot,
+                votes.keySet().stream().mapToInt(context::getVoteWeight).sum());
 
-        // Check if higher prepare message ids are already processed
-        if (!isHighestPrepareMessageId(prepareMessageId)) {
-            // Since it is lower than the already existing message id
-            // send a REJECT message.
+        decide(accepted.getPrepareMessageId(), slot, proposal);
+        broadcastDecidedMessage(new Decided(context, accepted.getPrepareMessageId(), slot, proposal, votes));
+    }
 
-            Reject reject = new Reject(context, context.getLastPrepareMessageId(), prePromise.getProposedPrepareMessageId());
-            log.info("[{}]: Message id {} is not higher than existing message id {}, thus will be rejected",
-                    context.getNodeName(),
-                    prePromise.getProposedPrepareMessageId(),
-                    context.getLastPrepareMessageId());
+    /**
+     * Returns the value the {@link Accepted} message votes for.
+     *
+     * @param accepted Accepted message
+     * @return Accepted value or null if the message carries none
+     */
+    private static Proposal getAcceptedProposal(Accepted accepted) {
+        if (accepted.getSlot() >= ReplicatedLog.FIRST_SLOT) {
+            return accepted.getProposal();
+        }
+        return accepted.getProposedPrepareMessage() == null
+                ? null
+                : accepted.getProposedPrepareMessage().getProposal();
+    }
 
-            dispatchRejectMessageToProposer(prePromise.getProposerNodeId(), reject);
-            this.savedPrepareMessages.remove(prepareMessageId);
+    /**
+     * Applies the decided value, to the log slot or as the state of the election.
+     *
+     * @param prepareMessageId Formatted identifier of the term
+     * @param slot Log slot
+     * @param proposal Decided value
+     */
+    private void decide(String prepareMessageId, long slot, Proposal proposal) {
+        if (slot >= ReplicatedLog.FIRST_SLOT) {
+            context.getReplicatedLog().decide(slot, proposal);
             return;
         }
+        context.updateState(proposal.getProposedMessage() + " for term: " + prepareMessageId);
+    }
 
-        Prepare prepare  = this.savedPrepareMessages
-                .get(prepareMessageId);
+    /**
+     * Broadcasts the {@link Decided} message to all the Members.
+     *
+     * @param decided Decided message to broadcast
+     */
+    private void broadcastDecidedMessage(Decided decided) {
+        if (context.getSubCouncils() != null) {
+            dispatchToDelegates(decided, decided.getPrepareMessageId(), decided.getSlot());
+            decided.setDelegateNodeId(context.getNodeId());
+            dispatchToSubCouncil(decided, decided.getPrepareMessageId(), decided.getSlot());
+            return;
+        }
 
-        if (prepare == null) {
+        if (context.getDisseminationTree() != null) {
+            relayMessage(context.getNodeId(), decided, decided.getPrepareMessageId(), decided.getSlot());
+            return;
+        }
 
-            log.info("[{}]: No PREPARE message from member: {} for message id: {}. Ignoring PREPROMISE",
-                    context.getNodeName(), prePromise.getProposerNodeId(), prePromise.getProposedPrepareMessageId());
+        context.getMembers()
+                .forEach(member -> {
+                    try {
+                        log.info("[{}]: Dispatching DECIDED message to {} for id: {} and slot: {}",
+                                context.getNodeName(),
+                                member.getName(),
+                                decided.getPrepareMessageId(),
+                                decided.getSlot());
+
+                        PaxosUtils.dispatch(member, decided);
 
+                    } catch (IOException e) {
+                        log.error("[{}]: Error dispatching DECIDED message for prepare message id: {}",
+                                context.getNodeName(), decided.getPrepareMessageId());
+                    }
+                });
+    }
+
+    /**
+     * Handles {@link Decided} messages received from the distinguished learner, or from the leader
+     * of a council of sub-councils. The value is decided if the votes this node can verify reach
+     * the quorum. Without message authentication the learner is trusted, like every voter is.
+     *
+     * @param message Decided message
+     * @throws JsonProcessingException Throws if encounters any error while deserialization
+     */
+    public void handleDecidedMessage(String message) throws JsonProcessingException {
+        Decided decided = PaxosUtils.deserialize(message, Decided.class);
+        log.info("[{}]: Received DECIDED message from member: {} for id: {} and slot: {}",
+                context.getNodeName(), decided.getLearnerNodeName(), decided.getPrepareMessageId(),
+                decided.getSlot());
+
+        SubCouncils subCouncils = context.getSubCouncils();
+        if ((!context.isDistinguishedLearner() && !context.isThriftyAccepted() && subCouncils == null)
+                || decided.getVotes() == null || decided.getProposal() == null) {
             return;
         }
 
-        context.savePrepareMessage(prepareMessageId, prepare);
-        Promise promise = new Promise(context, prePromise.getProposedPrepareMessageId(),
-                prePromise.getProposerNodeId());
+        long slot = decided.getSlot();
+        long prepareMessageId = PaxosUtils.parsePrepareNumer(decided.getPrepareMessageId());
+        InstanceKey instanceKey = new InstanceKey(prepareMessageId, slot);
 
-        // Check if there is any saved prepare message id for which accepted was broadcast but
-        // did not get majority votes yet
-        if (context.getLastPrepareMessageIdWithNodeId() != null && context.getCurrentAcceptedPrepareMessageId() != null) {
-            if (context.getLastPrepareMessageIdWithNodeId().equals(context.getCurrentAcceptedPrepareMessageId())) {
+        // The subtree gets the message even if this node already decided the slot
+        if (context.getDisseminationTree() != null && this.relayedDecidedMessages.add(instanceKey)) {
+            relayMessage(decided.getLearnerNodeId(), decided, decided.getPrepareMessageId(), slot);
+        }
 
-                log.info("[{}]: Adding last proposal to PROMISE message to new proposer: {} for message id: {}",
-                        context.getNodeName(), prepare.getProposerNodeName(), promise.getPrepareMessageId());
+        // The delegate forwards the decision of the leader to its sub-council
+        if (subCouncils != null && decided.getDelegateNodeId() == 0 && this.relayedDecidedMessages.add(instanceKey)) {
+            decided.setDelegateNodeId(context.getNodeId());
+            dispatchToSubCouncil(decided, decided.getPrepareMessageId(), slot);
+        }
 
-                // Add the last prepared message to the promise message
-                promise.setLastPrepareMessage(context.getLastPrepareMessage());
-            }
+        if (slot >= ReplicatedLog.FIRST_SLOT && context.getReplicatedLog().isDecided(slot)) {
+            return;
         }
 
-        if (this.dispatchedPromiseMessages.containsKey(prepareMessageId)
-                && Boolean.TRUE.equals(this.dispatchedPromiseMessages.get(prepareMessageId))) {
+        if (subCouncils != null) {
+            if (!subCouncils.isQuorum(decided.getVotes().keySet())) {
+                log.info("[{}]: DECIDED message for id: {} and slot: {} is not accepted by a majority of the "
+                        + "sub-councils. Ignoring it", context.getNodeName(), decided.getPrepareMessageId(), slot);
+                return;
+            }
+
+            decide(decided.getPrepareMessageId(), slot, decided.getProposal());
+            return;
+        }
 
+        String digest = PaxosUtils.digest(decided.getPrepareMessageId(), slot, decided.getProposal());
+        MessageAuthenticator authenticator = context.getMessageAuthenticator();
+
+        // This node trusts its own vote only if it accepted the same value
+        int validWeight = 0;
+        for (Map.Entry<Integer, Map<Integer, String>> vote : decided.getVotes().entrySet()) {
+            int voterNodeId = vote.getKey();
+            boolean valid = voterNodeId == context.getNodeId()
+                    ? hasAccepted(instanceKey, decided.getPrepareMessageId(), digest)
+                    : authenticator == null || authenticator.verifyVote(voterNodeId, Phase.LEARN,
+                            decided.getPrepareMessageId(), slot, digest, vote.getValue());
+            if (valid) {
+                validWeight += context.getVoteWeight(voterNodeId);
+            }
+        }
 
-            log.info("[{}]: Already dispatched PROMISE message to proposer: {} for message id: {}",
-                    context.getNodeName(), prepare.getProposerNodeName(), promise.getPrepareMessageId());
+        if (validWeight < context.getQuorumSize(Phase.LEARN)) {
+            log.info("[{}]: DECIDED message for id: {} and slot: {} holds valid votes of weight {} only. Ignoring it",
+                    context.getNodeName(), decided.getPrepareMessageId(), slot, validWeight);
             return;
         }
 
-        log.info("[{}]: Dispatching PROMISE message to proposer: {} for message id: {}",
-                context.getNodeName(), prepare.getProposerNodeName(), promise.getPrepareMessageId());
-        // Dispatch to the proposer
-        dispatchPromiseMessageToProposer(promise.getProposerNodeId(), promise);
-        this.dispatchedPromiseMessages.put(prepareMessageId, true);
+        decide(decided.getPrepareMessageId(), slot, decided.getProposal());
     }
 
     /**
-     * Handles all the {@link PreAccepted} messages received from the members.
+     * Checks if the {@link Accept} message is relayed along the dissemination tree. Only the log
+     * entries sent to all the members are relayed, and only if the messages are not authenticated,
+     * because a relayed ACCEPT message is not signed by its proposer.
      *
-     * @param message PreAccepted message
-     * @throws JsonProcessingException Throws if encounters any error while deserialization
+     * @param accept Accept message
+     * @return Is relayed
      */
-    public void handlePreAcceptedMessage(String message) throws JsonProcessingException {
-        PreAccepted preAccepted = PaxosUtils.deserialize(message, PreAccepted.class);
-        log.info("[{}]: Received PREACCEPTED message from member: {} for id: {}",
-                context.getNodeName(), preAccepted.getProposerNodeId(), preAccepted.getProposedPrepareMessageId());
-
-        // Parse the identifier
-        long prepareMessageId = PaxosUtils.parsePrepareNumer(
-                preAccepted.getProposedPrepareMessageId()
-        );
-
-        // Increment total no. of PrePromises for the identifier
-        incrementValue(this.numberOfPreAcceptMessages, prepareMessageId,
-                Message.Type.PREACCEPTED, preAccepted.getProposedPrepareMessageId());
-
-        // Check if Majority is achieved. If yes, update the state
-        if (!isByzantineMajorityReceived(this.numberOfPrePromiseMessages, prepareMessageId)) {
-            return;
-        }
+    protected boolean isRelayed(Accept accept) {
+        return context.getDisseminationTree() != null
+                && context.getMessageAuthenticator() == null
+                && accept.getSlot() >= ReplicatedLog.FIRST_SLOT
+                && accept.getQuorumMemberIds() == null;
+    }
 
-        if (this.dispatchedAcceptedMessages.containsKey(prepareMessageId)
-                && Boolean.TRUE.equals(this.dispatchedAcceptedMessages.get(prepareMessageId))) {
+    /**
+     * Sends the message to the children of this node in the dissemination tree of the root.
+     *
+     * @param rootNodeId Node id of the original sender of the message
+     * @param message Message to relay
+     * @param prepareMessageId Formatted identifier of the term, used for logging
+     * @param slot Log slot, used for logging
+     */
+    protected void relayMessage(int rootNodeId, Message message, String prepareMessageId, long slot) {
+        for (int childNodeId : context.getDisseminationTree().getChildren(rootNodeId)) {
+            Member child = context.getMember(childNodeId);
+            if (child == null) {
+                continue;
+            }
+            try {
+                log.info("[{}]: Relaying {} message to {} for id: {} and slot: {}",
+                        context.getNodeName(), message.getMessageType(), child.getName(), prepareMessageId, slot);
 
+                PaxosUtils.dispatch(child, message);
 
-            log.info("[{}]: Already broadcast ACCEPTED message for message id: {}",
-                    context.getNodeName(), preAccepted.getProposedPrepareMessageId());
-            return;
+            } catch (IOException e) {
+                log.error("[{}]: Error relaying {} message for prepare message id: {}",
+                        context.getNodeName(), message.getMessageType(), prepareMessageId);
+            }
         }
+    }
 
-        // Including the PREPARE message to update state on those members which were not able to connect with
-        // proposer
-        Accepted accepted = new Accepted(context, preAccepted.getProposedPrepareMessageId(),
-                context.getLastPrepareMessage());
-
-        context.incrementVotesForPrepare(prepareMessageId);
-        broadcastAcceptedMessage(accepted);
-        this.dispatchedAcceptedMessages.put(prepareMessageId, true);
+    /**
+     * Checks if the {@link Accept} message is voted on by the sub-councils. Only the log entries
+     * are, the election is voted on by all the members.
+     *
+     * @param accept Accept message
+     * @return Is sent to the sub-councils
+     */
+    protected boolean isSentToSubCouncils(Accept accept) {
+        return context.getSubCouncils() != null && accept.getSlot() >= ReplicatedLog.FIRST_SLOT;
     }
 
     /**
-     * Checks if received number part of the identifier is higher than the existing
-     * prepare message id.
+     * Sends the message to the delegates of all the sub-councils except the own one.
      *
-     * @param prepareMessageId Identifier of the received Prepare message
-     * @return Is it higher than existing ids
+     * @param message Message to send
+     * @param prepareMessageId Formatted identifier of the term, used for logging
+     * @param slot Log slot, used for logging
      */
-    private boolean isHighestPrepareMessageId(long prepareMessageId) {
-        return prepareMessageId > context.getLastPrepareMessageId();
+    protected void dispatchToDelegates(Message message, String prepareMessageId, long slot) {
+        SubCouncils subCouncils = context.getSubCouncils();
+        subCouncils.getSubCouncils()
+                .stream()
+                .filter(subCouncil -> !subCouncil.equals(subCouncils.getSubCouncil()))
+                .forEach(subCouncil -> dispatchToMember(subCouncils.getDelegate(subCouncil), message,
+                        prepareMessageId, slot));
     }
 
     /**
-     * Increments value in the given map.
+     * Sends the message to the other members of the own sub-council.
      *
-     * @param map Map where value will be incremented
-     * @param key Key associated with the value
+     * @param message Message to send
+     * @param prepareMessageId Formatted identifier of the term, used for logging
+     * @param slot Log slot, used for logging
      */
-    private void incrementValue(Map<Long, Integer> map, Long key, Message.Type messageType,
-                                String prepareMessageNumber) {
+    protected void dispatchToSubCouncil(Message message, String prepareMessageId, long slot) {
+        SubCouncils subCouncils = context.getSubCouncils();
+        subCouncils.getNodeIds(subCouncils.getSubCouncil())
+                .stream()
+                .filter(nodeId -> nodeId != context.getNodeId())
+                .forEach(nodeId -> dispatchToMember(nodeId, message, prepareMessageId, slot));
+    }
 
-        if (!map.containsKey(key)) {
-            map.put(key, 0);
+    /**
+     * Sends the message to the member.
+     *
+     * @param memberNodeId Node id of the member
+     * @param message Message to send
+     * @param prepareMessageId Formatted identifier of the term, used for logging
+     * @param slot Log slot, used for logging
+     */
+    private void dispatchToMember(int memberNodeId, Message message, String prepareMessageId, long slot) {
+        Member member = context.getMember(memberNodeId);
+        if (member == null) {
+            return;
         }
+        try {
+            log.info("[{}]: Dispatching {} message to {} for id: {} and slot: {}",
+                    context.getNodeName(), message.getMessageType(), member.getName(), prepareMessageId, slot);
 
-        Integer currentValue = map.get(key);
-        currentValue = currentValue == null ? 0 : currentValue;
-
-        log.info("[{}]: Incrementing count for {} id: {} to {}",
-                context.getNodeName(),
-                messageType,
-                prepareMessageNumber,
-                currentValue + 1);
+            PaxosUtils.dispatch(member, message);
 
-        map.replace(key, currentValue + 1);
+        } catch (IOException e) {
+            log.error("[{}]: Error dispatching {} message for prepare message id: {}",
+                    context.getNodeName(), message.getMessageType(), prepareMessageId);
+        }
     }
 
-    private boolean isByzantineMajorityReceived(Map<Long, Integer> map, Long key) {
-        return map.get(key) >= majorityNumber;
+    /**
+     * Sends the {@link Accepted} message for the log entry to the delegate which forwarded it. Every
+     * delegate forwarding the entry gets the vote, since the delegate changes once it is suspected.
+     *
+     * @param instanceKey Term and slot
+     * @param accept Accept message
+     */
+    private void dispatchAcceptedToDelegate(InstanceKey instanceKey, Accept accept) {
+        int delegateNodeId = accept.getDelegateNodeId();
+        if (!this.voteDelegates.computeIfAbsent(instanceKey, key -> new HashSet<>()).add(delegateNodeId)) {
+            return;
+        }
+
+        Accepted accepted = new Accepted(context, accept.getPrepareMessageId(), accept.getSlot(), accept.getProposal());
+        echoRequestTimestamps(instanceKey, accepted);
+        this.dispatchedAcceptedMessages.put(instanceKey, true);
+
+        if (delegateNodeId == context.getNodeId()) {
+            collectSubCouncilVote(accepted);
+            return;
+        }
+        context.whenDurable(() ->
+                dispatchToMember(delegateNodeId, accepted, accept.getPrepareMessageId(), accept.getSlot()));
+    }
+
+    /**
+     * Collects the ACCEPTED vote of a member of the own sub-council as its delegate. Once the votes
+     * reach the majority of the sub-council, a {@link SubCouncilAccepted} message is sent to the leader.
+     *
+     * @param accepted Accepted message
+     */
+    private void collectSubCouncilVote(Accepted accepted) {
+        SubCouncils subCouncils = context.getSubCouncils();
+        String subCouncil = subCouncils.getSubCouncil();
+        if (!subCouncil.equals(subCouncils.getSubCouncil(accepted.getResponderNodeId()))
+                || !accepted.getPrepareMessageId().equals(context.getLastPrepareMessageIdWithNodeId())) {
+            return;
+        }
+
+        InstanceKey instanceKey = new InstanceKey(PaxosUtils.parsePrepareNumer(accepted.getPrepareMessageId()),
+                accepted.getSlot());
+        Map<Integer, Map<Integer, String>> votes = subCouncilVotes.record(instanceKey,
+                accepted.getResponderNodeId(), null, subCouncils.getLocalQuorumSize(subCouncil));
+
+        if (votes == null || !subCouncilVotes.markCertified(instanceKey)) {
+            return;
+        }
+
+        SubCouncilAccepted subCouncilAccepted = new SubCouncilAccepted(context, subCouncil,
+                accepted.getPrepareMessageId(), accepted.getSlot(), accepted.getProposal(),
+                new ArrayList<>(votes.keySet()));
+
+        if (context.getLeaderNodeId() == context.getNodeId()) {
+            countSubCouncilAccepted(subCouncilAccepted);
+            return;
+        }
+        dispatchToMember(context.getLeaderNodeId(), subCouncilAccepted, accepted.getPrepareMessageId(),
+                accepted.getSlot());
+    }
+
+    /**
+     * Handles {@link SubCouncilAccepted} messages received from the delegates.
+     *
+     * @param message SubCouncilAccepted message
+     * @throws JsonProcessingException Throws if encounters any error while deserialization
+     */
+    public void handleSubCouncilAcceptedMessage(String message) throws JsonProcessingException {
+        SubCouncilAccepted subCouncilAccepted = PaxosUtils.deserialize(message, SubCouncilAccepted.class);
+        log.info("[{}]: Received SUBCOUNCIL_ACCEPTED message from delegate: {} of sub-council: {} for id: {} and slot: {}",
+                context.getNodeName(), subCouncilAccepted.getDelegateNodeName(), subCouncilAccepted.getSubCouncil(),
+                subCouncilAccepted.getPrepareMessageId(), subCouncilAccepted.getSlot());
+
+        countSubCouncilAccepted(subCouncilAccepted);
+    }
+
+    /**
+     * Counts the votes of a sub-council as the leader. Once a majority of the sub-councils accepted
+     * the log entry, it is decided and a {@link Decided} message naming all the voters is sent to
+     * the sub-councils.
+     *
+     * @param subCouncilAccepted SubCouncilAccepted message
+     */
+    private void countSubCouncilAccepted(SubCouncilAccepted subCouncilAccepted) {
+        SubCouncils subCouncils = context.getSubCouncils();
+        long slot = subCouncilAccepted.getSlot();
+        if (subCouncils == null || slot < ReplicatedLog.FIRST_SLOT || subCouncilAccepted.getVoterNodeIds() == null
+                || subCouncilAccepted.getProposal() == null || context.getReplicatedLog().isDecided(slot)) {
+            return;
+        }
+
+        if (!subCouncils.isLocalQuorum(subCouncilAccepted.getSubCouncil(), subCouncilAccepted.getVoterNodeIds())) {
+            log.info("[{}]: Votes of sub-council {} for slot: {} do not reach its majority. Ignoring them",
+                    context.getNodeName(), subCouncilAccepted.getSubCouncil(), slot);
+            return;
+        }
+
+        InstanceKey instanceKey = new InstanceKey(
+                PaxosUtils.parsePrepareNumer(subCouncilAccepted.getPrepareMessageId()), slot);
+        Set<Integer> voterNodeIds = this.subCouncilVoters.computeIfAbsent(instanceKey, key -> new HashSet<>());
+        voterNodeIds.addAll(subCouncilAccepted.getVoterNodeIds());
+
+        if (!subCouncils.isQuorum(voterNodeIds)) {
+            return;
+        }
+
+        this.subCouncilVoters.keySet().removeIf(key -> key.getSlot() == slot);
+        log.info("[{}]: Majority of the sub-councils accepted id: {} and slot: {}",
+                context.getNodeName(), subCouncilAccepted.getPrepareMessageId(), slot);
+
+        Map<Integer, Map<Integer, String>> votes = new HashMap<>();
+        voterNodeIds.forEach(voterNodeId -> votes.put(voterNodeId, null));
+
+        decide(subCouncilAccepted.getPrepareMessageId(), slot, subCouncilAccepted.getProposal());
+        broadcastDecidedMessage(new Decided(context, subCouncilAccepted.getPrepareMessageId(), slot,
+                subCouncilAccepted.getProposal(), votes));
+    }
+
+    /**
+     * Checks if this node sent an ACCEPTED message for the value with the given digest.
+     *
+     * @param instanceKey Term and slot
+     * @param prepareMessageId Formatted identifier of the term
+     * @param digest Digest of the value
+     * @return Has accepted the value
+     * @throws JsonProcessingException Throws if encounters error while computing the digest
+     */
+    private boolean hasAccepted(InstanceKey instanceKey, String prepareMessageId, String digest) throws JsonProcessingException {
+        if (!Boolean.TRUE.equals(this.dispatchedAcceptedMessages.get(instanceKey))) {
+            return false;
+        }
+
+        Prepare lastPrepareMessage = context.getLastPrepareMessage();
+        Proposal accepted = instanceKey.getSlot() >= ReplicatedLog.FIRST_SLOT
+                ? context.getReplicatedLog().getAcceptedValue(instanceKey.getSlot())
+                : lastPrepareMessage == null ? null : lastPrepareMessage.getProposal();
+
+        return accepted != null && digest.equals(PaxosUtils.digest(prepareMessageId, instanceKey.getSlot(), accepted));
+    }
+
+    /**
+     * Checks if the {@link Accept} message is sent by the owner of its slot, or by the leader of
+     * the term. Without slot owners the leader proposes all the slots.
+     *
+     * @param accept Accept message
+     * @return Is proposed by the owner
+     */
+    private boolean isProposedByOwner(Accept accept) {
+        SlotOwnership slotOwnership = context.getSlotOwnership();
+        return slotOwnership == null
+                || accept.getSlot() < ReplicatedLog.FIRST_SLOT
+                || accept.getProposerNodeId() == context.getLeaderNodeId()
+                || accept.getProposerNodeId() == slotOwnership.getOwner(accept.getSlot());
+    }
+
+    /**
+     * Called for the ACCEPT message of the election of the promised term.
+     * Followers do not propose any slots.
+     *
+     * @param accept Accept message
+     */
+    protected void onTermAccepted(Accept accept) {
+    }
+
+    /**
+     * Called for every received {@link Accepted} message before it is counted.
+     * Followers do not track the responses.
+     *
+     * @param accepted Accepted message
+     */
+    protected void onAcceptedReceived(Accepted accepted) {
+    }
+
+    /**
+     * Called for every received {@link PrePromise} message about a proposal of this node.
+     * Followers never propose.
+     *
+     * @param prePromise PrePromise message
+     */
+    protected void onPrePromiseReceived(PrePromise prePromise) {
+    }
+
+    /**
+     * Called for every received {@link PreAccepted} message about a proposal of this node.
+     * Followers never propose.
+     *
+     * @param preAccepted PreAccepted message
+     */
+    protected void onPreAcceptedReceived(PreAccepted preAccepted) {
+    }
+
+    /**
+     * Handles {@link QuorumCertificate} messages received from the proposer. A certificate
+     * arriving before the PREPARE or ACCEPT message it certifies is kept until then.
+     *
+     * @param message QuorumCertificate message
+     * @throws JsonProcessingException Throws if encounters any error while deserialization
+     */
+    public void handleQuorumCertificate(String message) throws JsonProcessingException {
+        QuorumCertificate certificate = PaxosUtils.deserialize(message, QuorumCertificate.class);
+        log.info("[{}]: Received {} certificate from member: {} for id: {} and slot: {}",
+                context.getNodeName(), certificate.getPhase(), certificate.getProposerNodeId(),
+                certificate.getPrepareMessageId(), certificate.getSlot());
+
+        if (!context.isLinearMode() || certificate.getVotes() == null) {
+            return;
+        }
+
+        long prepareMessageId = PaxosUtils.parsePrepareNumer(certificate.getPrepareMessageId());
+        if (certificate.getPhase() == Phase.PREPARE && !this.savedPrepareDigests.containsKey(prepareMessageId)) {
+            this.pendingPrePromiseCertificates.put(prepareMessageId, certificate);
+            return;
+        }
+
+        InstanceKey instanceKey = new InstanceKey(prepareMessageId, certificate.getSlot());
+        if (certificate.getPhase() == Phase.ACCEPT && !this.acceptedDigests.containsKey(instanceKey)) {
+            this.pendingPreAcceptedCertificates.put(instanceKey, certificate);
+            return;
+        }
+
+        applyQuorumCertificate(certificate);
+    }
+
+    /**
+     * Dispatches the {@link Promise} or {@link Accepted} message if the certificate holds a quorum
+     * of valid votes for the digest of the message received by this node.
+     *
+     * @param certificate Quorum certificate
+     * @throws JsonProcessingException Throws if encounters error while computing the digest
+     */
+    private void applyQuorumCertificate(QuorumCertificate certificate) throws JsonProcessingException {
+        long prepareMessageId = PaxosUtils.parsePrepareNumer(certificate.getPrepareMessageId());
+        InstanceKey instanceKey = new InstanceKey(prepareMessageId, certificate.getSlot());
+
+        String digest = certificate.getPhase() == Phase.PREPARE
+                ? this.savedPrepareDigests.get(prepareMessageId)
+                : this.acceptedDigests.get(instanceKey);
+
+        if (digest == null || !digest.equals(certificate.getDigest())) {
+            log.info("[{}]: Certificate for id: {} and slot: {} is for another value. Ignoring it",
+                    context.getNodeName(), certificate.getPrepareMessageId(), certificate.getSlot());
+            return;
+        }
+
+        // The proposer does not vote, this node trusts its own vote and verifies the others
+        int validWeight = 0;
+        for (Map.Entry<Integer, Map<Integer, String>> vote : certificate.getVotes().entrySet()) {
+            int voterNodeId = vote.getKey();
+            if (voterNodeId == certificate.getProposerNodeId()) {
+                continue;
+            }
+            if (voterNodeId == context.getNodeId() || context.getMessageAuthenticator().verifyVote(voterNodeId,
+                    certificate.getPhase(), certificate.getPrepareMessageId(), certificate.getSlot(), digest,
+                    vote.getValue())) {
+                validWeight += context.getVoteWeight(voterNodeId);
+            }
+        }
+
+        if (validWeight < context.getQuorumSize(certificate.getPhase())) {
+            log.info("[{}]: Certificate for id: {} and slot: {} holds valid votes of weight {} only. Ignoring it",
+                    context.getNodeName(), certificate.getPrepareMessageId(), certificate.getSlot(), validWeight);
+            return;
+        }
+
+        if (certificate.getPhase() == Phase.PREPARE) {
+            dispatchPromise(prepareMessageId, certificate.getPrepareMessageId(), certificate.getProposerNodeId());
+        } else {
+            dispatchAccepted(instanceKey, certificate.getPrepareMessageId());
+        }
+    }
+
+    /**
+     * Handles all the {@link PrePromise} messages received from the members.
+     *
+     * @param message PrePromise message
+     * @throws JsonProcessingException Throws if encounters any error while deserialization
+     */
+    public void handlePrePromiseMessage(String message) throws JsonProcessingException {
+        PrePromise prePromise = PaxosUtils.deserialize(message, PrePromise.class);
+        log.info("[{}]: Received PREPROMISE message from member: {} for id: {}",
+                context.getNodeName(), prePromise.getResponderNodeId(), prePromise.getProposedPrepareMessageId());
+
+        // The proposer does not take part in the pre-rounds of its own proposal
+        if (prePromise.getProposerNodeId() == context.getNodeId()) {
+            onPrePromiseReceived(prePromise);
+            return;
+        }
+
+        // Parse the identifier
+        long prepareMessageId = PaxosUtils.parsePrepareNumer(
+                prePromise.getProposedPrepareMessageId()
+        );
+
+        // Increment total no. of PrePromises for the identifier and the digest
+        recordPrePromise(new InstanceKey(prepareMessageId, 0, prePromise.getDigest()),
+                prePromise.getResponderNodeId(), prePromise.getProposedPrepareMessageId());
+
+        dispatchPromiseIfMajority(prepareMessageId, prePromise.getProposedPrepareMessageId(),
+                prePromise.getProposerNodeId());
+    }
+
+    /**
+     * Dispatches the {@link Promise} message to the proposer once majority PREPROMISE messages
+     * are received for the PREPARE message.
+     *
+     * @param prepareMessageId Number part of the identifier
+     * @param proposedPrepareMessageId Formatted identifier of the PREPARE message
+     * @param proposerNodeId Node id of the proposer
+     */
+    private void dispatchPromiseIfMajority(long prepareMessageId, String proposedPrepareMessageId,
+                                           int proposerNodeId) {
+
+        // Only the votes for the digest of the PREPARE message received by this node count
+        String digest = this.savedPrepareDigests.get(prepareMessageId);
+        if (digest == null) {
+            return;
+        }
+
+        // Check if Majority is achieved. If yes, update the state
+        InstanceKey voteKey = new InstanceKey(prepareMessageId, 0, digest);
+        if (!isByzantineMajorityReceived(prePromiseVotes, voteKey, Phase.PREPARE)) {
+            return;
+        }
+
+        log.info("[{}]: Byzantine majority reached for {} with weight: {}",
+                context.getNodeName(), Message.Type.PREPROMISE, prePromiseVotes.weight(voteKey));
+
+        dispatchPromise(prepareMessageId, proposedPrepareMessageId, proposerNodeId);
+    }
+
+    /**
+     * Dispatches the {@link Promise} message to the proposer, unless a higher PREPARE message
+     * was promised in the meantime.
+     *
+     * @param prepareMessageId Number part of the identifier
+     * @param proposedPrepareMessageId Formatted identifier of the PREPARE message
+     * @param proposerNodeId Node id of the proposer
+     */
+    private void dispatchPromise(long prepareMessageId, String proposedPrepareMessageId, int proposerNodeId) {
+
+        // Votes beyond the majority must not be rejected as an old PREPARE message
+        if (Boolean.TRUE.equals(this.dispatchedPromiseMessages.get(prepareMessageId))) {
+            return;
+        }
+
+        // Check if higher prepare message ids are already processed
+        if (!isHighestPrepareMessageId(prepareMessageId)) {
+            // Since it is lower than the already existing message id
+            // send a REJECT message.
+
+            Reject reject = new Reject(context, context.getLastPrepareMessageId(), proposedPrepareMessageId);
+            log.info("[{}]: Message id {} is not higher than existing message id {}, thus will be rejected",
+                    context.getNodeName(),
+                    proposedPrepareMessageId,
+                    context.getLastPrepareMessageId());
+
+            dispatchRejectMessageToProposer(proposerNodeId, reject);
+            this.savedPrepareMessages.remove(prepareMessageId);
+            return;
+        }
+
+        // The lease may have been granted to another leader after the PREPARE message was received
+        if (isRefusedByLease(proposerNodeId, proposedPrepareMessageId)) {
+            this.savedPrepareMessages.remove(prepareMessageId);
+            return;
+        }
+
+        Prepare prepare  = this.savedPrepareMessages
+                .get(prepareMessageId);
+
+        if (prepare == null) {
+
+            log.info("[{}]: No PREPARE message from member: {} for message id: {}. Ignoring PREPROMISE",
+                    context.getNodeName(), proposerNodeId, proposedPrepareMessageId);
+
+            return;
+        }
+
+        // The trusted counter attests every value this node voted for, so none of them can be hidden.
+        // It is asked first, so a PROMISE message it refuses is not promised locally either.
+        TrustedCounter trustedCounter = context.getTrustedCounter();
+        TrustedCounter.PromiseAttestation attestation = null;
+        if (trustedCounter != null) {
+            attestation = trustedCounter.attestPromise(proposedPrepareMessageId, context.getReplicatedLog()::isDecided);
+            if (attestation == null) {
+                log.info("[{}]: Trusted counter refused PROMISE message for id: {}",
+                        context.getNodeName(), proposedPrepareMessageId);
+                return;
+            }
+        }
+
+        context.savePrepareMessage(prepareMessageId, prepare);
+        Promise promise = new Promise(context, proposedPrepareMessageId,
+                proposerNodeId);
+
+        // Report the undecided log slots this node has accepted, so that the new leader
+        // proposes them again instead of overwriting a possibly chosen value
+        promise.setAcceptedSlots(context.getReplicatedLog().getUndecidedAcceptedValues());
+
+        if (attestation != null) {
+            promise.setAttestedSlots(attestation.getSlots());
+            promise.setCounterAttestation(attestation.getAttestation());
+        }
+
+        // Check if there is any saved prepare message id for which accepted was broadcast but
+        // did not get majority votes yet
+        if (context.getLastPrepareMessageIdWithNodeId() != null && context.getCurrentAcceptedPrepareMessageId() != null) {
+            if (context.getLastPrepareMessageIdWithNodeId().equals(context.getCurrentAcceptedPrepareMessageId())) {
+
+                log.info("[{}]: Adding last proposal to PROMISE message to new proposer: {} for message id: {}",
+                        context.getNodeName(), prepare.getProposerNodeName(), promise.getPrepareMessageId());
+
+                // Add the last prepared message to the promise message
+                promise.setLastPrepareMessage(context.getLastPrepareMessage());
+            }
+        }
+
+        log.info("[{}]: Dispatching PROMISE message to proposer: {} for message id: {}",
+                context.getNodeName(), prepare.getProposerNodeName(), promise.getPrepareMessageId());
+        // Dispatch to the proposer, once the promise is durable
+        context.whenDurable(() -> dispatchPromiseMessageToProposer(promise.getProposerNodeId(), promise));
+        this.dispatchedPromiseMessages.put(prepareMessageId, true);
+    }
+
+    /**
+     * Handles all the {@link PreAccepted} messages received from the members.
+     *
+     * @param message PreAccepted message
+     * @throws JsonProcessingException Throws if encounters any error while deserialization
+     */
+    public void handlePreAcceptedMessage(String message) throws JsonProcessingException {
+        PreAccepted preAccepted = PaxosUtils.deserialize(message, PreAccepted.class);
+        log.info("[{}]: Received PREACCEPTED message from member: {} for id: {} and slot: {}",
+                context.getNodeName(), preAccepted.getResponderNodeId(), preAccepted.getProposedPrepareMessageId(),
+                preAccepted.getSlot());
+
+        // The proposer does not take part in the pre-rounds of its own proposal
+        if (preAccepted.getProposerNodeId() == context.getNodeId()) {
+            onPreAcceptedReceived(preAccepted);
+            return;
+        }
+
+        // Parse the identifier
+        long prepareMessageId = PaxosUtils.parsePrepareNumer(
+                preAccepted.getProposedPrepareMessageId()
+        );
+        InstanceKey instanceKey = new InstanceKey(prepareMessageId, preAccepted.getSlot());
+
+        // Increment total no. of PreAccepted for the term, slot and digest
+        recordPreAccepted(instanceKey.withDigest(preAccepted.getDigest()), preAccepted.getResponderNodeId(),
+                preAccepted.getProposedPrepareMessageId());
+
+        dispatchAcceptedIfMajority(instanceKey, preAccepted.getProposedPrepareMessageId());
+    }
+
+    /**
+     * Broadcasts the {@link Accepted} message once majority PREACCEPTED messages are received
+     * for the term and slot.
+     *
+     * @param instanceKey Term and slot
+     * @param prepareMessageId Formatted identifier of the term
+     * @throws JsonProcessingException Throws if encounters error while computing the digest
+     */
+    private void dispatchAcceptedIfMajority(InstanceKey instanceKey, String prepareMessageId) throws JsonProcessingException {
+
+        // Only the votes for the digest of the ACCEPT message received by this node count
+        String digest = this.acceptedDigests.get(instanceKey);
+        if (digest == null) {
+            return;
+        }
+
+        // Check if Majority is achieved. If yes, update the state
+        if (!isByzantineMajorityReceived(preAcceptedVotes, instanceKey.withDigest(digest), Phase.ACCEPT)) {
+            return;
+        }
+
+        dispatchAccepted(instanceKey, prepareMessageId);
+    }
+
+    /**
+     * Broadcasts the {@link Accepted} message for the term and slot, once.
+     *
+     * @param instanceKey Term and slot
+     * @param prepareMessageId Formatted identifier of the term
+     * @throws JsonProcessingException Throws if encounters error while computing the digest
+     */
+    private void dispatchAccepted(InstanceKey instanceKey, String prepareMessageId) throws JsonProcessingException {
+        if (this.dispatchedAcceptedMessages.containsKey(instanceKey)
+                && Boolean.TRUE.equals(this.dispatchedAcceptedMessages.get(instanceKey))) {
+
+
+            log.info("[{}]: Already broadcast ACCEPTED message for message id: {} and slot: {}",
+                    context.getNodeName(), prepareMessageId, instanceKey.getSlot());
+            return;
+        }
+
+        if (instanceKey.getSlot() >= ReplicatedLog.FIRST_SLOT) {
+            dispatchAcceptedForSlot(instanceKey, prepareMessageId);
+            return;
+        }
+
+        // Including the PREPARE message to update state on those members which were not able to connect with
+        // proposer
+        Accepted accepted = new Accepted(context, prepareMessageId,
+                context.getLastPrepareMessage());
+        echoRequestTimestamps(instanceKey, accepted);
+        this.dispatchedAcceptedMessages.put(instanceKey, true);
+
+        if (!attestAccepted(accepted)) {
+            return;
+        }
+
+        if (context.isDistinguishedLearner()) {
+            sendAccepted(accepted, null);
+            return;
+        }
+
+        Proposal proposal = getAcceptedProposal(accepted);
+        if (proposal != null) {
+            String digest = PaxosUtils.digest(prepareMessageId, instanceKey.getSlot(), proposal);
+            if (context.incrementVotesForPrepare(instanceKey.getPrepareMessageId(), context.getNodeId(), digest)) {
+                context.updateState(proposal.getProposedMessage() + " for term: " + prepareMessageId);
+            }
+        }
+        sendAccepted(accepted, null);
+    }
+
+    /**
+     * Broadcasts the {@link Accepted} message for a log slot and counts the vote of this node.
+     *
+     * @param instanceKey Term and slot
+     * @param prepareMessageId Formatted identifier of the term
+     * @throws JsonProcessingException Throws if encounters error while computing the digest
+     */
+    private void dispatchAcceptedForSlot(InstanceKey instanceKey, String prepareMessageId) throws JsonProcessingException {
+        Proposal proposal = context.getReplicatedLog()
+                .getAcceptedValue(instanceKey.getSlot());
+
+        if (proposal == null) {
+            log.info("[{}]: No ACCEPT message received for id: {} and slot: {}. Ignoring PREACCEPTED",
+                    context.getNodeName(), prepareMessageId, instanceKey.getSlot());
+            return;
+        }
+
+        Accepted accepted = new Accepted(context, prepareMessageId, instanceKey.getSlot(), proposal);
+        echoRequestTimestamps(instanceKey, accepted);
+        this.dispatchedAcceptedMessages.put(instanceKey, true);
+
+        if (!attestAccepted(accepted)) {
+            return;
+        }
+
+        if (context.isDistinguishedLearner()) {
+            sendAccepted(accepted, null);
+            return;
+        }
+
+        String digest = PaxosUtils.digest(prepareMessageId, instanceKey.getSlot(), proposal);
+        context.getReplicatedLog().recordAcceptedVote(instanceKey.withDigest(digest), context.getNodeId(), proposal,
+                context.getQuorumSize(Phase.ACCEPT));
+        sendAccepted(accepted, getThriftyAudience(accepted, digest));
+    }
+
+    /**
+     * Returns the members the ACCEPTED message for a log slot is sent to, if the ACCEPT message was sent
+     * to a thrifty quorum only: the quorum and the leader, which announces the decision to the others.
+     * With message authentication the vote carries a MAC for every member, so the leader can forward it.
+     *
+     * @param accepted Accepted message
+     * @param digest Digest of the accepted value
+     * @return Node ids of the audience or null to send to all the members
+     */
+    private List<Integer> getThriftyAudience(Accepted accepted, String digest) {
+        Accept accept = context.getReplicatedLog().getAcceptMessage(accepted.getSlot());
+        if (!context.isThriftyAccepted() || accept == null || accept.getQuorumMemberIds() == null) {
+            return null;
+        }
+
+        MessageAuthenticator authenticator = context.getMessageAuthenticator();
+        if (authenticator != null) {
+            accepted.setAuthenticators(authenticator.authenticateVote(Phase.LEARN,
+                    accepted.getPrepareMessageId(), accepted.getSlot(), digest));
+        }
+
+        List<Integer> audience = new ArrayList<>(accept.getQuorumMemberIds());
+        audience.add(accept.getProposerNodeId());
+        return audience;
+    }
+
+    /**
+     * Sends the {@link Accepted} message of this node to the distinguished learner or to the
+     * members, once the accepted value is durable.
+     *
+     * @param accepted Accepted message
+     * @param audienceNodeIds Node ids of the thrifty quorum and the leader, null to send to all the members
+     */
+    private void sendAccepted(Accepted accepted, List<Integer> audienceNodeIds) {
+        context.whenDurable(() -> {
+            if (!context.isDistinguishedLearner()) {
+                broadcastAcceptedMessage(accepted, audienceNodeIds);
+                return;
+            }
+            try {
+                dispatchAcceptedToLearner(accepted);
+
+            } catch (JsonProcessingException e) {
+                log.error("[{}]: Error dispatching ACCEPTED message to learner for id: {}",
+                        context.getNodeName(), accepted.getPrepareMessageId());
+            }
+        });
+    }
+
+    /**
+     * Dispatches the {@link Accepted} message to the distinguished learner only. With message
+     * authentication the vote carries a MAC for every member, so the learner can forward it.
+     *
+     * @param accepted Accepted message
+     * @throws JsonProcessingException Throws if encounters error while computing the digest
+     */
+    private void dispatchAcceptedToLearner(Accepted accepted) throws JsonProcessingException {
+        MessageAuthenticator authenticator = context.getMessageAuthenticator();
+        if (authenticator != null) {
+            String digest = PaxosUtils.digest(accepted.getPrepareMessageId(), accepted.getSlot(),
+                    getAcceptedProposal(accepted));
+            accepted.setAuthenticators(authenticator.authenticateVote(Phase.LEARN,
+                    accepted.getPrepareMessageId(), accepted.getSlot(), digest));
+        }
+
+        int learnerNodeId = context.getLearnerNodeId();
+        if (learnerNodeId == context.getNodeId()) {
+            learnAccepted(accepted);
+            return;
+        }
+
+        Member learner = context.getMember(learnerNodeId);
+        if (learner == null) {
+            return;
+        }
+        try {
+            log.info("[{}]: Dispatching ACCEPTED message to learner {} for id: {} and slot: {}",
+                    context.getNodeName(), learner.getName(), accepted.getPrepareMessageId(), accepted.getSlot());
+
+            PaxosUtils.dispatch(learner, accepted);
+
+        } catch (IOException e) {
+            log.error("[{}]: Error dispatching ACCEPTED message for prepare message id: {}",
+                    context.getNodeName(), accepted.getPrepareMessageId());
+        }
+    }
+
+    /**
+     * Has the trusted counter attest the ballot and the value of the {@link Accepted} message in
+     * HYBRID mode. The counter refuses a second vote for the same slot in the same or an older ballot.
+     *
+     * @param accepted Accepted message
+     * @return Whether the message may be sent
+     * @throws JsonProcessingException Throws if encounters error while computing the digest
+     */
+    private boolean attestAccepted(Accepted accepted) throws JsonProcessingException {
+        TrustedCounter trustedCounter = context.getTrustedCounter();
+        if (trustedCounter == null) {
+            return true;
+        }
+
+        String digest = PaxosUtils.digest(accepted.getPrepareMessageId(), accepted.getSlot(),
+                getAcceptedProposal(accepted));
+        accepted.setCounterAttestation(trustedCounter.attest(Message.Type.ACCEPTED, accepted.getSlot(),
+                accepted.getPrepareMessageId(), digest));
+
+        if (accepted.getCounterAttestation() == null) {
+            log.info("[{}]: Trusted counter refused ACCEPTED message for id: {} and slot: {}",
+                    context.getNodeName(), accepted.getPrepareMessageId(), accepted.getSlot());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks that the ballot and the value of the {@link Accept} message are attested by the trusted
+     * counter of its proposer. Always true unless in HYBRID mode.
+     *
+     * @param accept Accept message
+     * @return Is attested
+     * @throws JsonProcessingException Throws if encounters error while computing the digest
+     */
+    protected boolean isAttested(Accept accept) throws JsonProcessingException {
+        TrustedCounter trustedCounter = context.getTrustedCounter();
+        if (trustedCounter == null) {
+            return true;
+        }
+
+        String digest = PaxosUtils.digest(accept.getPrepareMessageId(), accept.getSlot(), accept.getProposal());
+        return trustedCounter.verify(Message.Type.ACCEPT, accept.getProposerNodeId(), accept.getSlot(),
+                accept.getPrepareMessageId(), digest, accept.getCounterAttestation());
+    }
+
+    /**
+     * Checks that the ballot and the value of the {@link Accepted} message are attested by the trusted
+     * counter of its responder. Always true unless in HYBRID mode.
+     *
+     * @param accepted Accepted message
+     * @return Is attested
+     * @throws JsonProcessingException Throws if encounters error while computing the digest
+     */
+    private boolean isAttested(Accepted accepted) throws JsonProcessingException {
+        TrustedCounter trustedCounter = context.getTrustedCounter();
+        if (trustedCounter == null) {
+            return true;
+        }
+
+        String digest = PaxosUtils.digest(accepted.getPrepareMessageId(), accepted.getSlot(),
+                getAcceptedProposal(accepted));
+        return trustedCounter.verify(Message.Type.ACCEPTED, accepted.getResponderNodeId(), accepted.getSlot(),
+                accepted.getPrepareMessageId(), digest, accepted.getCounterAttestation());
+    }
+
+    /**
+     * Handles {@link ClientRequest} messages. Followers never propose, so the value
+     * is forwarded to the leader of the promised term, unless it is committed without a leader.
+     *
+     * @param message ClientRequest message
+     * @throws JsonProcessingException Throws if encounters any error while deserialization
+     */
+    public void handleClientRequest(String message) throws JsonProcessingException {
+        ClientRequest clientRequest = PaxosUtils.deserialize(message, ClientRequest.class);
+        if (!proposeCommand(clientRequest)) {
+            forwardClientRequestToLeader(clientRequest);
+        }
+    }
+
+    /**
+     * Commits the value of the {@link ClientRequest} without a leader, with this node as the
+     * command leader, if the council runs in leaderless mode.
+     *
+     * @param clientRequest Client request
+     * @return Whether the value is committed without a leader
+     */
+    protected boolean proposeCommand(ClientRequest clientRequest) {
+        if (commandCoordinator == null) {
+            return false;
+        }
+        commandCoordinator.propose(clientRequest.getValue());
+        return true;
+    }
+
+    /**
+     * Moves the commands led by this node whose fast quorum is late to the slow path.
+     */
+    protected void tickCommands() {
+        if (commandCoordinator != null) {
+            commandCoordinator.tick();
+        }
+    }
+
+    /**
+     * Checks if this node votes for the proposals of the proposer. Nodes which joined or were removed
+     * from the council neither vote nor are voted for.
+     *
+     * @param proposerNodeId Node id of the proposer
+     * @return Is voting
+     */
+    private boolean isVotingFor(int proposerNodeId) {
+        return context.isVotingMember()
+                && (proposerNodeId == context.getNodeId() || context.getMember(proposerNodeId) != null);
+    }
+
+    /**
+     * Handles the {@link Reconfigure} request by forwarding it to the leader, which proposes the
+     * membership change in a log slot. A request is forwarded only once.
+     *
+     * @param message Reconfigure message
+     * @throws JsonProcessingException Thrown if it encounters error while deserialization
+     */
+    protected void handleReconfigure(String message) throws JsonProcessingException {
+        Reconfigure reconfigure = PaxosUtils.deserialize(message, Reconfigure.class);
+        Member leader = context.getMember(context.getLeaderNodeId());
+
+        if (reconfigure.isForwarded() || leader == null || leader.getId() == context.getNodeId()) {
+            log.info("[{}]: No leader to forward the reconfiguration to. Dropping: {}",
+                    context.getNodeName(), reconfigure);
+            return;
+        }
+
+        reconfigure.setForwarded(true);
+        try {
+            log.info("[{}]: Forwarding reconfiguration {} to leader {}", context.getNodeName(), reconfigure, leader.getName());
+            PaxosUtils.dispatch(leader, reconfigure);
+
+        } catch (IOException e) {
+            log.error("[{}]: Error forwarding reconfiguration to leader {}", context.getNodeName(), leader.getName());
+        }
+    }
+
+    /**
+     * Handles the {@link StateRequest} of a member which is behind, or of a joining node. Only the
+     * leader answers, with the delivered log slots from the requested slot on and its last PREPARE
+     * message, so the requester accepts the next values of the term.
+     *
+     * @param message State request message
+     * @throws JsonProcessingException Thrown if it encounters error while deserialization
+     */
+    private void handleStateRequest(String message) throws JsonProcessingException {
+        StateRequest stateRequest = PaxosUtils.deserialize(message, StateRequest.class);
+        if (context.getLeaderNodeId() != context.getNodeId()) {
+            return;
+        }
+
+        // A joining node is not a member yet, it is reached at the address it sent
+        Member requester = context.getMember(stateRequest.getRequesterNodeId());
+        if (requester == null && stateRequest.isJoining()) {
+            requester = context.createMember(new Reconfigure(MembershipChange.ADD, stateRequest.getRequesterNodeId(),
+                    stateRequest.getRequesterNodeName(), stateRequest.getHost(), stateRequest.getPort()));
+        }
+        if (requester == null) {
+            log.info("[{}]: Member: {} is not in the council. Ignoring STATE_REQUEST message",
+                    context.getNodeName(), stateRequest.getRequesterNodeName());
+            return;
+        }
+
+        // Slots truncated from the log are replaced by the snapshot covering them
+        Snapshot snapshot = context.getSnapshotCovering(stateRequest.getFromSlot());
+        long fromSlot = snapshot == null ? stateRequest.getFromSlot() : snapshot.getSlot() + 1;
+
+        Map<Long, Proposal> deliveredValues = context.getReplicatedLog()
+                .getDeliveredValues(fromSlot, MAX_TRANSFERRED_SLOTS);
+        StateTransfer stateTransfer = new StateTransfer(context, deliveredValues);
+        stateTransfer.setSnapshot(snapshot);
+        try {
+            log.info("[{}]: Transferring {} and {} slots from slot {} to member: {}", context.getNodeName(),
+                    snapshot == null ? "no snapshot" : snapshot, deliveredValues.size(), fromSlot, requester.getName());
+            PaxosUtils.dispatch(requester, stateTransfer);
+
+        } catch (IOException e) {
+            log.error("[{}]: Error transferring state to member: {}", context.getNodeName(), requester.getName());
+            return;
+        }
+
+        onStateRequested(stateRequest);
+    }
+
+    /**
+     * Hook called once the leader answered a {@link StateRequest}.
+     *
+     * @param stateRequest State request
+     */
+    protected void onStateRequested(StateRequest stateRequest) {
+    }
+
+    /**
+     * Handles the {@link StateTransfer} of the leader. The transferred slots are decided as they
+     * were decided by the council, and the PREPARE message of the leader is adopted if it is the
+     * highest this node has seen.
+     *
+     * @param message State transfer message
+     * @throws JsonProcessingException Thrown if it encounters error while deserialization
+     */
+    private void handleStateTransfer(String message) throws JsonProcessingException {
+        StateTransfer stateTransfer = PaxosUtils.deserialize(message, StateTransfer.class);
+        if (context.getMember(stateTransfer.getSenderNodeId()) == null
+                || (stateTransfer.getSenderNodeId() != context.getLeaderNodeId() && !context.isJoining())) {
+            log.info("[{}]: Member: {} is not the leader. Ignoring STATE_TRANSFER message",
+                    context.getNodeName(), stateTransfer.getSenderNodeName());
+            return;
+        }
+
+        // The snapshot replaces the slots the leader truncated, the slots after it follow
+        Snapshot snapshot = stateTransfer.getSnapshot();
+        if (snapshot != null && context.installSnapshot(snapshot)) {
+            log.info("[{}]: Installed {} of member: {}", context.getNodeName(), snapshot, stateTransfer.getSenderNodeName());
+        }
+        stateTransfer.getDecidedSlots().forEach(context.getReplicatedLog()::decide);
+
+        Prepare prepare = stateTransfer.getLastPrepareMessage();
+        if (prepare != null) {
+            long prepareMessageId = PaxosUtils.parsePrepareNumer(prepare.getNewPrepareMessageId());
+            if (prepareMessageId > context.getLastPrepareMessageId()) {
+                context.savePrepareMessage(prepareMessageId, prepare);
+                context.updateState(stateTransfer.getState());
+            }
+        }
+
+        log.info("[{}]: Received {} slots from member: {}, next slot to deliver is {}",
+                context.getNodeName(), stateTransfer.getDecidedSlots().size(), stateTransfer.getSenderNodeName(),
+                context.getReplicatedLog().getNextDeliverySlot());
+    }
+
+    /**
+     * Asks for the log slots this node is missing. A joining node asks all the members until it is
+     * added to the council, a member asks the leader once its log made no progress for a while
+     * although higher slots are known.
+     */
+    protected void requestMissingState() {
+        long now = System.currentTimeMillis();
+        if (now - lastStateRequestTime < STATE_REQUEST_INTERVAL_MS) {
+            return;
+        }
+
+        ReplicatedLog replicatedLog = context.getReplicatedLog();
+        long fromSlot = replicatedLog.getNextDeliverySlot();
+        boolean stalled = fromSlot == lastStateRequestSlot && replicatedLog.getHighestKnownSlot() >= fromSlot;
+        lastStateRequestTime = now;
+        lastStateRequestSlot = fromSlot;
+
+        StateRequest stateRequest = new StateRequest(context, fromSlot);
+        if (context.isJoining()) {
+            stateRequest.setJoining(true);
+            stateRequest.setHost(context.getHost());
+            stateRequest.setPort(context.getServerPort());
+
+        } else if (!stalled || context.getLeaderNodeId() == context.getNodeId()) {
+            return;
+        }
+
+        for (Member member : context.getMembers()) {
+            if (member.getId() == context.getNodeId()
+                    || (!context.isJoining() && member.getId() != context.getLeaderNodeId())) {
+                continue;
+            }
+            try {
+                log.info("[{}]: Requesting log slots from slot {} of member: {}",
+                        context.getNodeName(), fromSlot, member.getName());
+                PaxosUtils.dispatch(member, stateRequest);
+
+            } catch (IOException e) {
+                log.error("[{}]: Error requesting state of member: {}", context.getNodeName(), member.getName());
+            }
+        }
+    }
+
+    /**
+     * Forwards the {@link ClientRequest} to the proposer of the last promised PREPARE message.
+     * A request is forwarded only once, so it can never bounce between the members.
+     *
+     * @param clientRequest Client request
+     * @return Whether the request was forwarded
+     */
+    protected boolean forwardClientRequestToLeader(ClientRequest clientRequest) {
+        Prepare lastPrepareMessage = context.getLastPrepareMessage();
+
+        if (clientRequest.isForwarded() || lastPrepareMessage == null
+                || lastPrepareMessage.getProposerNodeId() == context.getNodeId()) {
+
+            log.info("[{}]: No leader to forward the client request to. Dropping value: {}",
+                    context.getNodeName(), clientRequest.getValue());
+            return false;
+        }
+
+        clientRequest.setForwarded(true);
+        for (Member member : context.getMembers()) {
+            if (member.getId() != lastPrepareMessage.getProposerNodeId()) {
+                continue;
+            }
+            try {
+                log.info("[{}]: Forwarding client request to leader {}", context.getNodeName(), member.getName());
+                PaxosUtils.dispatch(member, clientRequest);
+                return true;
+
+            } catch (IOException e) {
+                log.error("[{}]: Error forwarding client request to leader {}",
+                        context.getNodeName(), member.getName());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the PREPARE message of the proposer has to be refused because this node granted
+     * its lease to another leader. The proposer is sent a {@link Reject} message.
+     *
+     * @param proposerNodeId Node id of the proposer
+     * @param prepareMessageId Formatted identifier of the PREPARE message
+     * @return Is refused
+     */
+    private boolean isRefusedByLease(int proposerNodeId, String prepareMessageId) {
+        if (!context.getLeaderLease().isRefusing(proposerNodeId)) {
+            return false;
+        }
+
+        log.info("[{}]: Lease granted to member: {} is still valid. Refusing prepare message id: {}",
+                context.getNodeName(), context.getLeaderLease().getGrantedToNodeId(), prepareMessageId);
+
+        Reject reject = new Reject(context, context.getLastPrepareMessageId(), prepareMessageId);
+        dispatchRejectMessageToProposer(proposerNodeId, reject);
+        return true;
+    }
+
+    /**
+     * Copies the lease request and the dispatch timestamps of the ACCEPT message into the ACCEPTED message.
+     *
+     * @param instanceKey Term and slot
+     * @param accepted Accepted message
+     */
+    private void echoRequestTimestamps(InstanceKey instanceKey, Accepted accepted) {
+        Long leaseRequestTimestamp = this.leaseRequestTimestamps.remove(instanceKey);
+        if (leaseRequestTimestamp != null) {
+            accepted.setLeaseRequestTimestamp(leaseRequestTimestamp);
+        }
+
+        Long dispatchTimestamp = this.dispatchTimestamps.remove(instanceKey);
+        if (dispatchTimestamp != null) {
+            accepted.setAcceptDispatchTimestamp(dispatchTimestamp);
+        }
+    }
+
+    /**
+     * Records a PREACCEPTED vote of the given member.
+     *
+     * @param instanceKey Term, slot and digest of the accepted value
+     * @param responderNodeId Node id of the voter
+     * @param prepareMessageNumber Formatted identifier, used for logging
+     */
+    private void recordPreAccepted(InstanceKey instanceKey, int responderNodeId, String prepareMessageNumber) {
+        int count = preAcceptedVotes.record(instanceKey, responderNodeId);
+
+        log.info("[{}]: Incrementing count for {} id: {} and slot: {} to {}",
+                context.getNodeName(),
+                Message.Type.PREACCEPTED,
+                prepareMessageNumber,
+                instanceKey.getSlot(),
+                count);
+    }
+
+    /**
+     * Checks if received number part of the identifier is higher than the existing
+     * prepare message id.
+     *
+     * @param prepareMessageId Identifier of the received Prepare message
+     * @return Is it higher than existing ids
+     */
+    private boolean isHighestPrepareMessageId(long prepareMessageId) {
+        return prepareMessageId > context.getLastPrepareMessageId();
+    }
+
+    /**
+     * Records a PREPROMISE vote of the given member.
+     *
+     * @param voteKey Term and digest of the PREPARE message
+     * @param responderNodeId Node id of the voter
+     * @param prepareMessageNumber Formatted identifier, used for logging
+     */
+    private void recordPrePromise(InstanceKey voteKey, int responderNodeId, String prepareMessageNumber) {
+        int count = prePromiseVotes.record(voteKey, responderNodeId);
+
+        log.info("[{}]: Incrementing count for {} id: {} to {}",
+                context.getNodeName(),
+                Message.Type.PREPROMISE,
+                prepareMessageNumber,
+                count);
+    }
+
+    /**
+     * Checks if the quorum of the given phase is reached for the key.
+     *
+     * @param votes Votes counted per key
+     * @param key Key the votes are for
+     * @param phase Phase of the protocol
+     * @return Is quorum reached
+     */
+    private <K> boolean isByzantineMajorityReceived(QuorumTracker<K> votes, K key, Phase phase) {
+        return votes.hasQuorum(key, context.getQuorumSize(phase));
+    }
+
+    /**
+     * Checks if the node is a member of the proposer's thrifty quorum.
+     *
+     * @param quorumMemberIds Node ids of the quorum, null if all the members are asked
+     * @param nodeId Node id
+     * @return Is member of the quorum
+     */
+    private static boolean isQuorumMember(List<Integer> quorumMemberIds, int nodeId) {
+        return quorumMemberIds == null || quorumMemberIds.contains(nodeId);
     }
 }
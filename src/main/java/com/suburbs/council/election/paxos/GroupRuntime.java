@@ -0,0 +1,169 @@
+package com.suburbs.council.election.paxos;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.suburbs.council.election.Node;
+import com.suburbs.council.election.paxos.service.MonitoringService;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * GroupRuntime runs many independent councils in one process, one per group id. Unlike the
+ * {@link PaxosDriver}, which gives its council a server, a monitoring thread and a protocol thread,
+ * the councils share one {@link Server} on one port, one timer and one shard per core. A council
+ * then only costs its {@link Context} and its {@link PaxosMember}, no threads of its own.
+ * <br>
+ * Every council is owned by one shard, an event loop thread with its own queue. The member of
+ * the council runs only on its shard, whenever a message is queued for it and on every timer tick,
+ * thus the protocol state of a council is never touched by two shards, and the councils of
+ * different shards are handled in parallel. Heartbeats are sent by a separate pool, so that a slow
+ * connection never stalls a shard.
+ */
+public class GroupRuntime {
+    private static final Logger log = LoggerFactory.getLogger(GroupRuntime.class);
+
+    // Interval of the timers of the members: elections, batches and thrifty timeouts
+    private static final long TICK_MS = 5L;
+
+    private final Server server;
+    private final ScheduledExecutorService timer;
+    private final List<ExecutorService> shards;
+    private final ExecutorService monitors;
+    private final List<Group> groups;
+
+    /**
+     * Constructor.
+     *
+     * @param nodes Current node of every council, all listening on the same port
+     * @throws IOException Thrown if server socket could not be open on the port
+     */
+    public GroupRuntime(List<Node> nodes) throws IOException {
+        if (nodes.stream().map(Node::getPort).distinct().count() != 1) {
+            throw new IllegalArgumentException("All the councils of the process have to listen on the same port");
+        }
+
+        Set<String> groupIds = new HashSet<>();
+        for (Node node : nodes) {
+            if (node.getGroupId() == null || !groupIds.add(node.getGroupId())) {
+                throw new IllegalArgumentException(node.getName() + ": Group id is missing or not unique -> "
+                        + node.getGroupId());
+            }
+        }
+
+        this.server = new Server(nodes.get(0).getPort());
+        this.timer = Executors.newSingleThreadScheduledExecutor();
+        this.monitors = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        this.shards = new ArrayList<>();
+        this.groups = new ArrayList<>();
+
+        int shardCount = Math.min(nodes.size(), Runtime.getRuntime().availableProcessors());
+        for (int shard = 0; shard < shardCount; shard++) {
+            String threadName = "shard-" + shard;
+            shards.add(Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, threadName)));
+        }
+
+        // The councils are spread evenly over the shards
+        for (Node node : nodes) {
+            Context context = new Context(node, node.getMembers());
+            Group group = new Group(context, PaxosDriver.createPaxosMember(node, context),
+                    shards.get(groups.size() % shardCount));
+
+            context.setMonitoringService(group.monitoringService);
+            context.setMessageListener(group::schedule);
+            server.register(context);
+            groups.add(group);
+        }
+    }
+
+    /**
+     * Starts the shared server and the timers of all the councils.
+     */
+    public void start() {
+        server.start();
+
+        groups.forEach(group -> {
+            timer.scheduleWithFixedDelay(group::schedule, 0, TICK_MS, TimeUnit.MILLISECONDS);
+            timer.scheduleWithFixedDelay(() -> monitors.execute(group::monitor),
+                    0, MonitoringService.WAIT_TIME, TimeUnit.MILLISECONDS);
+        });
+
+        log.info("Started {} councils on {} shards on port {}",
+                groups.size(), shards.size(), groups.get(0).context.getServerPort());
+    }
+
+    /**
+     * A council of the runtime, with the shard owning it and the flag coalescing the runs of its member.
+     */
+    private static class Group {
+        private final Context context;
+        private final PaxosMember member;
+        private final MonitoringService monitoringService;
+        private final ExecutorService shard;
+        private final AtomicBoolean scheduled;
+
+        /**
+         * Constructor.
+         *
+         * @param context Context of the council
+         * @param member Paxos member of the council
+         * @param shard Event loop owning the council
+         * @throws JsonProcessingException Thrown if the monitoring service can not be created
+         */
+        Group(Context context, PaxosMember member, ExecutorService shard) throws JsonProcessingException {
+            this.context = context;
+            this.member = member;
+            this.monitoringService = new MonitoringService(context);
+            this.shard = shard;
+            this.scheduled = new AtomicBoolean();
+        }
+
+        /**
+         * Runs the member on its shard, unless it is already scheduled.
+         */
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                shard.execute(this::run);
+            }
+        }
+
+        /**
+         * Runs the member once. Messages queued while it ran schedule it again.
+         */
+        private void run() {
+            try {
+                member.tick();
+
+            } catch (RuntimeException e) {
+                log.error("[{}]: Error running council with exception: {}", context.getNodeName(), e.getMessage());
+
+            } finally {
+                scheduled.set(false);
+            }
+
+            if (!context.getReceivedMessages().isEmpty()) {
+                schedule();
+            }
+        }
+
+        /**
+         * Sends the heartbeats of the council.
+         */
+        private void monitor() {
+            try {
+                monitoringService.tick();
+
+            } catch (RuntimeException e) {
+                log.error("[{}]: Error monitoring council with exception: {}", context.getNodeName(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.suburbs.council.election.paxos;
+
+import java.util.Objects;
+
+/**
+ * Identifies a single consensus instance, i.e. a log slot within the term of
+ * the PREPARE message that made the proposer the leader. Votes of the pre-rounds
+ * are additionally keyed by the digest of the value they vouch for.
+ */
+public final class InstanceKey {
+
+    private final long prepareMessageId;
+    private final long slot;
+    private final String digest;
+
+    /**
+     * Constructor.
+     *
+     * @param prepareMessageId Number part of the PREPARE message identifier
+     * @param slot Log slot
+     */
+    public InstanceKey(long prepareMessageId, long slot) {
+        this(prepareMessageId, slot, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param prepareMessageId Number part of the PREPARE message identifier
+     * @param slot Log slot
+     * @param digest Digest of the ballot and the value
+     */
+    public InstanceKey(long prepareMessageId, long slot, String digest) {
+        this.prepareMessageId = prepareMessageId;
+        this.slot = slot;
+        this.digest = digest;
+    }
+
+    /**
+     * Returns the key of the same instance for the given digest.
+     *
+     * @param digest Digest of the ballot and the value
+     * @return Instance key with digest
+     */
+    public InstanceKey withDigest(String digest) {
+        return new InstanceKey(prepareMessageId, slot, digest);
+    }
+
+    public long getPrepareMessageId() {
+        return prepareMessageId;
+    }
+
+    public long getSlot() {
+        return slot;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof InstanceKey that)) return false;
+        return prepareMessageId == that.prepareMessageId && slot == that.slot
+                && Objects.equals(digest, that.digest);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(prepareMessageId, slot, digest);
+    }
+
+    @Override
+    public String toString() {
+        return prepareMessageId + "/" + slot;
+    }
+}
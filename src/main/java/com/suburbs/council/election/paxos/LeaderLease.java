@@ -0,0 +1,192 @@
+package com.suburbs.council.election.paxos;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * LeaderLease holds both sides of a time-bounded leader lease.
+ * <br>
+ * A member grants the lease to a proposer when it accepts a value of the proposer or
+ * when it receives a lease request in the proposer's heartbeat. Until the grant expires
+ * it refuses the PREPARE messages of every other proposer.
+ * <br>
+ * The leader records, for every grant, the time at which it sent the request that was
+ * granted. The member's grant started after that, so the leader can safely consider
+ * the lease valid until the request time of the quorum-th most recent grant plus the
+ * lease duration, minus a margin for clock drift. While the lease is valid the leader
+ * can answer reads locally.
+ */
+public class LeaderLease {
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    // Origin of the timestamps, so that a valid timestamp is always positive
+    private static final long CLOCK_ORIGIN = System.nanoTime();
+
+    // Fraction of the lease duration the leader gives up to tolerate clock drift
+    private static final double CLOCK_DRIFT_MARGIN = 0.1;
+
+    private final long durationNanos;
+    private final IntUnaryOperator voteWeights;
+
+    // Granter side
+    private int grantedToNodeId = -1;
+    private long grantExpiresAt;
+
+    // Holder side
+    private String heldPrepareMessageId;
+    private final Map<Integer, Long> grantRequestTimestamps;
+    private long readIndex;
+
+    /**
+     * Constructor.
+     *
+     * @param durationMs Lease duration in ms, 0 disables the leases
+     * @param voteWeights Vote weight per node id
+     */
+    public LeaderLease(long durationMs, IntUnaryOperator voteWeights) {
+        this.durationNanos = Math.max(0, durationMs) * NANOS_PER_MILLI;
+        this.voteWeights = voteWeights;
+        this.grantRequestTimestamps = new HashMap<>();
+    }
+
+    /**
+     * Returns the current time of the local monotonic clock. Lease requests are stamped
+     * with this time, and it is echoed back unchanged by the members.
+     *
+     * @return Current timestamp, always positive
+     */
+    public static long now() {
+        return System.nanoTime() - CLOCK_ORIGIN + 1;
+    }
+
+    /**
+     * Checks if the leases are configured.
+     *
+     * @return Is enabled
+     */
+    public boolean isEnabled() {
+        return durationNanos > 0;
+    }
+
+    /**
+     * Grants the lease to the proposer, starting now.
+     *
+     * @param proposerNodeId Node id of the proposer
+     */
+    public synchronized void grant(int proposerNodeId) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        grantedToNodeId = proposerNodeId;
+        grantExpiresAt = now() + durationNanos;
+    }
+
+    /**
+     * Checks if PREPARE messages of the given proposer have to be refused, because the
+     * lease is granted to another proposer and has not expired yet.
+     *
+     * @param proposerNodeId Node id of the proposer
+     * @return Should be refused
+     */
+    public synchronized boolean isRefusing(int proposerNodeId) {
+        return isEnabled()
+                && grantedToNodeId != -1
+                && grantedToNodeId != proposerNodeId
+                && now() < grantExpiresAt;
+    }
+
+    /**
+     * Returns the node id of the proposer holding an unexpired grant of this node.
+     *
+     * @return Node id or -1 if no grant is active
+     */
+    public synchronized int getGrantedToNodeId() {
+        return now() < grantExpiresAt ? grantedToNodeId : -1;
+    }
+
+    /**
+     * Starts collecting the grants for the given term. Grants of the earlier terms are dropped.
+     *
+     * @param prepareMessageId Identifier of the PREPARE message which made this node the leader
+     * @param nodeId Id of this node, which grants the lease to itself
+     */
+    public synchronized void startHolding(String prepareMessageId, int nodeId) {
+        heldPrepareMessageId = prepareMessageId;
+        grantRequestTimestamps.clear();
+        readIndex = 0;
+
+        grant(nodeId);
+    }
+
+    /**
+     * Returns the term this node requests the lease for.
+     *
+     * @return Identifier of the PREPARE message or null if this node is not leading
+     */
+    public synchronized String getHeldPrepareMessageId() {
+        return heldPrepareMessageId;
+    }
+
+    /**
+     * Records a grant of a member.
+     *
+     * @param prepareMessageId Term the grant is for
+     * @param responderNodeId Node id of the member
+     * @param requestTimestamp Time at which this node sent the granted request
+     */
+    public synchronized void recordGrant(String prepareMessageId, int responderNodeId, long requestTimestamp) {
+        if (!isEnabled() || requestTimestamp <= 0 || !prepareMessageId.equals(heldPrepareMessageId)) {
+            return;
+        }
+        grantRequestTimestamps.merge(responderNodeId, requestTimestamp, Math::max);
+    }
+
+    /**
+     * Checks if the lease is held by a quorum of members.
+     *
+     * @param quorumSize Weight of the grants needed
+     * @return Is valid
+     */
+    public synchronized boolean isValid(int quorumSize) {
+        if (!isEnabled() || heldPrepareMessageId == null) {
+            return false;
+        }
+
+        List<Map.Entry<Integer, Long>> grants = new ArrayList<>(grantRequestTimestamps.entrySet());
+        grants.sort(Map.Entry.<Integer, Long>comparingByValue(Comparator.reverseOrder()));
+
+        // The most recent grants are counted until their weight reaches the quorum
+        int grantedWeight = 0;
+        for (Map.Entry<Integer, Long> grant : grants) {
+            grantedWeight += voteWeights.applyAsInt(grant.getKey());
+            if (grantedWeight >= quorumSize) {
+                long usableDuration = (long) (durationNanos * (1 - CLOCK_DRIFT_MARGIN));
+                return now() < grant.getValue() + usableDuration;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets the highest slot opened by this leader. Reads are served only after it is delivered.
+     *
+     * @param slot Log slot
+     */
+    public synchronized void setReadIndex(long slot) {
+        readIndex = Math.max(readIndex, slot);
+    }
+
+    /**
+     * Returns the highest slot opened by this leader.
+     *
+     * @return Read index
+     */
+    public synchronized long getReadIndex() {
+        return readIndex;
+    }
+}
@@ -0,0 +1,307 @@
+package com.suburbs.council.election.paxos;
+
+import com.suburbs.council.election.Member;
+import com.suburbs.council.election.enums.Phase;
+import com.suburbs.council.election.messages.Message;
+import com.suburbs.council.election.messages.SignedFrame;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * MessageAuthenticator signs and verifies the {@link SignedFrame}s exchanged with the members
+ * using HMAC-SHA256. Every pair of members shares its own key, so a member can not forge
+ * the messages of another member, and a verified frame proves its sender.
+ * <br>
+ * The key of a pair is derived once at startup from the <code>sharedKey</code> configured for the
+ * member, or from the <code>clusterSecret</code> and the two node ids if the member has no key of
+ * its own. A key derived from the cluster secret is known to every member holding the secret, thus
+ * the byzantine modes need the shared keys. Keys are only kept for the members of the current
+ * configuration, a node catching up to join is only trusted with its request for the decided slots.
+ */
+public class MessageAuthenticator {
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final int nodeId;
+    private final String clusterSecret;
+    private final Map<Integer, SecretKeySpec> peerKeys;
+    private final ThreadLocal<Mac> macs;
+
+    /**
+     * Constructor.
+     *
+     * @param nodeId Node id of the current node
+     * @param clusterSecret Secret shared by the whole cluster, may be null
+     * @param members Members of the council
+     */
+    public MessageAuthenticator(int nodeId, String clusterSecret, List<Member> members) {
+        this.nodeId = nodeId;
+        this.clusterSecret = clusterSecret;
+        this.peerKeys = new ConcurrentHashMap<>();
+        this.macs = ThreadLocal.withInitial(MessageAuthenticator::newMac);
+
+        for (Member member : members) {
+            String secret = member.getSharedKey() != null ? member.getSharedKey() : clusterSecret;
+            if (secret == null) {
+                throw new IllegalArgumentException("No shared key configured for member: " + member.getName());
+            }
+            peerKeys.put(member.getId(), deriveKey(secret, member.getId()));
+        }
+    }
+
+    /**
+     * Derives the key of a member added to the council, from the cluster secret.
+     *
+     * @param peerNodeId Node id of the added member
+     */
+    public void addPeer(int peerNodeId) {
+        if (clusterSecret != null && peerNodeId != nodeId) {
+            peerKeys.computeIfAbsent(peerNodeId, id -> deriveKey(clusterSecret, id));
+        }
+    }
+
+    /**
+     * Drops the key of a member removed from the council, its frames are no longer accepted.
+     *
+     * @param peerNodeId Node id of the removed member
+     */
+    public void removePeer(int peerNodeId) {
+        peerKeys.remove(peerNodeId);
+    }
+
+    /**
+     * Checks if the node is a member of the current configuration.
+     *
+     * @param peerNodeId Node id of the peer
+     * @return Is member
+     */
+    public boolean isPeer(int peerNodeId) {
+        return peerKeys.containsKey(peerNodeId);
+    }
+
+    /**
+     * Signs the serialized messages for the receiver.
+     *
+     * @param receiverNodeId Node id of the receiver
+     * @param payloads Serialized messages
+     * @return Signed frame
+     */
+    public SignedFrame sign(int receiverNodeId, List<String> payloads) {
+        SecretKeySpec key = getFrameKey(receiverNodeId);
+        if (key == null) {
+            throw new IllegalArgumentException("No key for member: " + receiverNodeId);
+        }
+
+        byte[] mac = computeMac(key, nodeId, receiverNodeId, payloads);
+        return new SignedFrame(nodeId, receiverNodeId, payloads, Base64.getEncoder().encodeToString(mac));
+    }
+
+    /**
+     * Verifies that the frame was signed by its sender for this node.
+     *
+     * @param frame Signed frame
+     * @return Is authentic
+     */
+    public boolean verify(SignedFrame frame) {
+        SecretKeySpec key = getFrameKey(frame.getSenderNodeId());
+        if (key == null || frame.getReceiverNodeId() != nodeId || frame.getMac() == null
+                || frame.getPayloads() == null) {
+            return false;
+        }
+
+        byte[] expected = computeMac(key, frame.getSenderNodeId(), frame.getReceiverNodeId(), frame.getPayloads());
+        try {
+            return MessageDigest.isEqual(expected, Base64.getDecoder().decode(frame.getMac()));
+
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Authenticates a pre-round vote of this node for every member. The proposer forwards the
+     * vote in a {@link com.suburbs.council.election.messages.QuorumCertificate}, and each member
+     * verifies the entry computed with the key it shares with this node.
+     *
+     * @param phase Phase the vote is for
+     * @param prepareMessageId Formatted identifier of the PREPARE message
+     * @param slot Log slot
+     * @param digest Digest of the value voted for
+     * @return MAC per node id of the member
+     */
+    public Map<Integer, String> authenticateVote(Phase phase, String prepareMessageId, long slot, String digest) {
+        Map<Integer, String> authenticators = new HashMap<>();
+        peerKeys.forEach((peerNodeId, key) -> authenticators.put(peerNodeId, Base64.getEncoder()
+                .encodeToString(computeVoteMac(key, nodeId, phase, prepareMessageId, slot, digest))));
+        return authenticators;
+    }
+
+    /**
+     * Verifies the entry of this node in the authenticators of a pre-round vote.
+     *
+     * @param voterNodeId Node id of the voter
+     * @param phase Phase the vote is for
+     * @param prepareMessageId Formatted identifier of the PREPARE message
+     * @param slot Log slot
+     * @param digest Digest of the value voted for
+     * @param authenticators MAC per node id of the member
+     * @return Is authentic
+     */
+    public boolean verifyVote(int voterNodeId, Phase phase, String prepareMessageId, long slot, String digest,
+                              Map<Integer, String> authenticators) {
+        SecretKeySpec key = peerKeys.get(voterNodeId);
+        String mac = authenticators == null ? null : authenticators.get(nodeId);
+        if (key == null || mac == null) {
+            return false;
+        }
+
+        byte[] expected = computeVoteMac(key, voterNodeId, phase, prepareMessageId, slot, digest);
+        try {
+            return MessageDigest.isEqual(expected, Base64.getDecoder().decode(mac));
+
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks that the node ids the message claims for its sender match the authenticated sender.
+     * PREPROMISE, PROMISE, PREACCEPTED and REJECT messages name the proposer they respond to,
+     * thus only their responder is checked. DECIDED messages carry the votes they are verified with,
+     * thus they can be relayed by any member.
+     *
+     * @param messageType Type of the message
+     * @param message Deserialized message
+     * @param senderNodeId Node id of the authenticated sender
+     * @return Is consistent
+     */
+    public static boolean isClaimedBySender(Message.Type messageType, Map<String, Object> message,
+                                            int senderNodeId) {
+        String claimedKey = switch (messageType) {
+            case PREPARE, ACCEPT, QUORUM_CERTIFICATE -> "proposerNodeId";
+            case HEARTBEAT -> "nodeId";
+            case SUBCOUNCIL_ACCEPTED -> "delegateNodeId";
+            case COMMAND_PREACCEPT, COMMAND_PREACCEPT_OK, COMMAND_ACCEPT, COMMAND_ACCEPT_OK,
+                 COMMAND_COMMIT, STATE_TRANSFER -> "senderNodeId";
+            case STATE_REQUEST -> "requesterNodeId";
+            case PREPROMISE, PROMISE, PREACCEPTED, ACCEPTED, REJECT -> "responderNodeId";
+            default -> null;
+        };
+
+        if (claimedKey == null) {
+            return true;
+        }
+
+        Object claimedNodeId = message.get(claimedKey);
+        return claimedNodeId instanceof Number number && number.intValue() == senderNodeId;
+    }
+
+    /**
+     * Computes the MAC of a frame. The direction is part of the input, so a frame can not be
+     * reflected back to its sender.
+     *
+     * @param key Key shared with the peer
+     * @param senderNodeId Node id of the sender
+     * @param receiverNodeId Node id of the receiver
+     * @param payloads Serialized messages
+     * @return MAC
+     */
+    private byte[] computeMac(SecretKeySpec key, int senderNodeId, int receiverNodeId, List<String> payloads) {
+        Mac mac = macs.get();
+        try {
+            mac.init(key);
+
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid key for " + ALGORITHM, e);
+        }
+
+        mac.update((senderNodeId + ">" + receiverNodeId).getBytes(StandardCharsets.UTF_8));
+        for (String payload : payloads) {
+            mac.update((byte) '\n');
+            mac.update(payload.getBytes(StandardCharsets.UTF_8));
+        }
+        return mac.doFinal();
+    }
+
+    /**
+     * Computes the MAC of a pre-round vote. The prefix keeps it apart from the MACs of the frames.
+     *
+     * @param key Key shared with the peer
+     * @param voterNodeId Node id of the voter
+     * @param phase Phase the vote is for
+     * @param prepareMessageId Formatted identifier of the PREPARE message
+     * @param slot Log slot
+     * @param digest Digest of the value voted for
+     * @return MAC
+     */
+    private byte[] computeVoteMac(SecretKeySpec key, int voterNodeId, Phase phase, String prepareMessageId,
+                                  long slot, String digest) {
+        Mac mac = macs.get();
+        try {
+            mac.init(key);
+
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid key for " + ALGORITHM, e);
+        }
+
+        String vote = "vote:" + voterNodeId + ":" + phase + ":" + prepareMessageId + ":" + slot + ":" + digest;
+        return mac.doFinal(vote.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the key the frames exchanged with the peer are signed with. A node catching up to join
+     * the council is not a member yet, its key is derived from the cluster secret for the frame only,
+     * and kept once its addition is applied.
+     *
+     * @param peerNodeId Node id of the peer
+     * @return Key or null if the peer is not a member and there is no cluster secret
+     */
+    private SecretKeySpec getFrameKey(int peerNodeId) {
+        SecretKeySpec key = peerKeys.get(peerNodeId);
+        if (key != null || clusterSecret == null || peerNodeId == nodeId) {
+            return key;
+        }
+        return deriveKey(clusterSecret, peerNodeId);
+    }
+
+    /**
+     * Derives the key shared with the peer. Both members of the pair derive the same key.
+     *
+     * @param secret Configured secret
+     * @param peerNodeId Node id of the peer
+     * @return Key
+     */
+    private SecretKeySpec deriveKey(String secret, int peerNodeId) {
+        String pair = Math.min(nodeId, peerNodeId) + ":" + Math.max(nodeId, peerNodeId);
+
+        Mac mac = macs.get();
+        try {
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Invalid shared key for member: " + peerNodeId, e);
+        }
+        return new SecretKeySpec(mac.doFinal(("council-mac:" + pair).getBytes(StandardCharsets.UTF_8)), ALGORITHM);
+    }
+
+    /**
+     * Creates a new {@link Mac} instance, one is kept per thread.
+     *
+     * @return Mac
+     */
+    private static Mac newMac() {
+        try {
+            return Mac.getInstance(ALGORITHM);
+
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.suburbs.council.election.paxos;
+
+import com.suburbs.council.election.messages.Accepted;
+import com.suburbs.council.election.messages.Message;
+import com.suburbs.council.election.messages.Prepare;
+import com.suburbs.council.election.utils.PaxosUtils;
+import java.io.IOException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Observer is a Member who never votes. It learns the decided values from the ACCEPTED and
+ * DECIDED messages of the voters and serves reads from them, so observers add read capacity
+ * without growing the quorums or the fan-out of the proposer.
+ */
+public class Observer extends Follower {
+    private static final Logger log = LoggerFactory.getLogger(Observer.class);
+
+    private final Context context;
+
+    /**
+     * Constructor.
+     *
+     * @param context Context object holds the resources which are shared among all the threads
+     */
+    public Observer(Context context) {
+        super(context);
+        this.context = context;
+    }
+
+    /**
+     * Dispatches the message to its handler. The messages asking for a vote are ignored.
+     *
+     * @param messageType Type of the message
+     * @param message Message
+     * @throws IOException Throws if encounters any error while handling the message
+     */
+    @Override
+    protected void dispatchMessage(Message.Type messageType, String message) throws IOException {
+        switch (messageType) {
+            case PREPARE, ACCEPT, PREPROMISE, PREACCEPTED, QUORUM_CERTIFICATE, SUBCOUNCIL_ACCEPTED ->
+                    log.trace("[{}]: Observer does not vote. Ignoring {} message", context.getNodeName(), messageType);
+            default -> super.dispatchMessage(messageType, message);
+        }
+    }
+
+    /**
+     * Learns the leader from the ACCEPTED messages of its term, since the PREPARE messages are not
+     * sent to observers. Client requests and state requests are forwarded to it.
+     *
+     * @param accepted Accepted message
+     */
+    @Override
+    protected void onAcceptedReceived(Accepted accepted) {
+        Prepare prepare = accepted.getProposedPrepareMessage();
+        if (accepted.getSlot() >= ReplicatedLog.FIRST_SLOT || prepare == null) {
+            return;
+        }
+
+        long prepareMessageId = PaxosUtils.parsePrepareNumer(prepare.getNewPrepareMessageId());
+        if (prepareMessageId > context.getLastPrepareMessageId()) {
+            context.savePrepareMessage(prepareMessageId, prepare);
+        }
+    }
+}
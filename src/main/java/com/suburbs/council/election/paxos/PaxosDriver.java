@@ -27,12 +27,7 @@ public class PaxosDriver {
         // Context stores all the synchronized resources and will be shared among multiple threads
         this.context = new Context(node, members);
 
-        switch (node.getProfile()) {
-            case FOLLOWER -> this.member = new Follower(context);
-            case CANDIDATE -> this.member = new Candidate(context);
-            default -> throw new IllegalArgumentException(node.getName() + ": Unsupported profile -> "
-                    + node.getProfile());
-        }
+        this.member = createPaxosMember(node, context);
 
         // Initialize sockets.
         this.members
@@ -52,6 +47,32 @@ public class PaxosDriver {
 
     }
 
+    /**
+     * Creates the {@link PaxosMember} of the configured profile.
+     *
+     * @param node Current node object
+     * @param context Context of the node
+     * @return Paxos member
+     */
+    static PaxosMember createPaxosMember(Node node, Context context) {
+        return switch (node.getProfile()) {
+            case FOLLOWER -> new Follower(context);
+            case CANDIDATE -> new Candidate(context);
+            case OBSERVER -> new Observer(context);
+            default -> throw new IllegalArgumentException(node.getName() + ": Unsupported profile -> "
+                    + node.getProfile());
+        };
+    }
+
+    /**
+     * Returns the context of the node, for the tools running councils in process.
+     *
+     * @return Context
+     */
+    public Context getContext() {
+        return context;
+    }
+
     /**
      * Starts multiple services running on separate threads.
      *
@@ -80,8 +101,6 @@ public class PaxosDriver {
      */
     private void startServer() throws IOException {
         Server server = new Server(context);
-        context.setServer(server);
-
         server.start();
     }
 
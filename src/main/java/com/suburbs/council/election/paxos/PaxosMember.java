@@ -4,6 +4,16 @@ public class PaxosMember extends Thread {
 
     @Override
     public void run() {
+        while (!Thread.interrupted()) {
+            tick();
+        }
+    }
+
+    /**
+     * Runs one round of the work of the member: handles the queued messages and the timers.
+     * Runs on the member's own thread, or on a shared worker when several councils share the process.
+     */
+    public void tick() {
         // To be implemented in child classes
     }
 }
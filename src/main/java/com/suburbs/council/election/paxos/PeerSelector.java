@@ -0,0 +1,203 @@
+package com.suburbs.council.election.paxos;
+
+import com.suburbs.council.election.Member;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PeerSelector ranks the members by health and response time, so that the proposer in
+ * thrifty mode can send its messages only to the smallest quorum of the fastest members,
+ * and sends its messages to the fastest members first otherwise.
+ * <br>
+ * The response time of a member is a moving average of the time between dispatching an
+ * ACCEPT message and receiving the member's ACCEPTED message. A member which is persistently
+ * much slower than the typical member is demoted, and ranked after the other responsive members
+ * until its response time recovers. Members which did not respond at all, or whose heartbeats
+ * stopped, are ranked last.
+ */
+public class PeerSelector {
+
+    // Weight of the latest sample in the moving average
+    private static final double ALPHA = 0.25;
+
+    // Three missed heartbeats
+    private static final long SUSPECT_AFTER_NANOS = 15_000_000_000L;
+
+    // A member is demoted once its average is this many times the median of the members, and
+    // restored once it falls below the lower factor. Slower members than the floor are never demoted.
+    private static final double DEMOTE_FACTOR = 4.0;
+    private static final double RESTORE_FACTOR = 2.0;
+    private static final long DEMOTE_FLOOR_NANOS = 10_000_000L;
+
+    // Samples needed before a member can be demoted
+    private static final int MIN_SAMPLES = 5;
+
+    private final List<Member> members;
+    private final long timeoutNanos;
+    private final Map<Integer, Double> responseTimes;
+    private final Map<Integer, Long> lastHeardAt;
+    private final Set<Integer> unresponsiveNodeIds;
+    private final Map<Integer, Integer> sampleCounts;
+    private final Set<Integer> demotedNodeIds;
+
+    /**
+     * Constructor.
+     *
+     * @param members Members of the council
+     * @param timeoutMs Time in ms a quorum gets to respond before the penalty is applied
+     */
+    public PeerSelector(List<Member> members, int timeoutMs) {
+        this.members = members;
+        this.timeoutNanos = timeoutMs * 1_000_000L;
+        this.responseTimes = new ConcurrentHashMap<>();
+        this.lastHeardAt = new ConcurrentHashMap<>();
+        this.unresponsiveNodeIds = ConcurrentHashMap.newKeySet();
+        this.sampleCounts = new ConcurrentHashMap<>();
+        this.demotedNodeIds = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Records that the member is alive.
+     *
+     * @param nodeId Node id of the member
+     */
+    public void recordHeard(int nodeId) {
+        lastHeardAt.put(nodeId, System.nanoTime());
+    }
+
+    /**
+     * Records the response time of the member, and demotes or restores the member.
+     *
+     * @param nodeId Node id of the member
+     * @param responseTimeNanos Time between the request and the response
+     * @return Whether the member was demoted or restored by this sample
+     */
+    public boolean recordResponse(int nodeId, long responseTimeNanos) {
+        recordHeard(nodeId);
+        unresponsiveNodeIds.remove(nodeId);
+        double average = responseTimes.merge(nodeId, (double) responseTimeNanos,
+                (current, sample) -> current + ALPHA * (sample - current));
+
+        if (sampleCounts.merge(nodeId, 1, Integer::sum) < MIN_SAMPLES) {
+            return false;
+        }
+
+        double median = medianResponseTime();
+        if (average > DEMOTE_FLOOR_NANOS && average > DEMOTE_FACTOR * median) {
+            return demotedNodeIds.add(nodeId);
+        }
+        if (average <= DEMOTE_FLOOR_NANOS || average < RESTORE_FACTOR * median) {
+            return demotedNodeIds.remove(nodeId);
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the member is demoted for being persistently slow.
+     *
+     * @param nodeId Node id of the member
+     * @return Is demoted
+     */
+    public boolean isDemoted(int nodeId) {
+        return demotedNodeIds.contains(nodeId);
+    }
+
+    /**
+     * Returns the moving average of the response time of the member.
+     *
+     * @param nodeId Node id of the member
+     * @return Response time in nanos, or -1 if not measured yet
+     */
+    public long getResponseTime(int nodeId) {
+        return responseTimes.getOrDefault(nodeId, -1d).longValue();
+    }
+
+    /**
+     * Penalizes a member which did not respond before the value was decided. The member is
+     * ranked after all the responsive members until it responds again.
+     *
+     * @param nodeId Node id of the member
+     */
+    public void penalize(int nodeId) {
+        unresponsiveNodeIds.add(nodeId);
+    }
+
+    /**
+     * Selects the node ids of the healthiest and fastest members, until their vote weights add
+     * up to the quorum size. Members without any response time yet are assumed to respond at
+     * the timeout.
+     *
+     * @param quorumSize Weight of the members to select
+     * @return Node ids of the selected members
+     */
+    public List<Integer> selectQuorum(int quorumSize) {
+        List<Integer> quorum = new ArrayList<>();
+        int weight = 0;
+        for (Member member : rankMembers()) {
+            if (weight >= quorumSize) {
+                break;
+            }
+            quorum.add(member.getId());
+            weight += member.getVoteWeight();
+        }
+        return quorum;
+    }
+
+    /**
+     * Ranks the voting members, the healthy ones first, then the demoted ones, then the ones which
+     * did not respond, each fastest first. Members without any response time yet are assumed
+     * to respond at the timeout.
+     *
+     * @return Ranked members
+     */
+    public List<Member> rankMembers() {
+        long now = System.nanoTime();
+
+        // Observers never vote, thus they are never sent the messages of the proposer
+        List<Member> ranked = new ArrayList<>(members.stream().filter(member -> !member.isObserver()).toList());
+        ranked.sort(Comparator.<Member>comparingInt(member -> tier(member.getId(), now))
+                .thenComparingDouble(member -> responseTimes.getOrDefault(member.getId(), (double) timeoutNanos)));
+        return ranked;
+    }
+
+    /**
+     * Returns the rank tier of the member.
+     *
+     * @param nodeId Node id of the member
+     * @param now Current time in nanos
+     * @return 0 for healthy, 1 for demoted and 2 for unresponsive members
+     */
+    private int tier(int nodeId, long now) {
+        if (!isHealthy(nodeId, now)) {
+            return 2;
+        }
+        return demotedNodeIds.contains(nodeId) ? 1 : 0;
+    }
+
+    /**
+     * Returns the median of the moving averages of the members measured so far.
+     *
+     * @return Median response time in nanos
+     */
+    private double medianResponseTime() {
+        List<Double> averages = new ArrayList<>(responseTimes.values());
+        averages.sort(Comparator.naturalOrder());
+        return averages.get(averages.size() / 2);
+    }
+
+    /**
+     * Checks if the member responds and its heartbeats did not stop.
+     *
+     * @param nodeId Node id of the member
+     * @param now Current time in nanos
+     * @return Is healthy
+     */
+    private boolean isHealthy(int nodeId, long now) {
+        Long heardAt = lastHeardAt.get(nodeId);
+        return !unresponsiveNodeIds.contains(nodeId) && (heardAt == null || now - heardAt <= SUSPECT_AFTER_NANOS);
+    }
+}
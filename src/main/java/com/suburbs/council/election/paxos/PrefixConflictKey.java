@@ -0,0 +1,20 @@
+package com.suburbs.council.election.paxos;
+
+/**
+ * PrefixConflictKey is the default {@link ConflictKeyFunction}. The key of a value is its
+ * part before the first colon, thus <code>account-1:deposit 10</code> and
+ * <code>account-1:withdraw 5</code> conflict, while values of different accounts commute.
+ * A value without a colon is its own key.
+ */
+public class PrefixConflictKey implements ConflictKeyFunction {
+
+    @Override
+    public String conflictKey(String value) {
+        if (value == null) {
+            return "";
+        }
+
+        int separator = value.indexOf(':');
+        return separator < 0 ? value : value.substring(0, separator);
+    }
+}
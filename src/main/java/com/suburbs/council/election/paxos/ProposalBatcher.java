@@ -0,0 +1,163 @@
+package com.suburbs.council.election.paxos;
+
+import com.suburbs.council.election.messages.Proposal;
+import com.suburbs.council.election.paxos.service.Metrics;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ProposalBatcher accumulates the client values received by the leader, so that
+ * many values are committed in a single ACCEPT/ACCEPTED exchange. The open batch
+ * is closed once it holds {@link Context#getMaxBatchSize()} values or
+ * {@link Context#getMaxBatchBytes()} bytes, or when the oldest value in it waited for
+ * {@link Context#getBatchLingerMs()} milliseconds.
+ */
+public class ProposalBatcher {
+    public static final String BATCH_SIZE = "batch.size";
+    public static final String BATCH_VALUE_LATENCY = "batch.value.latency.us";
+    public static final String BATCH_AMORTIZED_LATENCY = "batch.amortized.latency.us";
+
+    private final int maxBatchSize;
+    private final int maxBatchBytes;
+    private final long lingerMicros;
+    private final Metrics metrics;
+
+    private final Map<Proposal, Batch> closedBatches;
+    private final Map<Long, Batch> inFlightBatches;
+
+    private Batch openBatch;
+
+    /**
+     * Constructor.
+     *
+     * @param context Context object holds the resources which are shared among all the threads
+     */
+    public ProposalBatcher(Context context) {
+        this.maxBatchSize = Math.max(1, context.getMaxBatchSize());
+        this.maxBatchBytes = Math.max(1, context.getMaxBatchBytes());
+        this.lingerMicros = Math.max(0, context.getBatchLingerMs()) * 1_000L;
+        this.metrics = context.getMetrics();
+
+        this.closedBatches = new IdentityHashMap<>();
+        this.inFlightBatches = new HashMap<>();
+    }
+
+    /**
+     * Adds a client value to the open batch.
+     *
+     * @param value Client value
+     * @return Proposal for the batch, if adding the value filled it up, otherwise null
+     */
+    public Proposal add(String value) {
+        long now = currentMicros();
+        int size = value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length;
+
+        // A value which does not fit into the open batch goes into the next one
+        if (openBatch != null && openBatch.bytes + size > maxBatchBytes) {
+            Proposal closed = close();
+            openBatch = new Batch(now);
+            openBatch.add(value, size, now);
+            return closed;
+        }
+
+        if (openBatch == null) {
+            openBatch = new Batch(now);
+        }
+        openBatch.add(value, size, now);
+
+        if (openBatch.values.size() >= maxBatchSize || openBatch.bytes >= maxBatchBytes) {
+            return close();
+        }
+        return null;
+    }
+
+    /**
+     * Closes the open batch if it has lingered long enough.
+     *
+     * @return Proposal for the batch, or null if nothing is due
+     */
+    public Proposal closeIfLingered() {
+        if (openBatch == null || currentMicros() - openBatch.openedAt < lingerMicros) {
+            return null;
+        }
+        return close();
+    }
+
+    /**
+     * Must be called when a slot is opened for the proposal, so the commit latency
+     * of the batch can be measured.
+     *
+     * @param slot Log slot
+     * @param proposal Proposal of the slot
+     */
+    public void onSlotOpened(long slot, Proposal proposal) {
+        Batch batch = closedBatches.remove(proposal);
+        if (batch == null) {
+            return;
+        }
+
+        batch.dispatchedAt = currentMicros();
+        inFlightBatches.put(slot, batch);
+    }
+
+    /**
+     * Must be called once the slot is decided. Records the batch size, the latency of every
+     * value in it and the commit latency amortized over the values of the batch.
+     *
+     * @param slot Decided slot
+     */
+    public void onSlotDecided(long slot) {
+        Batch batch = inFlightBatches.remove(slot);
+        if (batch == null) {
+            return;
+        }
+
+        long now = currentMicros();
+        int size = batch.values.size();
+
+        metrics.histogram(BATCH_SIZE).record(size);
+        metrics.histogram(BATCH_AMORTIZED_LATENCY).record((now - batch.dispatchedAt) / size);
+        batch.arrivals.forEach(arrival -> metrics.histogram(BATCH_VALUE_LATENCY).record(now - arrival));
+    }
+
+    /**
+     * Closes the open batch.
+     *
+     * @return Proposal for the closed batch
+     */
+    private Proposal close() {
+        Proposal proposal = new Proposal(openBatch.values);
+        closedBatches.put(proposal, openBatch);
+        openBatch = null;
+        return proposal;
+    }
+
+    private static long currentMicros() {
+        return System.nanoTime() / 1_000L;
+    }
+
+    /**
+     * Values of a single batch along with their arrival times.
+     */
+    private static class Batch {
+        private final long openedAt;
+        private final List<String> values = new ArrayList<>();
+        private final List<Long> arrivals = new ArrayList<>();
+        private int bytes;
+        private long dispatchedAt;
+
+        private Batch(long openedAt) {
+            this.openedAt = openedAt;
+        }
+
+        private void add(String value, int size, long arrival) {
+            values.add(value);
+            arrivals.add(arrival);
+            bytes += size;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.suburbs.council.election.paxos;
+
+import com.suburbs.council.election.messages.Accept;
+import com.suburbs.council.election.messages.Proposal;
+import com.suburbs.council.election.utils.PaxosUtils;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongPredicate;
+
+/**
+ * ProposalPipeline is used by the leader to keep a window of concurrently in-flight
+ * slots. A new slot is only opened while the no. of undecided slots is below the window
+ * size, so throughput is bounded by the window instead of one round trip per value.
+ * <br>
+ * Slots which have to be proposed again after a change of leadership take precedence
+ * over the new client values. If the slots are owned round-robin, only the slots of this
+ * node are opened.
+ */
+public class ProposalPipeline {
+
+    private final int windowSize;
+    private final Deque<Proposal> pendingValues;
+    private final TreeMap<Long, Accept> recoveredSlots;
+    private final TreeMap<Long, Proposal> inFlightSlots;
+    private final LongPredicate ownedSlots;
+
+    private long nextSlot;
+
+    /**
+     * Constructor.
+     *
+     * @param windowSize Max no. of slots in flight
+     */
+    public ProposalPipeline(int windowSize) {
+        this(windowSize, slot -> true);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param windowSize Max no. of slots in flight
+     * @param ownedSlots Checks if this node may open the slot
+     */
+    public ProposalPipeline(int windowSize, LongPredicate ownedSlots) {
+        this.windowSize = Math.max(1, windowSize);
+        this.ownedSlots = ownedSlots;
+        this.pendingValues = new ArrayDeque<>();
+        this.recoveredSlots = new TreeMap<>();
+        this.inFlightSlots = new TreeMap<>();
+        this.nextSlot = ReplicatedLog.FIRST_SLOT;
+    }
+
+    /**
+     * Queues a client value to be proposed.
+     *
+     * @param proposal Client value
+     */
+    public void submit(Proposal proposal) {
+        pendingValues.add(proposal);
+    }
+
+    /**
+     * Merges a value reported in a PROMISE message. For every slot only the value accepted
+     * in the highest term is kept.
+     *
+     * @param accept Accept message reported by the acceptor
+     */
+    public void recover(Accept accept) {
+        Accept existing = recoveredSlots.get(accept.getSlot());
+        if (existing == null || parseTerm(existing) < parseTerm(accept)) {
+            recoveredSlots.put(accept.getSlot(), accept);
+        }
+    }
+
+    /**
+     * Starts a new term. Slots which were in flight in the previous term are proposed
+     * again, and every undecided slot up to the highest known slot is either re-proposed
+     * with its recovered value or filled with a no-op.
+     *
+     * @param replicatedLog Replicated log of this node
+     * @return Slots to be proposed again in the new term
+     */
+    public Map<Long, Proposal> startTerm(ReplicatedLog replicatedLog) {
+        long firstSlot = replicatedLog.getNextDeliverySlot();
+        long lastSlot = Math.max(replicatedLog.getHighestKnownSlot(),
+                recoveredSlots.isEmpty() ? 0 : recoveredSlots.lastKey());
+        lastSlot = Math.max(lastSlot, inFlightSlots.isEmpty() ? 0 : inFlightSlots.lastKey());
+
+        TreeMap<Long, Proposal> toPropose = new TreeMap<>();
+        for (long slot = firstSlot; slot <= lastSlot; slot++) {
+            if (replicatedLog.isDecided(slot)) {
+                continue;
+            }
+
+            Proposal proposal = recoveredSlots.containsKey(slot)
+                    ? recoveredSlots.get(slot).getProposal()
+                    : inFlightSlots.get(slot);
+
+            if (proposal == null) proposal = replicatedLog.getAcceptedValue(slot);
+            if (proposal == null) proposal = Proposal.noOp();
+
+            toPropose.put(slot, proposal);
+        }
+
+        recoveredSlots.clear();
+        inFlightSlots.clear();
+        inFlightSlots.putAll(toPropose);
+        nextSlot = lastSlot + 1;
+
+        return toPropose;
+    }
+
+    /**
+     * Starts proposing the own slots in a term led by another node. Slots in flight below the first
+     * slot of the owners are proposed by the leader of the term, the others are proposed again.
+     *
+     * @param firstSlot First slot of the term proposed by the owners
+     * @param replicatedLog Replicated log of this node
+     * @return Slots to be proposed again in the new term
+     */
+    public Map<Long, Proposal> startOwnedSlots(long firstSlot, ReplicatedLog replicatedLog) {
+        TreeMap<Long, Proposal> toPropose = new TreeMap<>(inFlightSlots.tailMap(firstSlot));
+        toPropose.keySet().removeIf(replicatedLog::isDecided);
+
+        recoveredSlots.clear();
+        inFlightSlots.clear();
+        inFlightSlots.putAll(toPropose);
+        nextSlot = Math.max(nextSlot, firstSlot);
+
+        return toPropose;
+    }
+
+    /**
+     * Fills the own slots below the given slot, which are not opened yet, with no-ops, so that the
+     * slots proposed by the other owners can be delivered. No-ops do not wait for the window.
+     *
+     * @param slot Slot to skip to
+     * @return Skipped slots
+     */
+    public List<Long> skipTo(long slot) {
+        List<Long> skippedSlots = new ArrayList<>();
+        for (; nextSlot < slot; nextSlot++) {
+            if (ownedSlots.test(nextSlot)) {
+                inFlightSlots.put(nextSlot, Proposal.noOp());
+                skippedSlots.add(nextSlot);
+            }
+        }
+        return skippedSlots;
+    }
+
+    /**
+     * Returns the next slot which may be opened.
+     *
+     * @return Next slot
+     */
+    public long getNextSlot() {
+        return nextSlot;
+    }
+
+    /**
+     * Checks if another slot can be opened.
+     *
+     * @return Is there a free place in the window and a value to propose
+     */
+    public boolean hasNext() {
+        return inFlightSlots.size() < windowSize && !pendingValues.isEmpty();
+    }
+
+    /**
+     * Opens the next slot for the oldest pending value.
+     *
+     * @return Slot and the value to propose in it
+     */
+    public Map.Entry<Long, Proposal> next() {
+        while (!ownedSlots.test(nextSlot)) {
+            nextSlot++;
+        }
+
+        long slot = nextSlot++;
+        Proposal proposal = pendingValues.poll();
+        inFlightSlots.put(slot, proposal);
+        return new AbstractMap.SimpleEntry<>(slot, proposal);
+    }
+
+    /**
+     * Returns the no. of slots in flight.
+     *
+     * @return No. of undecided slots opened by this leader
+     */
+    public int getInFlightCount() {
+        return inFlightSlots.size();
+    }
+
+    /**
+     * Closes the decided slots, making room in the window.
+     *
+     * @param isDecided Predicate telling whether the slot is decided
+     */
+    public void release(LongPredicate isDecided) {
+        inFlightSlots.keySet().removeIf(isDecided::test);
+    }
+
+    /**
+     * Returns the no. of values waiting for a free place in the window.
+     *
+     * @return No. of pending values
+     */
+    public int getPendingCount() {
+        return pendingValues.size();
+    }
+
+    /**
+     * Returns the number part of the term the value was accepted in.
+     *
+     * @param accept Accept message
+     * @return Term number
+     */
+    private static long parseTerm(Accept accept) {
+        return PaxosUtils.parsePrepareNumer(accept.getPrepareMessageId());
+    }
+}
@@ -0,0 +1,92 @@
+package com.suburbs.council.election.paxos;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Predicate;
+
+/**
+ * Tracks the members who responded for a given key. Responses are counted once
+ * per member, so a duplicate message can never push a key over the quorum mark.
+ * A quorum is reached once the vote weights of the responders add up to the quorum size.
+ *
+ * @param <K> Type of the key responses are tracked for
+ */
+public class QuorumTracker<K> {
+
+    private final Map<K, Set<Integer>> responders = new HashMap<>();
+    private final IntUnaryOperator voteWeights;
+
+    /**
+     * Constructor. Every member weighs one vote.
+     */
+    public QuorumTracker() {
+        this(nodeId -> 1);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param voteWeights Vote weight per node id
+     */
+    public QuorumTracker(IntUnaryOperator voteWeights) {
+        this.voteWeights = voteWeights;
+    }
+
+    /**
+     * Records a response for the key.
+     *
+     * @param key Key the response is for
+     * @param responderNodeId Node id of the responder
+     * @return Total no. of distinct responders for the key
+     */
+    public int record(K key, int responderNodeId) {
+        Set<Integer> nodeIds = responders.computeIfAbsent(key, k -> new HashSet<>());
+        nodeIds.add(responderNodeId);
+        return nodeIds.size();
+    }
+
+    /**
+     * Returns the no. of distinct responders for the key.
+     *
+     * @param key Key
+     * @return No. of responders
+     */
+    public int count(K key) {
+        Set<Integer> nodeIds = responders.get(key);
+        return nodeIds == null ? 0 : nodeIds.size();
+    }
+
+    /**
+     * Returns the sum of the vote weights of the responders for the key.
+     *
+     * @param key Key
+     * @return Weight of the responses
+     */
+    public int weight(K key) {
+        Set<Integer> nodeIds = responders.get(key);
+        return nodeIds == null ? 0 : nodeIds.stream().mapToInt(voteWeights::applyAsInt).sum();
+    }
+
+    /**
+     * Checks if the given quorum is reached for the key.
+     *
+     * @param key Key
+     * @param quorumSize Weight of the responses needed
+     * @return Is quorum reached
+     */
+    public boolean hasQuorum(K key, int quorumSize) {
+        return weight(key) >= quorumSize;
+    }
+
+    /**
+     * Removes all the keys matching the predicate.
+     *
+     * @param predicate Predicate on the key
+     */
+    public void removeIf(Predicate<K> predicate) {
+        responders.keySet().removeIf(predicate);
+    }
+}
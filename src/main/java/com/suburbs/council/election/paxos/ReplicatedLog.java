@@ -0,0 +1,269 @@
+package com.suburbs.council.election.paxos;
+
+import com.suburbs.council.election.messages.Accept;
+import com.suburbs.council.election.messages.Proposal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * ReplicatedLog holds the per-slot state of the values proposed after the election.
+ * It keeps the acceptor state (last accepted value per slot), counts the ACCEPTED votes
+ * per slot and delivers decided slots to the {@link DecisionListener}s strictly in order,
+ * even though the leader may have many slots in flight at the same time.
+ */
+public class ReplicatedLog {
+
+    // Slot 0 is reserved for the election itself
+    public static final long FIRST_SLOT = 1L;
+
+    private final Map<Long, Accept> acceptedValues;
+    private final TreeMap<Long, Proposal> decidedValues;
+    private final QuorumTracker<InstanceKey> acceptedVotes;
+    private final List<DecisionListener> decisionListeners;
+
+    private long nextDeliverySlot;
+    private long highestKnownSlot;
+
+    // Last slot covered by a snapshot, the decided values up to it are truncated
+    private long snapshotSlot;
+
+    /**
+     * Constructor.
+     *
+     * @param voteWeights Vote weight per node id
+     */
+    public ReplicatedLog(IntUnaryOperator voteWeights) {
+        acceptedValues = new HashMap<>();
+        decidedValues = new TreeMap<>();
+        acceptedVotes = new QuorumTracker<>(voteWeights);
+        decisionListeners = new CopyOnWriteArrayList<>();
+
+        nextDeliverySlot = FIRST_SLOT;
+        highestKnownSlot = FIRST_SLOT - 1;
+    }
+
+    /**
+     * Registers a listener which will receive decided slots in order.
+     *
+     * @param listener Decision listener
+     */
+    public void addDecisionListener(DecisionListener listener) {
+        decisionListeners.add(listener);
+    }
+
+    /**
+     * Saves the value accepted by this node for the slot of the given {@link Accept} message.
+     *
+     * @param accept Accept message
+     */
+    public synchronized void saveAcceptedValue(Accept accept) {
+        acceptedValues.put(accept.getSlot(), accept);
+        highestKnownSlot = Math.max(highestKnownSlot, accept.getSlot());
+    }
+
+    /**
+     * Returns the value accepted by this node for the slot.
+     *
+     * @param slot Log slot
+     * @return Accepted value or null if nothing was accepted
+     */
+    public synchronized Proposal getAcceptedValue(long slot) {
+        Accept accept = acceptedValues.get(slot);
+        return accept == null ? null : accept.getProposal();
+    }
+
+    /**
+     * Returns the {@link Accept} message whose value this node accepted for the slot.
+     *
+     * @param slot Log slot
+     * @return Accept message or null if nothing was accepted
+     */
+    public synchronized Accept getAcceptMessage(long slot) {
+        return acceptedValues.get(slot);
+    }
+
+    /**
+     * Returns the {@link Accept} messages accepted by this node for the slots which are
+     * not decided yet. These are reported to a new leader in the PROMISE message, so that
+     * values which may have been chosen are proposed again instead of being overwritten.
+     *
+     * @return Accepted but undecided slots
+     */
+    public synchronized List<Accept> getUndecidedAcceptedValues() {
+        List<Accept> undecided = new ArrayList<>();
+        acceptedValues.forEach((slot, accept) -> {
+            if (slot >= nextDeliverySlot && !decidedValues.containsKey(slot)) {
+                undecided.add(accept);
+            }
+        });
+        return undecided;
+    }
+
+    /**
+     * Records an ACCEPTED vote and decides the slot once the votes for the same value reach the
+     * quorum. Votes are counted per digest of the value, so a lying acceptor can not get its own
+     * value decided by casting the last vote.
+     *
+     * @param instanceKey Term, slot and digest of the value the vote is for
+     * @param responderNodeId Node id of the voter
+     * @param proposal Accepted value
+     * @param quorumSize Weight of the votes needed to decide the slot
+     * @return true if this vote decided the slot
+     */
+    public synchronized boolean recordAcceptedVote(InstanceKey instanceKey, int responderNodeId,
+                                                   Proposal proposal, int quorumSize) {
+
+        long slot = instanceKey.getSlot();
+        highestKnownSlot = Math.max(highestKnownSlot, slot);
+
+        if (decidedValues.containsKey(slot) || slot < nextDeliverySlot) {
+            return false;
+        }
+
+        acceptedVotes.record(instanceKey, responderNodeId);
+        if (!acceptedVotes.hasQuorum(instanceKey, quorumSize)) {
+            return false;
+        }
+
+        decide(slot, proposal);
+        return true;
+    }
+
+    /**
+     * Marks the slot as decided and delivers all the contiguous decided slots.
+     *
+     * @param slot Log slot
+     * @param proposal Decided value
+     */
+    public synchronized void decide(long slot, Proposal proposal) {
+        if (slot < nextDeliverySlot || decidedValues.containsKey(slot)) {
+            return;
+        }
+
+        decidedValues.put(slot, proposal);
+        highestKnownSlot = Math.max(highestKnownSlot, slot);
+
+        // Votes of the slot are not needed anymore, for any of the values
+        acceptedVotes.removeIf(key -> key.getSlot() == slot);
+        acceptedValues.remove(slot);
+
+        deliverDecidedSlots();
+    }
+
+    /**
+     * Delivers decided slots to the listeners, stopping at the first gap.
+     */
+    public synchronized void deliverDecidedSlots() {
+        while (decidedValues.containsKey(nextDeliverySlot)) {
+            Proposal proposal = decidedValues.get(nextDeliverySlot);
+            for (DecisionListener listener : decisionListeners) {
+                listener.onDecision(nextDeliverySlot, proposal);
+            }
+            nextDeliverySlot++;
+        }
+    }
+
+    /**
+     * Returns the delivered values from the slot on, to be transferred to a member which is behind.
+     *
+     * @param fromSlot First slot
+     * @param maxSlots Max no. of slots
+     * @return Decided values per slot
+     */
+    public synchronized Map<Long, Proposal> getDeliveredValues(long fromSlot, int maxSlots) {
+        Map<Long, Proposal> delivered = new TreeMap<>();
+        for (Map.Entry<Long, Proposal> entry : decidedValues.tailMap(fromSlot).entrySet()) {
+            if (entry.getKey() >= nextDeliverySlot || delivered.size() >= maxSlots) {
+                break;
+            }
+            delivered.put(entry.getKey(), entry.getValue());
+        }
+        return delivered;
+    }
+
+    /**
+     * Returns the decided values after the slot, delivered or not.
+     *
+     * @param afterSlot Slot the values follow
+     * @return Decided values per slot
+     */
+    public synchronized Map<Long, Proposal> getDecidedValuesAfter(long afterSlot) {
+        return new TreeMap<>(decidedValues.tailMap(afterSlot, false));
+    }
+
+    /**
+     * Drops the decided values up to the slot of a durable snapshot, which replaces them.
+     *
+     * @param slot Last slot of the snapshot
+     */
+    public synchronized void truncate(long slot) {
+        long truncatedSlot = Math.min(slot, nextDeliverySlot - 1);
+        decidedValues.headMap(truncatedSlot, true).clear();
+        snapshotSlot = Math.max(snapshotSlot, truncatedSlot);
+    }
+
+    /**
+     * Skips the log to the slot of a snapshot, when this node restores it or is too far behind to be sent
+     * the slots. The state of the slots up to it is dropped, and the next slots are delivered once the
+     * caller applied the snapshot with {@link #deliverDecidedSlots()}.
+     *
+     * @param slot Last slot of the snapshot
+     * @return Whether the snapshot is ahead of this node
+     */
+    public synchronized boolean installSnapshot(long slot) {
+        if (slot < nextDeliverySlot) {
+            return false;
+        }
+
+        decidedValues.headMap(slot, true).clear();
+        acceptedValues.keySet().removeIf(acceptedSlot -> acceptedSlot <= slot);
+        acceptedVotes.removeIf(key -> key.getSlot() <= slot);
+
+        nextDeliverySlot = slot + 1;
+        highestKnownSlot = Math.max(highestKnownSlot, slot);
+        snapshotSlot = slot;
+        return true;
+    }
+
+    /**
+     * Returns the last slot covered by a snapshot.
+     *
+     * @return Snapshot slot, 0 if the log was never truncated
+     */
+    public synchronized long getSnapshotSlot() {
+        return snapshotSlot;
+    }
+
+    /**
+     * Checks if the slot is decided.
+     *
+     * @param slot Log slot
+     * @return Is decided
+     */
+    public synchronized boolean isDecided(long slot) {
+        return slot < nextDeliverySlot || decidedValues.containsKey(slot);
+    }
+
+    /**
+     * Returns the first slot which is not delivered yet.
+     *
+     * @return Next slot to deliver
+     */
+    public synchronized long getNextDeliverySlot() {
+        return nextDeliverySlot;
+    }
+
+    /**
+     * Returns the highest slot this node has seen in any message.
+     *
+     * @return Highest known slot
+     */
+    public synchronized long getHighestKnownSlot() {
+        return highestKnownSlot;
+    }
+}
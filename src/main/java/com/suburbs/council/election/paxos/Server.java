@@ -1,25 +1,43 @@
 package com.suburbs.council.election.paxos;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.suburbs.council.election.messages.GroupFrame;
 import com.suburbs.council.election.messages.Message;
+import com.suburbs.council.election.messages.SignedFrame;
 import com.suburbs.council.election.utils.PaxosUtils;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.PrintWriter;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * This class runs on a separate thread and is responsible for receiving requests
  * from other member nodes and dispatching them to the appropriate services.
+ * <br>
+ * Several councils may share the server. Their messages arrive in {@link GroupFrame}s
+ * and are handed to the {@link Context} registered for the group id, messages without
+ * a frame belong to the council without a group id.
  */
 public class Server extends Thread {
     private static final Logger log = LoggerFactory.getLogger(Server.class);
 
-    private static Context context;
+    public static final String AUTH_VERIFY_LATENCY = "auth.verify.latency.us";
+    public static final String AUTH_REJECTED = "auth.rejected";
+
+    // Key of the council without a group id
+    private static final String DEFAULT_GROUP = "";
+
+    private final Map<String, Context> contexts;
+    private final ExecutorService verificationPool;
     private final ServerSocket serverSocket;
 
     /**
@@ -30,8 +48,33 @@ public class Server extends Thread {
      *          could not be opened
      */
     public Server(Context context) throws IOException {
-        this.context = context;
-        serverSocket = new ServerSocket(context.getServerPort());
+        this(context.getServerPort());
+        register(context);
+    }
+
+    /**
+     * Constructor of a server shared by several councils, which are registered afterwards.
+     *
+     * @param port Port to listen on
+     * @throws IOException Thrown if port number is invalid or socket on that port
+     *          could not be opened
+     */
+    public Server(int port) throws IOException {
+        contexts = new ConcurrentHashMap<>();
+        serverSocket = new ServerSocket(port);
+
+        // Signed frames are verified ahead of the protocol thread, in parallel
+        verificationPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Registers the council, so that the messages of its group id are delivered to it.
+     *
+     * @param context Context of the council
+     */
+    public void register(Context context) {
+        contexts.put(context.getGroupId() == null ? DEFAULT_GROUP : context.getGroupId(), context);
+        context.setServer(this);
     }
 
     /**
@@ -57,9 +100,7 @@ public class Server extends Thread {
      * This class handles a single client connection to the {@link #serverSocket} and
      * handles the received message by delivering it to appropriate service.
      */
-    private static class RequestHandler extends Thread {
-        private static final Logger log = LoggerFactory.getLogger(RequestHandler.class);
-
+    private class RequestHandler extends Thread {
         private final Socket socket;
 
         /**
@@ -79,7 +120,7 @@ public class Server extends Thread {
                         new InputStreamReader(socket.getInputStream())
                 );
                 while ((incomingMessage = in.readLine()) != null) {
-                    dispatchMessage(incomingMessage);
+                    dispatchMessage(incomingMessage, contexts.get(DEFAULT_GROUP));
                 }
 
             } catch (IOException | InterruptedException e) {
@@ -87,15 +128,137 @@ public class Server extends Thread {
             }
         }
 
-        private void dispatchMessage(String incomingMessage) throws InterruptedException, JsonProcessingException {
+        /**
+         * Dispatches the message to the council it belongs to.
+         *
+         * @param incomingMessage Serialized message
+         * @param context Context of the council, null if there is no council without a group id
+         * @throws InterruptedException Thrown if interrupted while queueing the message
+         * @throws JsonProcessingException Throws if encounters error while deserialization
+         */
+        private void dispatchMessage(String incomingMessage, Context context)
+                throws InterruptedException, JsonProcessingException {
 
             Map<String, Object> message = PaxosUtils.deserialize(incomingMessage, Map.class);
             String messageType = (String) message.get(Message.MESSAGE_TYPE_KEY);
             Message.Type messageTypeEnum = Message.Type.valueOf(messageType);
 
+            if (messageTypeEnum == Message.Type.GROUP_FRAME) {
+                GroupFrame frame = PaxosUtils.deserialize(incomingMessage, GroupFrame.class);
+                Context groupContext = frame.getGroupId() == null ? null : contexts.get(frame.getGroupId());
+                if (groupContext == null) {
+                    log.warn("Dropping message of unknown group: {}", frame.getGroupId());
+                    return;
+                }
+                dispatchMessage(frame.getPayload(), groupContext);
+                return;
+            }
+
+            if (context == null) {
+                log.warn("Dropping {} message without a group id", messageTypeEnum);
+                return;
+            }
+
             switch (messageTypeEnum) {
-                case HEARTBEAT -> context.putHeartBeatMessages(incomingMessage);
-                default -> context.putIncomingMessageToQueue(incomingMessage);
+                case READ_REQUEST -> respondToRead(context);
+                case SIGNED_FRAME -> verificationPool.execute(() -> verifyFrame(incomingMessage, context));
+                default -> {
+                    // Only the clients may send unsigned messages once the messages are authenticated
+                    if (context.getMessageAuthenticator() != null && messageTypeEnum != Message.Type.CLIENT_REQUEST) {
+                        log.warn("[{}]: Dropping unsigned {} message", context.getNodeName(), messageTypeEnum);
+                        context.getMetrics().increment(AUTH_REJECTED, 1);
+                        return;
+                    }
+                    deliverMessage(messageTypeEnum, incomingMessage, context);
+                }
+            }
+        }
+
+        /**
+         * Verifies the {@link SignedFrame} and delivers its messages. A frame with an invalid MAC,
+         * or carrying a message which claims to be sent by another member, is dropped.
+         *
+         * @param incomingFrame Serialized signed frame
+         * @param context Context of the council
+         */
+        private void verifyFrame(String incomingFrame, Context context) {
+            MessageAuthenticator authenticator = context.getMessageAuthenticator();
+            try {
+                long startedAt = System.nanoTime();
+                SignedFrame frame = PaxosUtils.deserialize(incomingFrame, SignedFrame.class);
+
+                if (authenticator == null || !authenticator.verify(frame)) {
+                    log.warn("[{}]: Dropping frame with invalid MAC from member: {}",
+                            context.getNodeName(), frame.getSenderNodeId());
+                    context.getMetrics().increment(AUTH_REJECTED, 1);
+                    return;
+                }
+
+                for (String payload : frame.getPayloads()) {
+                    Map<String, Object> message = PaxosUtils.deserialize(payload, new TypeReference<>() {});
+                    Message.Type messageType = Message.Type.valueOf((String) message.get(Message.MESSAGE_TYPE_KEY));
+
+                    // A node which is not a member yet may only ask for the decided slots to join
+                    if (!authenticator.isPeer(frame.getSenderNodeId()) && messageType != Message.Type.STATE_REQUEST) {
+                        log.warn("[{}]: Dropping {} message of node: {} which is not a member",
+                                context.getNodeName(), messageType, frame.getSenderNodeId());
+                        context.getMetrics().increment(AUTH_REJECTED, 1);
+                        continue;
+                    }
+
+                    if (!MessageAuthenticator.isClaimedBySender(messageType, message, frame.getSenderNodeId())) {
+                        log.warn("[{}]: Dropping {} message not sent by the claimed member, sender: {}",
+                                context.getNodeName(), messageType, frame.getSenderNodeId());
+                        context.getMetrics().increment(AUTH_REJECTED, 1);
+                        continue;
+                    }
+                    deliverMessage(messageType, payload, context);
+                }
+
+                context.getMetrics().histogram(AUTH_VERIFY_LATENCY).record((System.nanoTime() - startedAt) / 1000);
+
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                log.error("[{}]: Error verifying frame: {}", context.getNodeName(), e.getMessage());
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Delivers the message to the service handling it.
+         *
+         * @param messageType Type of the message
+         * @param message Serialized message
+         * @param context Context of the council
+         * @throws InterruptedException Thrown if interrupted while queueing the message
+         * @throws JsonProcessingException Throws if encounters error while deserialization
+         */
+        private void deliverMessage(Message.Type messageType, String message, Context context)
+                throws InterruptedException, JsonProcessingException {
+
+            context.getMetrics().increment("messages.received." + messageType, 1);
+
+            switch (messageType) {
+                case HEARTBEAT -> context.putHeartBeatMessages(message);
+                default -> context.putIncomingMessageToQueue(message);
+            }
+        }
+
+        /**
+         * Answers the read locally on this connection, without involving the protocol thread.
+         *
+         * @param context Context of the council
+         * @throws JsonProcessingException Throws if encounters error while serialization
+         */
+        private void respondToRead(Context context) throws JsonProcessingException {
+            String response = PaxosUtils.serialize(context.read());
+            try {
+                PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+                out.println(response);
+
+            } catch (IOException e) {
+                log.error("Error responding to read: {}", e.getMessage());
             }
         }
     }
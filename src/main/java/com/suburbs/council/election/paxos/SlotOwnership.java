@@ -0,0 +1,56 @@
+package com.suburbs.council.election.paxos;
+
+import java.util.List;
+
+/**
+ * SlotOwnership assigns the log slots round-robin to the configured candidates, so that every
+ * candidate proposes the values of its own clients in its own slots, instead of the leader
+ * proposing all of them. The owners are ordered by their node id, thus every node derives the
+ * same owner of a slot without any coordination.
+ * <br>
+ * The election still runs as before. The leader of a term proposes the slots recovered from the
+ * previous terms, and the slots of the owners it revoked for the term. All the other slots of the
+ * term are proposed by their owners, without a prepare phase of their own.
+ */
+public class SlotOwnership {
+
+    private final List<Integer> ownerNodeIds;
+
+    /**
+     * Constructor.
+     *
+     * @param ownerNodeIds Node ids of the candidates owning the slots
+     */
+    public SlotOwnership(List<Integer> ownerNodeIds) {
+        this.ownerNodeIds = ownerNodeIds.stream().distinct().sorted().toList();
+    }
+
+    /**
+     * Returns the node ids of the owners.
+     *
+     * @return Owner node ids ordered by node id
+     */
+    public List<Integer> getOwnerNodeIds() {
+        return ownerNodeIds;
+    }
+
+    /**
+     * Checks if the node owns slots.
+     *
+     * @param nodeId Node id
+     * @return Is owner
+     */
+    public boolean isOwner(int nodeId) {
+        return ownerNodeIds.contains(nodeId);
+    }
+
+    /**
+     * Returns the owner of the log slot.
+     *
+     * @param slot Log slot
+     * @return Node id of the owner
+     */
+    public int getOwner(long slot) {
+        return ownerNodeIds.get((int) ((slot - ReplicatedLog.FIRST_SLOT) % ownerNodeIds.size()));
+    }
+}
@@ -0,0 +1,149 @@
+package com.suburbs.council.election.paxos;
+
+import com.suburbs.council.election.messages.Snapshot;
+import com.suburbs.council.election.paxos.service.Metrics;
+import com.suburbs.council.election.utils.PaxosUtils;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Snapshotter writes the snapshots of the applied state on its own thread. The protocol thread only
+ * takes the cut, a copy of the few fields of the applied state at a slot, and hands it over. Once a
+ * snapshot is durable it is handed back, and the protocol thread truncates the log it covers.
+ * <br>
+ * A snapshot is written to a temporary file, forced and renamed over the previous one, so a crash
+ * leaves either the previous or the new snapshot. Without a directory the snapshots are kept in
+ * memory only, the log is still truncated and lagging members are sent the snapshot instead.
+ */
+public class Snapshotter {
+    private static final Logger log = LoggerFactory.getLogger(Snapshotter.class);
+
+    // Time taken to write and force one snapshot, and the no. of snapshots taken
+    public static final String WRITE_LATENCY = "snapshot.write.latency.us";
+    public static final String SNAPSHOTS_TAKEN = "snapshot.taken";
+
+    private final Path path;
+    private final Metrics metrics;
+    private final ExecutorService writer;
+    private final AtomicBoolean writing;
+    private final Queue<Snapshot> durableSnapshots;
+
+    // Latest durable snapshot, sent to the members which are behind it
+    private volatile Snapshot latest;
+
+    /**
+     * Constructor.
+     *
+     * @param directory Directory of the snapshot file, null to keep the snapshots in memory only
+     * @param nodeId Node id of the current node, which names the file
+     * @param metrics Metrics of the node
+     */
+    public Snapshotter(String directory, int nodeId, Metrics metrics) {
+        this.path = directory == null ? null : Paths.get(directory, "node-" + nodeId + ".snapshot");
+        this.metrics = metrics;
+        this.writing = new AtomicBoolean();
+        this.durableSnapshots = new ConcurrentLinkedQueue<>();
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-" + nodeId);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Reads the snapshot of the previous run.
+     *
+     * @return Snapshot or null if none was written
+     * @throws IOException Thrown if the snapshot file can not be read
+     */
+    public Snapshot load() throws IOException {
+        if (path == null || !Files.exists(path)) {
+            return null;
+        }
+        latest = PaxosUtils.deserialize(Files.readString(path, StandardCharsets.UTF_8), Snapshot.class);
+        return latest;
+    }
+
+    /**
+     * Writes the snapshot on the writer thread, unless the previous one is still being written,
+     * in which case the cut is skipped and the next one covers its slots.
+     *
+     * @param snapshot Cut of the applied state
+     * @return Whether the snapshot is written
+     */
+    public boolean take(Snapshot snapshot) {
+        if (!writing.compareAndSet(false, true)) {
+            return false;
+        }
+        writer.execute(() -> write(snapshot));
+        return true;
+    }
+
+    /**
+     * Writes and forces the snapshot, and hands it back to the protocol thread.
+     *
+     * @param snapshot Snapshot
+     */
+    private void write(Snapshot snapshot) {
+        long startedAt = System.nanoTime();
+        try {
+            if (path != null) {
+                Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+                Files.createDirectories(path.getParent());
+
+                try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    ByteBuffer buffer = ByteBuffer.wrap(PaxosUtils.serialize(snapshot).getBytes(StandardCharsets.UTF_8));
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    channel.force(true);
+                }
+                Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+
+            metrics.histogram(WRITE_LATENCY).record((System.nanoTime() - startedAt) / 1000);
+            metrics.increment(SNAPSHOTS_TAKEN, 1);
+            latest = snapshot;
+            durableSnapshots.add(snapshot);
+
+        } catch (IOException e) {
+            log.error("Error writing {} to {} with exception: {}", snapshot, path, e.getMessage());
+
+        } finally {
+            writing.set(false);
+        }
+    }
+
+    /**
+     * Returns the next snapshot which became durable, to truncate the log it covers.
+     *
+     * @return Snapshot or null if none
+     */
+    public Snapshot pollDurable() {
+        return durableSnapshots.poll();
+    }
+
+    /**
+     * Returns the latest durable snapshot.
+     *
+     * @return Snapshot or null if none was taken
+     */
+    public Snapshot getLatest() {
+        return latest;
+    }
+}
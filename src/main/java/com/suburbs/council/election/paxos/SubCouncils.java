@@ -0,0 +1,172 @@
+package com.suburbs.council.election.paxos;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * SubCouncils groups the nodes of a large council into the configured sub-councils. The log
+ * entries are voted on in two levels: a sub-council accepts an entry once a majority of its vote
+ * weight accepted it, and the entry is decided once a majority of the sub-councils accepted it.
+ * Any two such quorums intersect, since two majorities of the sub-councils share a sub-council,
+ * whose two local majorities share a node.
+ * <br>
+ * Every sub-council is represented by its delegate, the live node with the lowest node id, thus
+ * every node derives the same delegate without any coordination. The leader talks to the delegates
+ * only, and every delegate talks to its own sub-council.
+ */
+public class SubCouncils {
+
+    private final int nodeId;
+    private final String subCouncil;
+    private final Map<String, List<Integer>> nodeIdsPerSubCouncil;
+    private final Map<Integer, String> subCouncilPerNodeId;
+    private final IntUnaryOperator voteWeights;
+    private final IntPredicate suspected;
+
+    /**
+     * Constructor.
+     *
+     * @param nodeId Node id of the current node
+     * @param subCouncilPerNodeId Sub-council per node id of all the nodes, including the current node
+     * @param voteWeights Vote weight per node id
+     * @param suspected Checks if the node with the given id is suspected to have failed
+     */
+    public SubCouncils(int nodeId, Map<Integer, String> subCouncilPerNodeId, IntUnaryOperator voteWeights,
+                       IntPredicate suspected) {
+        this.nodeId = nodeId;
+        this.subCouncil = subCouncilPerNodeId.get(nodeId);
+        this.subCouncilPerNodeId = new HashMap<>(subCouncilPerNodeId);
+        this.voteWeights = voteWeights;
+        this.suspected = suspected;
+
+        this.nodeIdsPerSubCouncil = new TreeMap<>();
+        subCouncilPerNodeId.forEach((id, name) ->
+                nodeIdsPerSubCouncil.computeIfAbsent(name, k -> new ArrayList<>()).add(id));
+        nodeIdsPerSubCouncil.values().forEach(nodeIds -> nodeIds.sort(null));
+    }
+
+    /**
+     * Returns the sub-council of the current node.
+     *
+     * @return Name of the sub-council
+     */
+    public String getSubCouncil() {
+        return subCouncil;
+    }
+
+    /**
+     * Returns the sub-council of the node.
+     *
+     * @param memberNodeId Node id
+     * @return Name of the sub-council or null if the node is unknown
+     */
+    public String getSubCouncil(int memberNodeId) {
+        return subCouncilPerNodeId.get(memberNodeId);
+    }
+
+    /**
+     * Returns the names of all the sub-councils.
+     *
+     * @return Names of the sub-councils
+     */
+    public Collection<String> getSubCouncils() {
+        return nodeIdsPerSubCouncil.keySet();
+    }
+
+    /**
+     * Returns the node ids of the sub-council, including the current node if it belongs to it.
+     *
+     * @param name Name of the sub-council
+     * @return Node ids ordered by node id
+     */
+    public List<Integer> getNodeIds(String name) {
+        return nodeIdsPerSubCouncil.getOrDefault(name, List.of());
+    }
+
+    /**
+     * Returns the delegate of the sub-council, the node with the lowest node id which is not
+     * suspected to have failed.
+     *
+     * @param name Name of the sub-council
+     * @return Node id of the delegate
+     */
+    public int getDelegate(String name) {
+        List<Integer> nodeIds = getNodeIds(name);
+        return nodeIds.stream()
+                .filter(id -> id == nodeId || !suspected.test(id))
+                .findFirst()
+                .orElse(nodeIds.get(0));
+    }
+
+    /**
+     * Returns the weight of the votes the sub-council accepts a value with, the majority of its vote weight.
+     *
+     * @param name Name of the sub-council
+     * @return Local quorum size
+     */
+    public int getLocalQuorumSize(String name) {
+        return getNodeIds(name).stream().mapToInt(voteWeights::applyAsInt).sum() / 2 + 1;
+    }
+
+    /**
+     * Returns the no. of sub-councils which have to accept a value to decide it.
+     *
+     * @return Global quorum size
+     */
+    public int getGlobalQuorumSize() {
+        return nodeIdsPerSubCouncil.size() / 2 + 1;
+    }
+
+    /**
+     * Returns the weight of the smallest two-level quorum, the local quorums of the smallest
+     * sub-councils which make up the global quorum. The prepare phase has to collect more than
+     * the weight of all the other nodes to intersect every two-level quorum.
+     *
+     * @return Weight of the smallest quorum
+     */
+    public int getMinimumQuorumWeight() {
+        return nodeIdsPerSubCouncil.keySet()
+                .stream()
+                .mapToInt(this::getLocalQuorumSize)
+                .sorted()
+                .limit(getGlobalQuorumSize())
+                .sum();
+    }
+
+    /**
+     * Checks if the voters of the sub-council reach its local quorum. Voters of other
+     * sub-councils are not counted.
+     *
+     * @param name Name of the sub-council
+     * @param voterNodeIds Node ids of the voters
+     * @return Is local quorum
+     */
+    public boolean isLocalQuorum(String name, Collection<Integer> voterNodeIds) {
+        int weight = voterNodeIds.stream()
+                .distinct()
+                .filter(id -> name.equals(subCouncilPerNodeId.get(id)))
+                .mapToInt(voteWeights::applyAsInt)
+                .sum();
+        return weight >= getLocalQuorumSize(name);
+    }
+
+    /**
+     * Checks if the voters reach the local quorum of a majority of the sub-councils.
+     *
+     * @param voterNodeIds Node ids of the voters
+     * @return Is two-level quorum
+     */
+    public boolean isQuorum(Collection<Integer> voterNodeIds) {
+        long accepted = nodeIdsPerSubCouncil.keySet()
+                .stream()
+                .filter(name -> isLocalQuorum(name, voterNodeIds))
+                .count();
+        return accepted >= getGlobalQuorumSize();
+    }
+}
@@ -0,0 +1,220 @@
+package com.suburbs.council.election.paxos;
+
+import com.suburbs.council.election.messages.Message;
+import com.suburbs.council.election.utils.PaxosUtils;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongPredicate;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * TrustedCounter is a software stand-in for a tamper-evident monotonic counter, the trusted
+ * component of the hybrid fault model. It attests the ballot and the value of the ACCEPT and the
+ * ACCEPTED messages of this node, and keeps one counter per message type and log slot, which only
+ * moves forward. A faulty node thus can not get two values attested for the same ballot and slot,
+ * and can not go back to an older ballot, so it can not tell different members different things.
+ * <br>
+ * The component also remembers the last value this node voted for in every undecided slot, and
+ * attests all of them in the PROMISE message of this node, so that a faulty node can not hide a
+ * value which may have been chosen from a new leader.
+ * <br>
+ * The attestations are MACs with the key of the trusted components, which the protocol code never
+ * sees. In this stand-in the key is derived from the configured secret, a deployment would keep it
+ * in the trusted hardware.
+ */
+public class TrustedCounter {
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final int nodeId;
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+
+    // Highest ballot attested per message type and slot
+    private final Map<String, Long> counters;
+
+    // Digest of the last value voted for per undecided log slot
+    private final TreeMap<Long, String> acceptedDigests;
+
+    /**
+     * Constructor.
+     *
+     * @param nodeId Node id of the current node
+     * @param secret Secret the key of the trusted components is derived from
+     */
+    public TrustedCounter(int nodeId, String secret) {
+        this.nodeId = nodeId;
+        this.macs = ThreadLocal.withInitial(TrustedCounter::newMac);
+        this.counters = new HashMap<>();
+        this.acceptedDigests = new TreeMap<>();
+
+        Mac mac = macs.get();
+        try {
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Invalid trusted counter secret", e);
+        }
+        this.key = new SecretKeySpec(mac.doFinal("council-counter".getBytes(StandardCharsets.UTF_8)), ALGORITHM);
+    }
+
+    /**
+     * Attests the ballot and the value of an ACCEPT or ACCEPTED message of this node. The counter of
+     * the message type and slot moves to the ballot, thus it is refused if the ballot is not higher
+     * than the last ballot attested for the slot.
+     *
+     * @param messageType ACCEPT or ACCEPTED
+     * @param slot Log slot, 0 for the election
+     * @param prepareMessageId Formatted identifier of the ballot
+     * @param digest Digest of the value
+     * @return Attestation or null if refused
+     */
+    public synchronized String attest(Message.Type messageType, long slot, String prepareMessageId, String digest) {
+        long ballot = PaxosUtils.parsePrepareNumer(prepareMessageId);
+        Long counter = counters.get(messageType + ":" + slot);
+        if (counter != null && ballot <= counter) {
+            return null;
+        }
+
+        counters.put(messageType + ":" + slot, ballot);
+        if (messageType == Message.Type.ACCEPTED && slot >= ReplicatedLog.FIRST_SLOT) {
+            acceptedDigests.put(slot, digest);
+        }
+        return computeMac(nodeId, messageType, slot, prepareMessageId, digest);
+    }
+
+    /**
+     * Attests the PROMISE message of this node for the ballot, covering the last value voted for in
+     * every undecided slot. Decided slots are forgotten.
+     *
+     * @param prepareMessageId Formatted identifier of the promised ballot
+     * @param decided Checks if the log slot is decided
+     * @return Attestation or null if a higher ballot was promised already
+     */
+    public synchronized PromiseAttestation attestPromise(String prepareMessageId, LongPredicate decided) {
+        acceptedDigests.keySet().removeIf(decided::test);
+
+        Map<Long, String> slots = new TreeMap<>(acceptedDigests);
+        String mac = attest(Message.Type.PROMISE, 0, prepareMessageId, digest(slots));
+        return mac == null ? null : new PromiseAttestation(slots, mac);
+    }
+
+    /**
+     * Verifies the attestation of a message by the trusted component of its sender.
+     *
+     * @param messageType Type of the message
+     * @param senderNodeId Node id of the sender
+     * @param slot Log slot, 0 for the election
+     * @param prepareMessageId Formatted identifier of the ballot
+     * @param digest Digest of the value
+     * @param attestation Attestation carried by the message
+     * @return Is attested
+     */
+    public boolean verify(Message.Type messageType, int senderNodeId, long slot, String prepareMessageId,
+                          String digest, String attestation) {
+        if (attestation == null) {
+            return false;
+        }
+
+        String expected = computeMac(senderNodeId, messageType, slot, prepareMessageId, digest);
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8),
+                attestation.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Verifies the attestation of a PROMISE message, which covers the values voted for by its sender.
+     *
+     * @param senderNodeId Node id of the sender
+     * @param prepareMessageId Formatted identifier of the promised ballot
+     * @param slots Digest of the last value voted for per undecided slot
+     * @param attestation Attestation carried by the message
+     * @return Is attested
+     */
+    public boolean verifyPromise(int senderNodeId, String prepareMessageId, Map<Long, String> slots,
+                                 String attestation) {
+        return slots != null && verify(Message.Type.PROMISE, senderNodeId, 0, prepareMessageId,
+                digest(new TreeMap<>(slots)), attestation);
+    }
+
+    /**
+     * Joins the voted values of the slots in slot order.
+     *
+     * @param slots Digest per slot, ordered by slot
+     * @return Joined digests
+     */
+    private static String digest(Map<Long, String> slots) {
+        StringBuilder builder = new StringBuilder();
+        slots.forEach((slot, digest) -> builder.append(slot).append('=').append(digest).append(';'));
+        return builder.toString();
+    }
+
+    /**
+     * Computes the MAC of an attestation.
+     *
+     * @param senderNodeId Node id of the attesting node
+     * @param messageType Type of the message
+     * @param slot Log slot
+     * @param prepareMessageId Formatted identifier of the ballot
+     * @param digest Digest of the value
+     * @return Base64 encoded MAC
+     */
+    private String computeMac(int senderNodeId, Message.Type messageType, long slot, String prepareMessageId,
+                              String digest) {
+        Mac mac = macs.get();
+        try {
+            mac.init(key);
+
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid key for " + ALGORITHM, e);
+        }
+
+        String attested = "counter:" + senderNodeId + ":" + messageType + ":" + slot + ":" + prepareMessageId + ":" + digest;
+        return Base64.getEncoder().encodeToString(mac.doFinal(attested.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Creates a new {@link Mac} instance, one is kept per thread.
+     *
+     * @return Mac
+     */
+    private static Mac newMac() {
+        try {
+            return Mac.getInstance(ALGORITHM);
+
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+
+    /**
+     * The values voted for in the undecided slots, as attested in a PROMISE message.
+     */
+    public static class PromiseAttestation {
+        private final Map<Long, String> slots;
+        private final String attestation;
+
+        /**
+         * Constructor.
+         *
+         * @param slots Digest of the last value voted for per undecided slot
+         * @param attestation Attestation of the slots and the ballot
+         */
+        PromiseAttestation(Map<Long, String> slots, String attestation) {
+            this.slots = slots;
+            this.attestation = attestation;
+        }
+
+        public Map<Long, String> getSlots() {
+            return slots;
+        }
+
+        public String getAttestation() {
+            return attestation;
+        }
+    }
+}
@@ -0,0 +1,414 @@
+package com.suburbs.council.election.paxos;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.suburbs.council.election.messages.Accept;
+import com.suburbs.council.election.messages.Prepare;
+import com.suburbs.council.election.messages.Proposal;
+import com.suburbs.council.election.paxos.service.Metrics;
+import com.suburbs.council.election.utils.PaxosUtils;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * WriteAheadLog makes the state of the acceptor durable: the promised PREPARE messages, the accepted
+ * values of the log slots and the decided slots. The records are appended to the active segment file,
+ * a JSON document per line, and forced to disk with group commit. The protocol thread appends the records
+ * of all the messages it handles in one pass, and forces them with one fsync before any of the
+ * responses of these messages is sent, so one flush covers all the ballots and slots handled together.
+ * <br>
+ * On restart the records of all the segments are replayed in order into the {@link Context} before the
+ * node handles any message, thus the node keeps the promises and the votes it sent before the crash.
+ * <br>
+ * Compaction only switches to a new active segment on the protocol thread. The records of the live state
+ * are written to a compacted segment ordered before it on a background thread, which then deletes the
+ * older segments. Until then the older segments replay to the same state, so a crash at any step is safe.
+ */
+public class WriteAheadLog {
+    private static final Logger log = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    // Time taken by one fsync, and the no. of records it made durable
+    public static final String FSYNC_LATENCY = "wal.fsync.latency.us";
+    public static final String BATCH_SIZE = "wal.batch.records";
+
+    // Time taken to write a compacted segment and delete the segments it replaces
+    public static final String COMPACTION_LATENCY = "wal.compaction.latency.us";
+
+    // A pass over many queued messages is forced once this many records are pending
+    private static final int MAX_BATCH_RECORDS = 512;
+
+    private static final String SEGMENT_SUFFIX = ".wal";
+
+    private final Path directory;
+    private final String segmentPrefix;
+    private final Metrics metrics;
+    private final ExecutorService compactor;
+
+    // Sequence no. of the active segment and its channel, both replaced when the log is compacted
+    private long activeSequence;
+    private FileChannel channel;
+
+    // Responses waiting for the pending records to be forced
+    private final List<Runnable> pendingResponses;
+    private int pendingRecords;
+
+    /**
+     * Constructor.
+     *
+     * @param directory Directory of the log segments
+     * @param nodeId Node id of the current node, which names the segments
+     * @param metrics Metrics of the node
+     * @throws IOException Thrown if the active segment can not be opened
+     */
+    public WriteAheadLog(String directory, int nodeId, Metrics metrics) throws IOException {
+        this.directory = Paths.get(directory);
+        this.segmentPrefix = "node-" + nodeId + ".";
+        this.metrics = metrics;
+        this.pendingResponses = new ArrayList<>();
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "wal-compaction-" + nodeId);
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Files.createDirectories(this.directory);
+        List<Long> sequences = listSegments();
+        this.activeSequence = sequences.isEmpty() ? 0 : sequences.get(sequences.size() - 1);
+        this.channel = openSegment(activeSequence);
+    }
+
+    /**
+     * Reads all the records of the segments. A record torn by a crash while it was written is the
+     * last one of the active segment, it was never forced and is dropped. The segment is truncated to
+     * the end of the last complete record, so the records appended from now on do not follow the torn one.
+     *
+     * @return Records in the order they were appended
+     * @throws IOException Thrown if a segment can not be read or truncated
+     */
+    public List<Record> read() throws IOException {
+        List<Record> records = new ArrayList<>();
+        for (long sequence : listSegments()) {
+            Path path = getSegmentPath(sequence);
+            byte[] bytes = Files.readAllBytes(path);
+
+            // A record is complete once its line separator was written
+            int completeLength = 0;
+            for (int end = 0; end < bytes.length; end++) {
+                if (bytes[end] != '\n') {
+                    continue;
+                }
+                String line = new String(bytes, completeLength, end - completeLength, StandardCharsets.UTF_8);
+                if (!line.isBlank()) {
+                    try {
+                        records.add(PaxosUtils.deserialize(line, Record.class));
+
+                    } catch (JsonProcessingException e) {
+                        break;
+                    }
+                }
+                completeLength = end + 1;
+            }
+
+            if (completeLength < bytes.length) {
+                log.warn("Dropping torn record of the write-ahead log {} after {} bytes", path, completeLength);
+                if (sequence == activeSequence) {
+                    channel.truncate(completeLength);
+                    channel.force(false);
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Appends the record without forcing it. The record is durable once {@link #sync()} returned.
+     *
+     * @param record Record
+     */
+    public void append(Record record) {
+        try {
+            byte[] line = (PaxosUtils.serialize(record) + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error appending to the write-ahead log " + directory, e);
+        }
+
+        pendingRecords++;
+        if (pendingRecords >= MAX_BATCH_RECORDS) {
+            sync();
+        }
+    }
+
+    /**
+     * Runs the response once the records appended so far are durable, right away if none is pending.
+     *
+     * @param response Response revealing the state of the records
+     */
+    public void whenDurable(Runnable response) {
+        if (pendingRecords == 0) {
+            response.run();
+            return;
+        }
+        pendingResponses.add(response);
+    }
+
+    /**
+     * Forces the pending records to disk with one fsync, and sends the responses which waited for them.
+     */
+    public void sync() {
+        if (pendingRecords > 0) {
+            long startedAt = System.nanoTime();
+            try {
+                channel.force(false);
+
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error forcing the write-ahead log " + directory, e);
+            }
+            metrics.histogram(FSYNC_LATENCY).record((System.nanoTime() - startedAt) / 1000);
+            metrics.histogram(BATCH_SIZE).record(pendingRecords);
+            pendingRecords = 0;
+        }
+
+        List<Runnable> responses = new ArrayList<>(pendingResponses);
+        pendingResponses.clear();
+        responses.forEach(Runnable::run);
+    }
+
+    /**
+     * Compacts the log to the records of the state which is not covered by a snapshot yet. The pending
+     * records are forced and the log switches to a new active segment, the only work done on the calling
+     * thread. The compacted segment is written, forced and renamed in place on the background thread,
+     * and the segments it replaces are deleted after that.
+     *
+     * @param records Records of the live state
+     */
+    public void compact(List<Record> records) {
+        // Serialized right away, the state the records hold keeps changing on the protocol thread
+        List<String> lines = new ArrayList<>();
+        try {
+            for (Record record : records) {
+                lines.add(PaxosUtils.serialize(record));
+            }
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Error compacting the write-ahead log " + directory, e);
+        }
+
+        sync();
+
+        // The compacted segment is ordered after the segments it replaces, before the new active one
+        long compactedSequence = activeSequence + 1;
+        try {
+            FileChannel replacedChannel = channel;
+            channel = openSegment(activeSequence + 2);
+            activeSequence += 2;
+            replacedChannel.close();
+
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error switching the segment of the write-ahead log " + directory, e);
+        }
+
+        compactor.execute(() -> writeCompactedSegment(compactedSequence, lines));
+    }
+
+    /**
+     * Writes the compacted segment to a temporary file, forces and renames it, and deletes the older
+     * segments. A crash leaves either the older segments or the compacted one, which both replay to the
+     * same state after the snapshot.
+     *
+     * @param sequence Sequence no. of the compacted segment
+     * @param lines Serialized records of the live state
+     */
+    private void writeCompactedSegment(long sequence, List<String> lines) {
+        long startedAt = System.nanoTime();
+        Path path = getSegmentPath(sequence);
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (FileChannel tempChannel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (String line : lines) {
+                    ByteBuffer buffer = ByteBuffer.wrap((line + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+                    while (buffer.hasRemaining()) {
+                        tempChannel.write(buffer);
+                    }
+                }
+                tempChannel.force(false);
+            }
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            for (long olderSequence : listSegments()) {
+                if (olderSequence < sequence) {
+                    Files.deleteIfExists(getSegmentPath(olderSequence));
+                }
+            }
+            metrics.histogram(COMPACTION_LATENCY).record((System.nanoTime() - startedAt) / 1000);
+
+        } catch (IOException e) {
+            log.error("Error compacting the write-ahead log {} with exception: {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * Lists the sequence nos. of the segments of this node.
+     *
+     * @return Sequence nos. in ascending order
+     * @throws IOException Thrown if the directory can not be listed
+     */
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(segmentPrefix) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> name.substring(segmentPrefix.length(), name.length() - SEGMENT_SUFFIX.length()))
+                    .filter(sequence -> !sequence.isEmpty() && sequence.chars().allMatch(Character::isDigit))
+                    .map(Long::parseLong)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Opens the segment for appending, creating it if needed.
+     *
+     * @param sequence Sequence no. of the segment
+     * @return Channel of the segment
+     * @throws IOException Thrown if the segment can not be opened
+     */
+    private FileChannel openSegment(long sequence) throws IOException {
+        return FileChannel.open(getSegmentPath(sequence), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Returns the path of the segment.
+     *
+     * @param sequence Sequence no. of the segment
+     * @return Path
+     */
+    private Path getSegmentPath(long sequence) {
+        return directory.resolve(segmentPrefix + sequence + SEGMENT_SUFFIX);
+    }
+
+    /**
+     * A record of the log, one of a promised PREPARE message, an accepted value of a log slot or a
+     * decided log slot.
+     */
+    public static class Record {
+
+        /**
+         * Kind of the state change the record holds.
+         */
+        public enum Type {
+            PROMISE,
+            ACCEPT,
+            DECIDE
+        }
+
+        private Type type;
+        private Prepare prepare;
+        private Accept accept;
+        private long slot;
+        private Proposal proposal;
+
+        // No-args used by Jackson
+        public Record() {
+        }
+
+        /**
+         * Creates the record of a promised PREPARE message.
+         *
+         * @param prepare Promised PREPARE message
+         * @return Record
+         */
+        public static Record promise(Prepare prepare) {
+            Record record = new Record();
+            record.setType(Type.PROMISE);
+            record.setPrepare(prepare);
+            return record;
+        }
+
+        /**
+         * Creates the record of an accepted value of a log slot.
+         *
+         * @param accept Accepted ACCEPT message
+         * @return Record
+         */
+        public static Record accept(Accept accept) {
+            Record record = new Record();
+            record.setType(Type.ACCEPT);
+            record.setAccept(accept);
+            return record;
+        }
+
+        /**
+         * Creates the record of a decided log slot.
+         *
+         * @param slot Log slot
+         * @param proposal Decided value
+         * @return Record
+         */
+        public static Record decide(long slot, Proposal proposal) {
+            Record record = new Record();
+            record.setType(Type.DECIDE);
+            record.setSlot(slot);
+            record.setProposal(proposal);
+            return record;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public void setType(Type type) {
+            this.type = type;
+        }
+
+        public Prepare getPrepare() {
+            return prepare;
+        }
+
+        public void setPrepare(Prepare prepare) {
+            this.prepare = prepare;
+        }
+
+        public Accept getAccept() {
+            return accept;
+        }
+
+        public void setAccept(Accept accept) {
+            this.accept = accept;
+        }
+
+        public long getSlot() {
+            return slot;
+        }
+
+        public void setSlot(long slot) {
+            this.slot = slot;
+        }
+
+        public Proposal getProposal() {
+            return proposal;
+        }
+
+        public void setProposal(Proposal proposal) {
+            this.proposal = proposal;
+        }
+    }
+}
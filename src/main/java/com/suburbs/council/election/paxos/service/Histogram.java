@@ -0,0 +1,82 @@
+package com.suburbs.council.election.paxos.service;
+
+import java.util.Arrays;
+
+/**
+ * Histogram keeps the count, sum, min and max of the recorded values along with
+ * a window of the most recent values, which is used to estimate the percentiles.
+ */
+public class Histogram {
+    private static final int WINDOW_SIZE = 1024;
+
+    private final long[] window;
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    /**
+     * Constructor.
+     */
+    public Histogram() {
+        this.window = new long[WINDOW_SIZE];
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value Value to record
+     */
+    public synchronized void record(long value) {
+        window[(int) (count % WINDOW_SIZE)] = value;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Returns the no. of recorded values.
+     *
+     * @return Count
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the mean of all the recorded values.
+     *
+     * @return Mean
+     */
+    public synchronized double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Estimates the given percentile from the most recent values.
+     *
+     * @param percentile Percentile between 0 and 100
+     * @return Value at the percentile
+     */
+    public synchronized long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+
+        long[] values = Arrays.copyOf(window, (int) Math.min(count, WINDOW_SIZE));
+        Arrays.sort(values);
+
+        int index = (int) Math.ceil(percentile / 100 * values.length) - 1;
+        return values[Math.max(0, Math.min(index, values.length - 1))];
+    }
+
+    @Override
+    public synchronized String toString() {
+        if (count == 0) {
+            return "count=0";
+        }
+        return String.format("count=%d, mean=%.2f, min=%d, p50=%d, p99=%d, max=%d",
+                count, getMean(), min, getPercentile(50), getPercentile(99), max);
+    }
+}
@@ -0,0 +1,75 @@
+package com.suburbs.council.election.paxos.service;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics holds the named counters and histograms of the current node. They are
+ * periodically logged by the {@link MonitoringService}.
+ */
+public class Metrics {
+
+    private final Map<String, LongAdder> counters;
+    private final Map<String, Histogram> histograms;
+
+    /**
+     * Constructor.
+     */
+    public Metrics() {
+        this.counters = new ConcurrentHashMap<>();
+        this.histograms = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Increments the counter by given value.
+     *
+     * @param name Name of the counter
+     * @param value Value to add
+     */
+    public void increment(String name, long value) {
+        counters.computeIfAbsent(name, key -> new LongAdder())
+                .add(value);
+    }
+
+    /**
+     * Returns the current value of the counter.
+     *
+     * @param name Name of the counter
+     * @return Value of the counter
+     */
+    public long getCounter(String name) {
+        LongAdder counter = counters.get(name);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * Returns the histogram with the given name, creating it if needed.
+     *
+     * @param name Name of the histogram
+     * @return Histogram
+     */
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new Histogram());
+    }
+
+    /**
+     * Checks if anything was recorded yet.
+     *
+     * @return Is empty
+     */
+    public boolean isEmpty() {
+        return counters.isEmpty() && histograms.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        new TreeMap<>(counters).forEach((name, counter) ->
+                builder.append("\n\t").append(name).append(" = ").append(counter.sum()));
+        new TreeMap<>(histograms).forEach((name, histogram) ->
+                builder.append("\n\t").append(name).append(" -> ").append(histogram));
+        return builder.toString();
+    }
+}
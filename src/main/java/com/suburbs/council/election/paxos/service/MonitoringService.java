@@ -1,12 +1,12 @@
 package com.suburbs.council.election.paxos.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.suburbs.council.election.Member;
 import com.suburbs.council.election.messages.HeartBeat;
 import com.suburbs.council.election.paxos.Context;
+import com.suburbs.council.election.paxos.LeaderLease;
+import com.suburbs.council.election.utils.PaxosUtils;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.net.Socket;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,12 +17,12 @@ import org.slf4j.LoggerFactory;
  */
 public class MonitoringService extends Thread {
     private static final Logger log = LoggerFactory.getLogger(MonitoringService.class);
-    private static final long WAIT_TIME = 5000L;
+    public static final long WAIT_TIME = 5000L;
 
     private final Context context;
-    private final ObjectMapper mapper;
-    private final String heartBeatJson;
+    private final LeaderLease leaderLease;
     private boolean isFirstTime = true;
+    private long loggingStartsAt;
 
     /**
      * Constructor.
@@ -31,8 +31,7 @@ public class MonitoringService extends Thread {
      */
     public MonitoringService(Context context) throws JsonProcessingException {
         this.context = context;
-        this.mapper = new ObjectMapper();
-        this.heartBeatJson = mapper.writeValueAsString(new HeartBeat(context.getNodeName()));
+        this.leaderLease = context.getLeaderLease();
     }
 
     /**
@@ -42,55 +41,62 @@ public class MonitoringService extends Thread {
     @Override
     public void run() {
         while (!Thread.interrupted()) {
+            tick();
 
-            if (isFirstTime) {
-                log.info("Monitoring will start after 30 seconds");
-                try {
-                    Thread.sleep(30000);
-                    isFirstTime = false;
+            try {
+                // Wait for WAIT_TIME ms before next check.
+                Thread.sleep(WAIT_TIME);
 
-                } catch (InterruptedException e) {
-                    log.error("[{}], Sleeping thread interrupted", context.getNodeName());
-                }
+            } catch (InterruptedException e) {
+                log.error("[{}]: Error while monitoring service waiting for wait time", context.getNodeName());
+            }
+        }
+    }
 
-            } else {
+    /**
+     * Logs the state, sends the heartbeats and polls the received ones. Runs every {@link #WAIT_TIME} ms,
+     * on the service's own thread or on a shared timer when several councils share the process.
+     */
+    public void tick() {
 
-                // Print the state information
-                log.info("[{}]: ----------------------------> Current state: {}",
-                        context.getNodeName(), context.getCurrentState());
-            }
+        // Heartbeats are sent right away, since the candidates defer to each other by rank
+        if (isFirstTime) {
+            log.info("Monitoring will start after 30 seconds");
+            loggingStartsAt = System.currentTimeMillis() + 30000;
+            isFirstTime = false;
 
+        } else if (System.currentTimeMillis() >= loggingStartsAt) {
 
-            // Iterate over the members and send heartbeat.
-            context.getMembers()
-                    .forEach(member -> {
+            // Print the state information
+            log.info("[{}]: ----------------------------> Current state: {}",
+                    context.getNodeName(), context.getCurrentState());
 
-                        // If connection is not active, attempt to start a new connection
-                        try {
-                            if (!member.isConnected())
-                                member.initializeSocket();
+            // Print the metrics recorded so far
+            if (!context.getMetrics().isEmpty()) {
+                log.info("[{}]: Metrics: {}", context.getNodeName(), context.getMetrics());
+            }
+        }
 
-                            sendHeartBeat(member.socket());
 
-                        } catch (IOException e) {
-                            log.error("[{}]: Error initializing socket to host: {} and port: {}",
-                                    context.getNodeName(),
-                                    member.getHost(),
-                                    member.getPort());
-                        }
-                    });
+        // Iterate over the members and send heartbeat. The leader also renews its lease.
+        HeartBeat heartBeat = buildHeartBeat();
+        context.getMembers()
+                .forEach(member -> {
 
-            // Poll received heartbeat messages
-            pollHeartBeat();
+                    // If connection is not active, attempt to start a new connection
+                    try {
+                        sendHeartBeat(member, heartBeat);
 
-            try {
-                // Wait for WAIT_TIME ms before next check.
-                Thread.sleep(WAIT_TIME);
+                    } catch (IOException e) {
+                        log.error("[{}]: Error initializing socket to host: {} and port: {}",
+                                context.getNodeName(),
+                                member.getHost(),
+                                member.getPort());
+                    }
+                });
 
-            } catch (InterruptedException e) {
-                log.error("[{}]: Error while monitoring service waiting for wait time", context.getNodeName());
-            }
-        }
+        // Poll received heartbeat messages
+        pollHeartBeat();
     }
 
     /**
@@ -110,16 +116,80 @@ public class MonitoringService extends Thread {
     }
 
     /**
-     * Writes the {@link HeartBeat} to socket output stream.
+     * Builds the {@link HeartBeat} of this node. If this node is leading a term and
+     * leases are enabled, the heartbeat carries a lease request stamped with the local time.
+     *
+     * @return HeartBeat message
+     */
+    private HeartBeat buildHeartBeat() {
+        HeartBeat heartBeat = new HeartBeat(context.getNodeName());
+        heartBeat.setNodeId(context.getNodeId());
+        heartBeat.setRank(context.getRank());
+        heartBeat.setCandidate(context.isCandidate());
+
+        String heldPrepareMessageId = leaderLease.getHeldPrepareMessageId();
+        if (leaderLease.isEnabled() && heldPrepareMessageId != null) {
+            heartBeat.setLeaderPrepareMessageId(heldPrepareMessageId);
+            heartBeat.setLeaseRequestTimestamp(LeaderLease.now());
+        }
+        return heartBeat;
+    }
+
+    /**
+     * Writes the {@link HeartBeat} to the member, reconnecting if needed.
      *
-     * @param socket Member socket
+     * @param member Member
+     * @param heartBeat HeartBeat message
      * @throws IOException Thrown if socket is unable to open on that port
      */
-    private void sendHeartBeat(Socket socket) throws IOException {
+    private void sendHeartBeat(Member member, HeartBeat heartBeat) throws IOException {
+        PaxosUtils.dispatch(member, heartBeat);
+    }
+
+    /**
+     * Handles the lease related fields of a received {@link HeartBeat}. A lease request is
+     * granted only if it comes from the proposer this node is currently promised to, and the
+     * grant echoes the request timestamp back to the leader.
+     *
+     * @param heartBeat Received heartbeat
+     */
+    public void handleLeaseHeartBeat(HeartBeat heartBeat) {
+        if (!leaderLease.isEnabled() || heartBeat.getLeaderPrepareMessageId() == null) {
+            return;
+        }
+
+        // This node is the leader and the member granted its lease
+        if (heartBeat.getLeaseGrantTimestamp() > 0) {
+            leaderLease.recordGrant(heartBeat.getLeaderPrepareMessageId(), heartBeat.getNodeId(),
+                    heartBeat.getLeaseGrantTimestamp());
+            return;
+        }
+
+        if (heartBeat.getLeaseRequestTimestamp() <= 0
+                || !heartBeat.getLeaderPrepareMessageId().equals(context.getLastPrepareMessageIdWithNodeId())) {
+            return;
+        }
+
+        Member leader = context.getMember(heartBeat.getNodeId());
+        if (leader == null) {
+            return;
+        }
+
+        leaderLease.grant(heartBeat.getNodeId());
 
-        PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
-        out.println(heartBeatJson);
-        out.close();
+        HeartBeat grant = new HeartBeat(context.getNodeName());
+        grant.setNodeId(context.getNodeId());
+        grant.setLeaderPrepareMessageId(heartBeat.getLeaderPrepareMessageId());
+        grant.setLeaseGrantTimestamp(heartBeat.getLeaseRequestTimestamp());
+
+        try {
+            log.trace("[{}]: Granting lease to {} for id: {}",
+                    context.getNodeName(), leader.getName(), heartBeat.getLeaderPrepareMessageId());
+            sendHeartBeat(leader, grant);
+
+        } catch (IOException e) {
+            log.error("[{}]: Error sending lease grant to {}", context.getNodeName(), leader.getName());
+        }
     }
 
     /**
@@ -130,9 +200,14 @@ public class MonitoringService extends Thread {
         List<HeartBeat> messages = context.pollHeartBeatMessage();
         if (messages.isEmpty()) return;
 
-        messages.forEach(heartbeat -> log.trace("[{}]: Received heartbeat from member {}",
-                context.getNodeName(),
-                (heartbeat).getName())
-        );
+        messages.forEach(heartbeat -> {
+            log.trace("[{}]: Received heartbeat from member {}",
+                    context.getNodeName(),
+                    (heartbeat).getName());
+
+            context.getPeerSelector().recordHeard(heartbeat.getNodeId());
+            context.getElectionPriority().recordHeartBeat(heartbeat.getNodeId(), heartbeat.getRank(),
+                    heartbeat.isCandidate());
+        });
     }
 }
@@ -1,13 +1,22 @@
 package com.suburbs.council.election.utils;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.suburbs.council.election.Member;
+import com.suburbs.council.election.messages.GroupFrame;
 import com.suburbs.council.election.messages.Message;
+import com.suburbs.council.election.messages.Proposal;
 import com.suburbs.council.election.paxos.Candidate;
+import com.suburbs.council.election.paxos.MessageAuthenticator;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -47,6 +56,19 @@ public class PaxosUtils {
         return mapper.readValue(message, classType);
     }
 
+    /**
+     * Deserializes the JSON string to given generic type.
+     *
+     * @param message JSON string to deserialize
+     * @param typeReference Generic type
+     * @return Object of given type
+     * @param <T> Generic type
+     * @throws JsonProcessingException Throws if encounters error while deserialization
+     */
+    public static <T> T deserialize(String message, TypeReference<T> typeReference) throws JsonProcessingException {
+        return mapper.readValue(message, typeReference);
+    }
+
     /**
      * Returns the type of {@link Message}.
      *
@@ -88,6 +110,31 @@ public class PaxosUtils {
         return (lastPrepareMessageNumber + salt) + "." + proposerNodeId;
     }
 
+    /**
+     * Computes the SHA-256 digest of the ballot, the slot and the proposed value. The pre-rounds
+     * carry only this digest instead of the value, and votes are counted per digest, so members
+     * can not be split by a proposer sending different values for the same ballot.
+     *
+     * @param prepareMessageId Formatted identifier of the PREPARE message
+     * @param slot Log slot, 0 for the election
+     * @param proposal Proposed value, may be null
+     * @return Base64 encoded digest
+     * @throws JsonProcessingException Throws if encounters error while serialization
+     */
+    public static String digest(String prepareMessageId, long slot, Proposal proposal) throws JsonProcessingException {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        messageDigest.update((prepareMessageId + "/" + slot + "/").getBytes(StandardCharsets.UTF_8));
+        messageDigest.update(mapper.writeValueAsBytes(proposal));
+        return Base64.getEncoder().encodeToString(messageDigest.digest());
+    }
+
     /**
      * Dispatch the given Object to given {@link Member}. This will first serialize
      * the object into JSON string and then send over the socket.
@@ -99,14 +146,29 @@ public class PaxosUtils {
     public static void dispatch(Member member, Object object) throws IOException {
         String message = mapper.writeValueAsString(object);
 
-        // Check if the socket not connected
-        if (!member.isConnected())
-            member.initializeSocket(); // Attempt to reconnect to the socket
+        // If the messages are authenticated, the message is wrapped in a frame signed for the member
+        MessageAuthenticator authenticator = member.authenticator();
+        if (authenticator != null) {
+            message = mapper.writeValueAsString(authenticator.sign(member.getId(), List.of(message)));
+        }
+
+        // Several councils share the port of the member, the frame names the council of the message
+        if (member.groupId() != null) {
+            message = mapper.writeValueAsString(new GroupFrame(member.groupId(), message));
+        }
+
+        // Members are shared by the protocol and the monitoring threads
+        synchronized (member) {
+
+            // Check if the socket not connected
+            if (!member.isConnected())
+                member.initializeSocket(); // Attempt to reconnect to the socket
 
-        Socket socket = member.socket();
-        PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
-        out.println(message);
-        out.close(); // This will release the resources
+            Socket socket = member.socket();
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+            out.println(message);
+            out.close(); // This will release the resources
+        }
     }
 
     /**